@@ -0,0 +1,105 @@
+package com.dashboard.auth.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Verificación local de los JWT (HS256) que emite auth-service, para cualquier
+ * servicio que tenga el secreto: no hace falta llamar a auth-service en cada
+ * petición.
+ *
+ * La clave y el parser se construyen una sola vez (el JwtParser de jjwt es
+ * inmutable y seguro entre hilos). Los tokens válidos se guardan por su hash
+ * SHA-256 hasta que vencen, así verificar otra vez el mismo token es una
+ * búsqueda en memoria, sin HMAC ni parseo de JSON. Los tokens inválidos no se
+ * guardan: se verifican cada vez y lanzan JwtException.
+ */
+public final class JwtVerifier {
+
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verified;
+
+    public JwtVerifier(SecretKey key, long maxCachedTokens) {
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+    }
+
+    /**
+     * Clave HMAC a partir del secreto compartido; debe tener al menos 256 bits
+     */
+    public static SecretKey hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws JwtException si la firma no es válida o el token venció
+     * @throws IllegalArgumentException si el token está vacío
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Token vacío");
+        }
+        String hash = sha256(token);
+        VerifiedToken cached = verified.getIfPresent(hash);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+
+        VerifiedToken result = VerifiedToken.of(parser.parseSignedClaims(token).getPayload());
+        // Un token sin exp no se guarda: no hay hasta cuándo confiar en él
+        if (result.expiresAt() != null) {
+            verified.put(hash, result);
+        }
+        return result;
+    }
+
+    public long cachedTokens() {
+        return verified.estimatedSize();
+    }
+
+    public void clear() {
+        verified.invalidateAll();
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static final class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dashboard.auth.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Datos de un JWT ya verificado: los claims que pone auth-service al emitirlo.
+ * Es inmutable, así se puede compartir entre peticiones desde la caché.
+ */
+public record VerifiedToken(
+        String subject,
+        Long userId,
+        String email,
+        String name,
+        Instant issuedAt,
+        Instant expiresAt) {
+
+    static VerifiedToken of(Claims claims) {
+        Object userId = claims.get("userId");
+        return new VerifiedToken(
+                claims.getSubject(),
+                userId instanceof Number number ? number.longValue() : null,
+                claims.get("email", String.class),
+                claims.get("name", String.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()));
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,193 @@
+package com.dashboard.auth.cache;
+
+import com.dashboard.auth.dto.UserProfile;
+import com.dashboard.auth.jfr.UserLookupEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Caché de usuarios en dos niveles: una caché local pequeña con TTL corto y
+ * Redis, compartido entre réplicas. Postgres solo se consulta cuando el
+ * usuario no está en ninguno de los dos.
+ *
+ * El perfil se guarda completo bajo cada clave por la que se busca (id, email
+ * y auth0Id), así cada búsqueda es un solo GET. Al registrar o modificar un
+ * usuario se escribe en la caché (write-through); al llenarla desde Postgres
+ * se usa SET NX, para que una lectura vieja no pise lo que escribió un cambio
+ * concurrente.
+ *
+ * Si Redis no responde se sigue con Postgres. La caché local de las demás
+ * réplicas se actualiza al vencer su TTL.
+ */
+@Component
+@Slf4j
+public class UserProfileCache {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Tracer tracer;
+    private final Cache<String, UserProfile> local;
+    private final String keyPrefix;
+    private final Duration ttl;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter databaseLoads;
+
+    public UserProfileCache(
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            Tracer tracer,
+            @Value("${auth.users.cache.key-prefix:auth:user:}") String keyPrefix,
+            @Value("${auth.users.cache.ttl:1h}") Duration ttl,
+            @Value("${auth.users.cache.local-ttl:30s}") Duration localTtl,
+            @Value("${auth.users.cache.local-max-size:1000}") long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.tracer = tracer;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .maximumSize(localMaxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "userProfiles");
+        this.localHits = lookups(meterRegistry, "local");
+        this.redisHits = lookups(meterRegistry, "redis");
+        this.databaseLoads = lookups(meterRegistry, "database");
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("auth.users.lookup")
+                .description("Búsquedas de usuarios según dónde se encontraron")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    public Optional<UserProfile> byId(Long id, Supplier<Optional<UserProfile>> loader) {
+        return get("id:" + id, loader);
+    }
+
+    public Optional<UserProfile> byEmail(String email, Supplier<Optional<UserProfile>> loader) {
+        return get("email:" + email, loader);
+    }
+
+    public Optional<UserProfile> byAuth0Id(String auth0Id, Supplier<Optional<UserProfile>> loader) {
+        return get("auth0:" + auth0Id, loader);
+    }
+
+    /**
+     * Write-through después de crear o modificar un usuario
+     */
+    public void put(UserProfile profile) {
+        store(profile, false);
+    }
+
+    public void evict(UserProfile profile) {
+        List<String> keys = keys(profile);
+        keys.forEach(local::invalidate);
+        try {
+            redisTemplate.delete(keys.stream().map(key -> keyPrefix + key).toList());
+        } catch (Exception e) {
+            log.warn("No se pudo quitar de Redis el usuario {}: {}", profile.id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Búsqueda en los tres niveles dentro de un span; el tag source dice dónde
+     * se encontró y, si fue en Postgres, la consulta queda dentro del span.
+     */
+    private Optional<UserProfile> get(String key, Supplier<Optional<UserProfile>> loader) {
+        Span span = tracer.nextSpan().name("cache userProfiles").tag("cache", "userProfiles").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return lookup(key, loader, span);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private Optional<UserProfile> lookup(String key, Supplier<Optional<UserProfile>> loader, Span span) {
+        UserLookupEvent event = UserLookupEvent.start(key);
+        UserProfile cached = local.getIfPresent(key);
+        if (cached != null) {
+            localHits.increment();
+            event.found("local");
+            span.tag("source", "local");
+            return Optional.of(cached);
+        }
+
+        UserProfile shared = readRedis(key);
+        if (shared != null) {
+            redisHits.increment();
+            local.put(key, shared);
+            event.found("redis");
+            span.tag("source", "redis");
+            return Optional.of(shared);
+        }
+
+        databaseLoads.increment();
+        Optional<UserProfile> loaded = loader.get();
+        // Los usuarios inexistentes no se guardan: el registro los crearía enseguida
+        loaded.ifPresent(profile -> store(profile, true));
+        event.found("database");
+        span.tag("source", "database");
+        return loaded;
+    }
+
+    private UserProfile readRedis(String key) {
+        try {
+            String json = redisTemplate.opsForValue().get(keyPrefix + key);
+            return json != null ? objectMapper.readValue(json, UserProfile.class) : null;
+        } catch (Exception e) {
+            log.warn("No se pudo leer de Redis el usuario {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(UserProfile profile, boolean onlyIfAbsent) {
+        List<String> keys = keys(profile);
+        keys.forEach(key -> local.put(key, profile));
+        try {
+            String json = objectMapper.writeValueAsString(profile);
+            for (String key : keys) {
+                if (onlyIfAbsent) {
+                    redisTemplate.opsForValue().setIfAbsent(keyPrefix + key, json, ttl);
+                } else {
+                    redisTemplate.opsForValue().set(keyPrefix + key, json, ttl);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("No se pudo guardar en Redis el usuario {}: {}", profile.id(), e.getMessage());
+        }
+    }
+
+    private static List<String> keys(UserProfile profile) {
+        List<String> keys = new ArrayList<>(3);
+        keys.add("id:" + profile.id());
+        if (profile.email() != null) keys.add("email:" + profile.email());
+        if (profile.auth0Id() != null) keys.add("auth0:" + profile.auth0Id());
+        return keys;
+    }
+}
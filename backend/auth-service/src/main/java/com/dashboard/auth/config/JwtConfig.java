@@ -0,0 +1,30 @@
+package com.dashboard.auth.config;
+
+import com.dashboard.auth.jwt.JwtVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Clave y verificador de JWT construidos una sola vez al iniciar, en vez de en
+ * cada token emitido o validado.
+ */
+@Configuration
+public class JwtConfig {
+
+    // Clave secreta para JWT (en producción, usar una variable de entorno)
+    private static final String SECRET_KEY = "mi-clave-secreta-muy-larga-para-jwt-no-uses-esto-en-produccion-12345678";
+
+    @Bean
+    public SecretKey jwtSigningKey() {
+        return JwtVerifier.hmacKey(SECRET_KEY);
+    }
+
+    @Bean
+    public JwtVerifier jwtVerifier(SecretKey jwtSigningKey,
+                                   @Value("${jwt.cache.max-size:10000}") long maxCachedTokens) {
+        return new JwtVerifier(jwtSigningKey, maxCachedTokens);
+    }
+}
@@ -0,0 +1,30 @@
+package com.dashboard.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * Pool para BCrypt, del tamaño de los núcleos: cada hash es CPU pura, más
+     * hilos solo reparten el mismo CPU. Con la cola llena se rechaza enseguida
+     * (AbortPolicy) y el login responde 503, en vez de ocupar los hilos de
+     * Tomcat que atienden /user/{id} y /health.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashExecutor(
+            @Value("${auth.password.threads:0}") int threads,
+            @Value("${auth.password.queue-capacity:64}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
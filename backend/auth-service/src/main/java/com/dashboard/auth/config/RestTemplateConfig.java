@@ -1,14 +1,67 @@
 package com.dashboard.auth.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class RestTemplateConfig {
-    
+
+    /**
+     * Cliente HTTP con pool de conexiones reutilizables (keep-alive) y
+     * timeouts de conexión, de lectura y de espera por una conexión del pool:
+     * un proveedor lento devuelve un error a tiempo en vez de dejar hilos
+     * colgados. Las conexiones inactivas se cierran después de idle-timeout.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(
+            @Value("${auth0.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${auth0.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${auth0.http.pool-timeout:1s}") Duration poolTimeout,
+            @Value("${auth0.http.max-connections:20}") int maxConnections,
+            @Value("${auth0.http.idle-timeout:30s}") Duration idleTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        // Una conexión que estuvo inactiva se revisa antes de reutilizarla,
+                        // por si el servidor ya la cerró
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                        .build())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeout.toMillis()))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    /**
+     * Con RestTemplateBuilder las llamadas quedan en la métrica http.client.requests
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
     }
 }
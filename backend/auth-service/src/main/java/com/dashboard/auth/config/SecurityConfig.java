@@ -1,5 +1,6 @@
 package com.dashboard.auth.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,9 +17,13 @@ import java.util.List;
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * El costo se puede subir sin invalidar las contraseñas: los hashes con
+     * costo menor se rehacen en el siguiente login (PasswordHasher.needsUpgrade)
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
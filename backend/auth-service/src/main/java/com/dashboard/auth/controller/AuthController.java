@@ -3,12 +3,15 @@ package com.dashboard.auth.controller;
 import com.dashboard.auth.dto.LoginRequest;
 import com.dashboard.auth.dto.LoginResponse;
 import com.dashboard.auth.dto.RegisterRequest;
+import com.dashboard.auth.dto.UserProfile;
 import com.dashboard.auth.model.User;
+import com.dashboard.auth.password.PasswordHashingRejectedException;
 import com.dashboard.auth.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -20,7 +23,6 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
-    private final PasswordEncoder passwordEncoder;
 
     /**
      * Endpoint de login: recibe email y password, devuelve JWT token
@@ -35,7 +37,7 @@ public class AuthController {
                     .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
 
             // Validar contraseña
-            if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+            if (!authService.checkPassword(user, loginRequest.getPassword())) {
                 log.warn("Contraseña incorrecta para: {}", loginRequest.getEmail());
                 return ResponseEntity.status(401)
                         .body(Map.of("error", "Credenciales inválidas"));
@@ -60,6 +62,8 @@ public class AuthController {
             log.info("Login exitoso para: {}", loginRequest.getEmail());
             return ResponseEntity.ok(response);
             
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
         } catch (IllegalArgumentException e) {
             log.error("Error en login: {}", e.getMessage());
             return ResponseEntity.status(401)
@@ -113,6 +117,8 @@ public class AuthController {
             log.info("Registro exitoso para: {}", registerRequest.getEmail());
             return ResponseEntity.ok(response);
             
+        } catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
         } catch (IllegalArgumentException e) {
             log.error("Error en registro: {}", e.getMessage());
             return ResponseEntity.badRequest()
@@ -140,21 +146,21 @@ public class AuthController {
             var user = authService.findByAuth0Id(auth0Id)
                     .orElseGet(() -> {
                         log.info("Creando nuevo usuario desde Auth0: {}", auth0Id);
-                        return authService.registerUser(
+                        return UserProfile.of(authService.registerUser(
                                 email,
                                 "", // Sin contraseña local para usuarios Auth0
                                 payload.getOrDefault("firstName", ""),
                                 payload.getOrDefault("lastName", ""),
                                 auth0Id
-                        );
+                        ));
                     });
 
             return ResponseEntity.ok(Map.of(
-                    "id", user.getId(),
-                    "email", user.getEmail(),
-                    "firstName", user.getFirstName(),
-                    "lastName", user.getLastName(),
-                    "auth0Id", user.getAuth0Id(),
+                    "id", user.id(),
+                    "email", user.email(),
+                    "firstName", user.firstName(),
+                    "lastName", user.lastName(),
+                    "auth0Id", user.auth0Id(),
                     "message", "Token verificado"
             ));
         } catch (Exception e) {
@@ -165,12 +171,12 @@ public class AuthController {
     }
 
     /**
-     * Endpoint para obtener datos del usuario
+     * Endpoint para obtener datos del usuario (sin el hash de la contraseña)
      */
     @GetMapping("/user/{id}")
     public ResponseEntity<?> getUser(@PathVariable Long id) {
         try {
-            User user = authService.getUserById(id);
+            UserProfile user = authService.getUserById(id);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -178,6 +184,12 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<?> serviceUnavailable(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
     /**
      * Health check
      */
@@ -0,0 +1,32 @@
+package com.dashboard.auth.dto;
+
+import com.dashboard.auth.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos públicos del usuario, sin el hash de la contraseña. Es lo que se
+ * guarda en la caché de usuarios y lo que devuelve /user/{id}.
+ */
+public record UserProfile(
+        Long id,
+        String email,
+        String firstName,
+        String lastName,
+        String auth0Id,
+        Boolean active,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static UserProfile of(User user) {
+        return new UserProfile(
+                user.getId(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getAuth0Id(),
+                user.getActive(),
+                user.getCreatedAt(),
+                user.getUpdatedAt());
+    }
+}
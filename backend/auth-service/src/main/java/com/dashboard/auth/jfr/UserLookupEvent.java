@@ -0,0 +1,42 @@
+package com.dashboard.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Búsqueda de un usuario en UserProfileCache: source dice dónde se encontró
+ * (local, redis o database). Con database la duración incluye la consulta a
+ * Postgres.
+ */
+@Name("com.dashboard.auth.UserLookup")
+@Label("Búsqueda de usuario")
+@Category({"Dashboard", "Auth"})
+@Description("Acierto en la caché local, en Redis o carga desde Postgres")
+@StackTrace(false)
+public class UserLookupEvent extends Event {
+
+    // Solo el tipo de clave (id, email o auth0), no el valor: los volcados salen del contenedor
+    @Label("Buscado por")
+    String lookup;
+
+    @Label("Origen")
+    String source;
+
+    public static UserLookupEvent start(String key) {
+        UserLookupEvent event = new UserLookupEvent();
+        if (event.isEnabled()) {
+            event.lookup = key.substring(0, key.indexOf(':'));
+            event.begin();
+        }
+        return event;
+    }
+
+    public void found(String source) {
+        this.source = source;
+        commit();
+    }
+}
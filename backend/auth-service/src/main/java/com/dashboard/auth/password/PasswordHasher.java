@@ -0,0 +1,161 @@
+package com.dashboard.auth.password;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Hash y verificación de contraseñas en el pool passwordHashExecutor, fuera de
+ * los hilos de Tomcat. El hilo de la petición espera el resultado como mucho
+ * max-wait; si la cola está llena o la espera vence se lanza
+ * PasswordHashingRejectedException (503 con Retry-After).
+ *
+ * Cada operación registra dos histogramas, auth.password.stage con
+ * stage=queue (espera en la cola) y stage=hash (BCrypt), por operation.
+ *
+ * Los hashes con un costo menor al configurado se rehacen en el login exitoso
+ * del usuario (ver needsUpgrade/upgradeLater): el costo se puede subir sin
+ * pedir a todos que cambien la contraseña.
+ */
+@Component
+@Slf4j
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long maxWaitNanos;
+    private final long retryAfterSeconds;
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            ThreadPoolExecutor passwordHashExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${auth.password.max-wait:5s}") Duration maxWait,
+            @Value("${auth.password.retry-after:5s}") Duration retryAfter) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = passwordHashExecutor;
+        this.meterRegistry = meterRegistry;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes de contraseña en proceso")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queued", executor, e -> e.getQueue().size())
+                .description("Hashes de contraseña esperando turno")
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return run("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run("verify", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * true si el hash guardado tiene un costo menor al configurado
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        try {
+            return passwordEncoder.upgradeEncoding(encodedPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rehace el hash en segundo plano y entrega el nuevo a onEncoded. Solo se
+     * hace si no hay hashes esperando: con carga se deja para el próximo login.
+     */
+    public void upgradeLater(String rawPassword, Consumer<String> onEncoded) {
+        if (!executor.getQueue().isEmpty()) {
+            return;
+        }
+        long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    onEncoded.accept(timed("upgrade", submitted, () -> passwordEncoder.encode(rawPassword)));
+                } catch (Exception e) {
+                    log.warn("No se pudo actualizar el hash de la contraseña: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Actualización del hash pospuesta: pool de contraseñas ocupado");
+        }
+    }
+
+    private <T> T run(String operation, Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(operation, submitted, task));
+        } catch (RejectedExecutionException e) {
+            throw rejected(operation, "queue_full");
+        }
+
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Si todavía estaba en la cola ya no se ejecuta
+            future.cancel(false);
+            throw rejected(operation, "timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw rejected(operation, "interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Error calculando el hash de la contraseña", e.getCause());
+        }
+    }
+
+    private <T> T timed(String operation, long submitted, Callable<T> task) throws Exception {
+        long started = System.nanoTime();
+        stageTimer(operation, "queue").record(started - submitted, TimeUnit.NANOSECONDS);
+        try {
+            return task.call();
+        } finally {
+            stageTimer(operation, "hash").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer stageTimer(String operation, String stage) {
+        return Timer.builder("auth.password.stage")
+                .description("Espera en cola y cálculo de BCrypt")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private PasswordHashingRejectedException rejected(String operation, String reason) {
+        Counter.builder("auth.password.rejected")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        // En una ráfaga se rechazan muchos: el detalle queda en auth.password.rejected
+        log.debug("Hash de contraseña rechazado ({}): {} activos, {} en cola",
+                reason, executor.getActiveCount(), executor.getQueue().size());
+        return new PasswordHashingRejectedException(reason, retryAfterSeconds);
+    }
+}
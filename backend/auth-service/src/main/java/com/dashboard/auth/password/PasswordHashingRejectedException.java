@@ -0,0 +1,19 @@
+package com.dashboard.auth.password;
+
+import lombok.Getter;
+
+/**
+ * El hash de la contraseña no se hizo porque el pool de BCrypt está saturado
+ */
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final String reason;
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String reason, long retryAfterSeconds) {
+        super("Servicio de autenticación saturado (" + reason + "), intente de nuevo en " + retryAfterSeconds + " s");
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -2,12 +2,30 @@ package com.dashboard.auth.repository;
 
 import com.dashboard.auth.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByAuth0Id(String auth0Id);
+
+    /**
+     * Cambia el hash solo si sigue siendo currentHash, para no pisar un cambio
+     * de contraseña hecho mientras se calculaba el nuevo hash
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newHash, u.updatedAt = :updatedAt " +
+           "where u.id = :id and u.password = :currentHash")
+    int replacePasswordHash(@Param("id") Long id,
+                            @Param("currentHash") String currentHash,
+                            @Param("newHash") String newHash,
+                            @Param("updatedAt") LocalDateTime updatedAt);
 }
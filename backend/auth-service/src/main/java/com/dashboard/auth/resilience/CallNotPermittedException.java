@@ -0,0 +1,19 @@
+package com.dashboard.auth.resilience;
+
+import lombok.Getter;
+
+/**
+ * La llamada no se hizo: el circuito está abierto o el bulkhead está lleno
+ */
+@Getter
+public class CallNotPermittedException extends RuntimeException {
+
+    private final String reason;
+    private final long retryAfterSeconds;
+
+    public CallNotPermittedException(String name, String reason, long retryAfterSeconds) {
+        super(name + " no disponible (" + reason + "), intente de nuevo en " + retryAfterSeconds + " s");
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
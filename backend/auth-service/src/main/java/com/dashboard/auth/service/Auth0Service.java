@@ -1,26 +1,51 @@
 package com.dashboard.auth.service;
 
 import com.dashboard.auth.dto.Auth0TokenResponse;
-import lombok.RequiredArgsConstructor;
+import com.dashboard.auth.resilience.CallNotPermittedException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Intercambio de códigos por tokens en Auth0. La llamada pasa por un bulkhead
+ * (pocas a la vez) y un circuito que deja de llamar a Auth0 mientras falla,
+ * así un proveedor lento no agota los hilos de auth-service. Los dos son de
+ * resilience4j y publican sus métricas en Micrometer (resilience4j.*).
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class Auth0Service {
 
+    private static final String NAME = "Auth0";
+
     private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final long openSeconds;
 
-    @Value("${auth0.domain}")
-    private String auth0Domain;
+    @Value("${auth0.token-url:https://${auth0.domain}/oauth/token}")
+    private String tokenUrl;
 
     @Value("${auth0.clientId}")
     private String clientId;
@@ -31,35 +56,104 @@ public class Auth0Service {
     @Value("${auth0.audience}")
     private String audience;
 
-    public Auth0TokenResponse exchangeCodeForToken(String code, String redirectUri) {
-        try {
-            String tokenUrl = "https://" + auth0Domain + "/oauth/token";
-
-            Map<String, String> body = new HashMap<>();
-            body.put("grant_type", "authorization_code");
-            body.put("client_id", clientId);
-            body.put("client_secret", clientSecret);
-            body.put("code", code);
-            body.put("redirect_uri", redirectUri);
-            body.put("audience", audience);
+    public Auth0Service(
+            RestTemplate restTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${auth0.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${auth0.circuit.open-duration:30s}") Duration openDuration,
+            @Value("${auth0.bulkhead.max-concurrent:10}") int maxConcurrent,
+            @Value("${auth0.bulkhead.max-wait:0s}") Duration maxWait) {
+        this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
+        this.openSeconds = Math.max(1, openDuration.toSeconds());
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+        // Ventana de las últimas failure-threshold llamadas, abierta si todas fallaron:
+        // failure-threshold fallos seguidos. Una sola llamada de prueba en HALF_OPEN
+        int threshold = Math.max(1, failureThreshold);
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(threshold)
+                .minimumNumberOfCalls(threshold)
+                .failureRateThreshold(100)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(1)
+                // Un código inválido (4xx) es un error del cliente, no de Auth0: cuenta como éxito
+                .recordException(e -> !(e instanceof HttpClientErrorException))
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(Math.max(1, maxConcurrent))
+                .maxWaitDuration(maxWait)
+                .fairCallHandlingStrategyEnabled(true)
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NAME);
+        this.bulkhead = bulkheads.bulkhead(NAME);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.info("Circuito {}: {}", NAME, event.getStateTransition()));
 
-            HttpEntity<Map<String, String>> request = new HttpEntity<>(body, headers);
-
-            Auth0TokenResponse response = restTemplate.postForObject(
-                    tokenUrl,
-                    request,
-                    Auth0TokenResponse.class
-            );
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
 
+    /**
+     * @throws CallNotPermittedException si Auth0 está fallando o ya hay
+     *         demasiadas llamadas en curso
+     */
+    public Auth0TokenResponse exchangeCodeForToken(String code, String redirectUri) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Auth0TokenResponse response = Bulkhead.decorateSupplier(bulkhead,
+                    CircuitBreaker.decorateSupplier(circuitBreaker, () -> requestToken(code, redirectUri))).get();
+            outcome = "success";
             log.info("Token obtenido exitosamente de Auth0");
             return response;
-
+        } catch (BulkheadFullException e) {
+            outcome = "bulkhead_full";
+            throw rejected(outcome, 1);
+        } catch (io.github.resilience4j.circuitbreaker.CallNotPermittedException e) {
+            // En HALF_OPEN ya hay una llamada de prueba: el resultado se sabe pronto
+            boolean halfOpen = circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN;
+            outcome = halfOpen ? "circuit_half_open" : "circuit_open";
+            throw rejected(outcome, halfOpen ? 1 : openSeconds);
+        } catch (HttpClientErrorException e) {
+            log.error("Auth0 rechazó el código: {}", e.getMessage());
+            throw new RuntimeException("No se pudo obtener el token de Auth0", e);
         } catch (Exception e) {
             log.error("Error al intercambiar código por token: {}", e.getMessage());
             throw new RuntimeException("No se pudo obtener el token de Auth0", e);
+        } finally {
+            sample.stop(Timer.builder("auth0.token.exchange")
+                    .description("Intercambio de código por token en Auth0")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
     }
+
+    private CallNotPermittedException rejected(String reason, long retryAfterSeconds) {
+        CallNotPermittedException e = new CallNotPermittedException(NAME, reason, retryAfterSeconds);
+        log.warn("Intercambio de código rechazado: {}", e.getMessage());
+        return e;
+    }
+
+    private Auth0TokenResponse requestToken(String code, String redirectUri) {
+        Map<String, String> body = new HashMap<>();
+        body.put("grant_type", "authorization_code");
+        body.put("client_id", clientId);
+        body.put("client_secret", clientSecret);
+        body.put("code", code);
+        body.put("redirect_uri", redirectUri);
+        body.put("audience", audience);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<Map<String, String>> request = new HttpEntity<>(body, headers);
+
+        return restTemplate.postForObject(
+                tokenUrl,
+                request,
+                Auth0TokenResponse.class
+        );
+    }
 }
@@ -1,14 +1,19 @@
 package com.dashboard.auth.service;
 
+import com.dashboard.auth.cache.UserProfileCache;
+import com.dashboard.auth.dto.UserProfile;
+import com.dashboard.auth.jwt.JwtVerifier;
 import com.dashboard.auth.model.User;
+import com.dashboard.auth.password.PasswordHasher;
 import com.dashboard.auth.repository.UserRepository;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.Optional;
 
@@ -18,22 +23,23 @@ import java.util.Optional;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    
-    // Clave secreta para JWT (en producción, usar una variable de entorno)
-    private static final String SECRET_KEY = "mi-clave-secreta-muy-larga-para-jwt-no-uses-esto-en-produccion-12345678";
+    private final PasswordHasher passwordHasher;
+    private final SecretKey jwtSigningKey;
+    private final JwtVerifier jwtVerifier;
+    private final UserProfileCache userCache;
+
     private static final long JWT_EXPIRATION = 86400000; // 24 horas en milisegundos
 
     public User registerUser(String email, String password, String firstName, String lastName, String auth0Id) {
         log.info("Registrando nuevo usuario: {}", email);
         
-        if (userRepository.findByEmail(email).isPresent()) {
+        if (findProfileByEmail(email).isPresent()) {
             throw new IllegalArgumentException("El correo ya está registrado");
         }
 
         User user = new User();
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHasher.encode(password));
         user.setFirstName(firstName);
         user.setLastName(lastName);
 
@@ -45,19 +51,48 @@ public class AuthService {
         }
         user.setActive(true);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.put(UserProfile.of(saved));
+        return saved;
     }
 
+    /**
+     * Usuario completo desde Postgres; solo para el login, que necesita el hash
+     */
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
-    public Optional<User> findByAuth0Id(String auth0Id) {
-        return userRepository.findByAuth0Id(auth0Id);
+    public Optional<UserProfile> findProfileByEmail(String email) {
+        return userCache.byEmail(email, () -> userRepository.findByEmail(email).map(UserProfile::of));
+    }
+
+    /**
+     * Compara la contraseña con el hash guardado. Si coincide y el hash tiene
+     * un costo menor al configurado, se rehace en segundo plano.
+     */
+    public boolean checkPassword(User user, String rawPassword) {
+        String currentHash = user.getPassword();
+        if (!passwordHasher.matches(rawPassword, currentHash)) {
+            return false;
+        }
+        if (passwordHasher.needsUpgrade(currentHash)) {
+            passwordHasher.upgradeLater(rawPassword, newHash -> {
+                if (userRepository.replacePasswordHash(user.getId(), currentHash, newHash, LocalDateTime.now()) == 1) {
+                    userCache.evict(UserProfile.of(user));
+                    log.info("Hash de contraseña actualizado al costo actual para el usuario {}", user.getId());
+                }
+            });
+        }
+        return true;
+    }
+
+    public Optional<UserProfile> findByAuth0Id(String auth0Id) {
+        return userCache.byAuth0Id(auth0Id, () -> userRepository.findByAuth0Id(auth0Id).map(UserProfile::of));
     }
 
-    public User getUserById(Long id) {
-        return userRepository.findById(id)
+    public UserProfile getUserById(Long id) {
+        return userCache.byId(id, () -> userRepository.findById(id).map(UserProfile::of))
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
     }
 
@@ -74,19 +109,17 @@ public class AuthService {
                 .claim("name", user.getFirstName())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
-                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+                .signWith(jwtSigningKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Valida un JWT token
+     * Valida un JWT token; los tokens ya verificados se responden desde caché
+     * hasta que vencen
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
-                    .build()
-                    .parseSignedClaims(token);
+            jwtVerifier.verify(token);
             return true;
         } catch (Exception e) {
             log.warn("Token inválido: {}", e.getMessage());
@@ -0,0 +1,174 @@
+package com.dashboard.auth.service;
+
+import com.dashboard.auth.config.RestTemplateConfig;
+import com.dashboard.auth.dto.Auth0TokenResponse;
+import com.dashboard.auth.resilience.CallNotPermittedException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Circuito, bulkhead y timeouts del intercambio de códigos contra un endpoint
+ * de tokens local que responde según status y delayMillis.
+ */
+class Auth0ServiceTest {
+
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(300);
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void startTokenEndpoint() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/oauth/token", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = (status == 200
+                    ? "{\"access_token\":\"token\",\"token_type\":\"Bearer\",\"expires_in\":3600}"
+                    : "{\"error\":\"stub\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try {
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (IOException e) {
+                // El cliente ya cortó por timeout
+            }
+            exchange.close();
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+
+        httpClient = new RestTemplateConfig().httpClient(Duration.ofMillis(500), READ_TIMEOUT,
+                Duration.ofMillis(500), 10, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void stopTokenEndpoint() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    private Auth0Service service(int failureThreshold, Duration openDuration, int maxConcurrent) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        Auth0Service service = new Auth0Service(restTemplate, meterRegistry, failureThreshold, openDuration,
+                maxConcurrent, Duration.ZERO);
+        ReflectionTestUtils.setField(service, "tokenUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/oauth/token");
+        ReflectionTestUtils.setField(service, "clientId", "client");
+        ReflectionTestUtils.setField(service, "clientSecret", "secret");
+        ReflectionTestUtils.setField(service, "audience", "https://dashboard-api");
+        return service;
+    }
+
+    private Auth0TokenResponse exchange(Auth0Service service) {
+        return service.exchangeCodeForToken("code", "http://localhost/callback");
+    }
+
+    @Test
+    void seAbreTrasFallosSeguidosYSeCierraConLaPrueba() throws InterruptedException {
+        Auth0Service service = service(3, Duration.ofMillis(300), 10);
+        status = 500;
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> exchange(service)).isInstanceOf(RuntimeException.class)
+                    .isNotInstanceOf(CallNotPermittedException.class);
+        }
+
+        // Abierto: se rechaza sin llamar a Auth0
+        assertThatThrownBy(() -> exchange(service))
+                .isInstanceOfSatisfying(CallNotPermittedException.class,
+                        e -> assertThat(e.getReason()).isEqualTo("circuit_open"));
+        assertThat(requests).hasValue(3);
+
+        // Semiabierto después de open-duration: la prueba sale bien y lo cierra
+        Thread.sleep(400);
+        status = 200;
+        assertThat(exchange(service).getAccessToken()).isEqualTo("token");
+        assertThat(exchange(service).getAccessToken()).isEqualTo("token");
+        assertThat(requests).hasValue(5);
+        assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "Auth0").gauges()).isNotEmpty();
+    }
+
+    @Test
+    void pruebaFallidaVuelveAAbrir() throws InterruptedException {
+        Auth0Service service = service(2, Duration.ofMillis(300), 10);
+        status = 503;
+        assertThatThrownBy(() -> exchange(service)).isNotInstanceOf(CallNotPermittedException.class);
+        assertThatThrownBy(() -> exchange(service)).isNotInstanceOf(CallNotPermittedException.class);
+
+        Thread.sleep(400);
+        assertThatThrownBy(() -> exchange(service)).isNotInstanceOf(CallNotPermittedException.class);
+        assertThat(requests).hasValue(3);
+        assertThatThrownBy(() -> exchange(service))
+                .isInstanceOfSatisfying(CallNotPermittedException.class,
+                        e -> assertThat(e.getReason()).isEqualTo("circuit_open"));
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void timeoutDeLecturaCuentaComoFallo() {
+        Auth0Service service = service(2, Duration.ofSeconds(30), 10);
+        delayMillis = 2_000;
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> exchange(service)).isNotInstanceOf(CallNotPermittedException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        assertThatThrownBy(() -> exchange(service)).isNotInstanceOf(CallNotPermittedException.class);
+
+        assertThatThrownBy(() -> exchange(service))
+                .isInstanceOfSatisfying(CallNotPermittedException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(30));
+    }
+
+    @Test
+    void codigoInvalidoNoAbreElCircuito() {
+        Auth0Service service = service(2, Duration.ofSeconds(30), 10);
+        status = 400;
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> exchange(service)).hasCauseInstanceOf(HttpClientErrorException.class);
+        }
+        status = 200;
+        assertThat(exchange(service).getAccessToken()).isEqualTo("token");
+    }
+
+    @Test
+    void bulkheadLlenoRechazaEnseguida() throws Exception {
+        Auth0Service service = service(5, Duration.ofSeconds(30), 1);
+        delayMillis = 200;
+        CompletableFuture<Auth0TokenResponse> first = CompletableFuture.supplyAsync(() -> exchange(service));
+        while (requests.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> exchange(service))
+                .isInstanceOfSatisfying(CallNotPermittedException.class,
+                        e -> assertThat(e.getReason()).isEqualTo("bulkhead_full"));
+        assertThat(first.get().getAccessToken()).isEqualTo("token");
+        assertThat(exchange(service).getAccessToken()).isEqualTo("token");
+    }
+}
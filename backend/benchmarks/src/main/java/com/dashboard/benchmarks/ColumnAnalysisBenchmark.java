@@ -0,0 +1,84 @@
+package com.dashboard.benchmarks;
+
+import com.dashboard.reports.model.CsvReport;
+import com.dashboard.reports.service.ReportAnalyzer;
+import com.dashboard.upload.parser.CsvTableReader;
+import com.dashboard.upload.parser.ParsedCsv;
+import com.dashboard.upload.progress.UploadProgress;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReportService.getColumnAnalysis sin Mongo ni caché: conteo de valores de
+ * una columna sobre los reportes de un usuario y resumen con los 20 más
+ * comunes. Los reportes tienen la muestra que guarda upload-service para el
+ * fixture TALL. Ciudad tiene pocos valores distintos y Cliente muchos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnAnalysisBenchmark {
+
+    private static final int MAX_VALUES = 10_000;
+
+    @Param({"1", "16", "64"})
+    public int reports;
+
+    @Param({"Ciudad", "Cliente"})
+    public String column;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private List<CsvReport> userReports;
+    private ForkJoinPool analysisPool;
+    private ReportAnalyzer analyzer;
+
+    @Setup
+    public void setUp() throws Exception {
+        ParsedCsv parsed = new CsvTableReader(ZoneId.of("America/Bogota"))
+                .read(new ByteArrayInputStream(CsvFixture.TALL.bytes()), null, 1000, UploadProgress.untracked());
+        userReports = new ArrayList<>(reports);
+        for (int i = 0; i < reports; i++) {
+            CsvReport report = new CsvReport("reporte-" + i, 1L);
+            report.setHeaders(parsed.headers());
+            report.setRows(new ArrayList<>(parsed.rows()));
+            report.setRowCount(parsed.totalRows());
+            userReports.add(report);
+        }
+
+        // Mismo tamaño de pool que AnalysisConfig sin reports.analysis.parallelism
+        analysisPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        analyzer = new ReportAnalyzer(analysisPool);
+        // Los valores que Spring inyecta con @Value
+        set(analyzer, "parallelEnabled", parallel);
+        set(analyzer, "minReportsForParallel", 32);
+    }
+
+    @TearDown
+    public void tearDown() {
+        analysisPool.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Object> columnAnalysis() {
+        return analyzer.countColumnValues(userReports, column, MAX_VALUES).toAnalysis(column, 20);
+    }
+
+    private static void set(Object target, String field, Object value) throws ReflectiveOperationException {
+        Field declared = target.getClass().getDeclaredField(field);
+        declared.setAccessible(true);
+        declared.set(target, value);
+    }
+}
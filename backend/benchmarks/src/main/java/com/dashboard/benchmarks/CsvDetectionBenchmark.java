@@ -0,0 +1,108 @@
+package com.dashboard.benchmarks;
+
+import com.dashboard.upload.parser.CharsetSniffer;
+import com.dashboard.upload.parser.CsvTableReader;
+import com.dashboard.upload.parser.DateTimeColumnParser;
+import com.dashboard.upload.parser.NumberFormatProfile;
+import com.dashboard.upload.parser.NumericParser;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Las piezas de la detección por separado: charset con el prefijo de 1 MB
+ * (archivos comprimidos), delimitador con la primera línea y conversión de
+ * valores (parseValue) con los parsers detectados para cada columna.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvDetectionBenchmark {
+
+    private static final int CHARSET_SAMPLE_BYTES = 1024 * 1024;
+    private static final int SAMPLE_ROWS = 1000;
+
+    @Param
+    public CsvFixture fixture;
+
+    private byte[] prefix;
+    private String firstLine;
+    private String[][] columns;
+    private DateTimeColumnParser[] dateParsers;
+    private NumericParser[] numericParsers;
+
+    @Setup
+    public void setUp() throws Exception {
+        byte[] file = fixture.bytes();
+        prefix = Arrays.copyOf(file, Math.min(file.length, CHARSET_SAMPLE_BYTES));
+
+        CharsetSniffer sniffer = new CharsetSniffer();
+        sniffer.update(file, 0, file.length);
+        Charset charset = sniffer.result(true);
+        String text = new String(prefix, charset);
+        firstLine = text.substring(0, text.indexOf('\n'));
+        char delimiter = CsvTableReader.detectDelimiter(firstLine);
+
+        // Muestra por columna, como la que usa CsvTableReader para detectar tipos
+        List<String[]> rows = new ArrayList<>();
+        try (CSVParser parser = CSVFormat.DEFAULT.builder().setDelimiter(delimiter).setHeader()
+                .setTrim(true).build().parse(new StringReader(text))) {
+            for (CSVRecord record : parser) {
+                if (rows.size() == SAMPLE_ROWS || !record.isConsistent()) break;
+                rows.add(record.values());
+            }
+        }
+        int columnCount = rows.get(0).length;
+        columns = new String[columnCount][rows.size()];
+        dateParsers = new DateTimeColumnParser[columnCount];
+        numericParsers = new NumericParser[columnCount];
+        ZoneId zone = ZoneId.of("America/Bogota");
+        for (int c = 0; c < columnCount; c++) {
+            for (int r = 0; r < rows.size(); r++) {
+                columns[c][r] = rows.get(r)[c];
+            }
+            List<String> sample = Arrays.asList(columns[c]);
+            dateParsers[c] = DateTimeColumnParser.detect(sample, zone);
+            numericParsers[c] = new NumericParser(NumberFormatProfile.detect(sample, delimiter));
+        }
+    }
+
+    @Benchmark
+    public Charset detectCharset() {
+        CharsetSniffer sniffer = new CharsetSniffer();
+        sniffer.update(prefix, 0, prefix.length);
+        return sniffer.result(false);
+    }
+
+    @Benchmark
+    public char detectDelimiter() {
+        return CsvTableReader.detectDelimiter(firstLine);
+    }
+
+    /**
+     * Convierte las 1000 filas de muestra, todas las columnas
+     */
+    @Benchmark
+    public void parseValue(Blackhole blackhole) {
+        for (int c = 0; c < columns.length; c++) {
+            DateTimeColumnParser dateParser = dateParsers[c];
+            NumericParser numericParser = numericParsers[c];
+            for (String value : columns[c]) {
+                blackhole.consume(CsvTableReader.parseValue(value, dateParser, numericParser));
+            }
+        }
+    }
+}
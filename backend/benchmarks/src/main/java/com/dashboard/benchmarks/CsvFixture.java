@@ -0,0 +1,126 @@
+package com.dashboard.benchmarks;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Archivos CSV de prueba generados en memoria con una semilla fija, así cada
+ * corrida mide exactamente los mismos bytes y no hace falta versionar archivos
+ * grandes. Las filas imitan un reporte de ventas real ya anonimizado (clientes
+ * numerados, ciudades y productos genéricos) con fechas dd/MM/yyyy, montos con
+ * separadores de miles y textos con acentos.
+ */
+public enum CsvFixture {
+
+    /** Muchas filas y pocas columnas, el caso típico de un corte mensual */
+    TALL(200_000, 0, ',', StandardCharsets.UTF_8, false),
+    /** Pocas filas y 200 columnas numéricas */
+    WIDE(5_000, 192, ',', StandardCharsets.UTF_8, false),
+    /** Exportado de Excel en Windows: ANSI con acentos */
+    WINDOWS_1252(100_000, 0, ',', Charset.forName("windows-1252"), false),
+    /** Configuración regional es-CO: punto y coma y coma decimal */
+    SEMICOLON(100_000, 0, ';', StandardCharsets.UTF_8, false),
+    /** Observaciones entre comillas con saltos de línea y delimitadores */
+    QUOTED_NEWLINE(50_000, 0, ',', StandardCharsets.UTF_8, true);
+
+    private static final String[] CITIES = {
+            "Bogotá", "Medellín", "Cali", "Barranquilla", "Cartagena",
+            "Bucaramanga", "Pereira", "Manizales", "Cúcuta", "Ibagué"
+    };
+    private static final String[] PRODUCTS = {
+            "Café orgánico 500g", "Panela pulverizada", "Arepa de maíz", "Chocolate de mesa",
+            "Bocadillo veleño", "Aguacate Hass", "Queso campesino", "Galletas de avena"
+    };
+    private static final String[] CATEGORIES = {"Alimentos", "Bebidas", "Lácteos", "Panadería", "Frutas"};
+    private static final String[] NOTES = {
+            "Entrega parcial, saldo pendiente",
+            "Cliente pidió factura electrónica\nenviar a contabilidad",
+            "Devolución por empaque dañado;\nrevisar con logística",
+            "Pago contra entrega"
+    };
+
+    private final int rows;
+    private final int extraNumericColumns;
+    private final char delimiter;
+    private final Charset charset;
+    private final boolean notes;
+
+    CsvFixture(int rows, int extraNumericColumns, char delimiter, Charset charset, boolean notes) {
+        this.rows = rows;
+        this.extraNumericColumns = extraNumericColumns;
+        this.delimiter = delimiter;
+        this.charset = charset;
+        this.notes = notes;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Contenido del archivo en su charset, siempre igual para el mismo fixture
+     */
+    public byte[] bytes() {
+        return bytes(rows, 42);
+    }
+
+    /**
+     * Mismo formato con otra cantidad de filas; cada semilla da un archivo distinto
+     */
+    public byte[] bytes(int rows, long seed) {
+        Random random = new Random(seed);
+        boolean commaDecimal = delimiter == ';';
+        StringBuilder csv = new StringBuilder(rows * (96 + extraNumericColumns * 8));
+
+        csv.append("Fecha").append(delimiter).append("Ciudad").append(delimiter).append("Cliente")
+                .append(delimiter).append("Producto").append(delimiter).append("Categoría")
+                .append(delimiter).append("Cantidad").append(delimiter).append("Precio unitario")
+                .append(delimiter).append("Total");
+        for (int c = 1; c <= extraNumericColumns; c++) {
+            csv.append(delimiter).append("Métrica ").append(c);
+        }
+        if (notes) {
+            csv.append(delimiter).append("Observaciones");
+        }
+        csv.append("\r\n");
+
+        for (int r = 0; r < rows; r++) {
+            int quantity = 1 + random.nextInt(48);
+            long unitCents = 150_000 + random.nextInt(9_000_000);
+            csv.append(String.format(Locale.ROOT, "%02d/%02d/2024", 1 + random.nextInt(28), 1 + random.nextInt(12)))
+                    .append(delimiter).append(CITIES[random.nextInt(CITIES.length)])
+                    .append(delimiter).append(String.format(Locale.ROOT, "Cliente %05d", random.nextInt(20_000)))
+                    .append(delimiter).append(PRODUCTS[random.nextInt(PRODUCTS.length)])
+                    .append(delimiter).append(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .append(delimiter).append(quantity)
+                    .append(delimiter);
+            appendAmount(csv, unitCents, commaDecimal);
+            csv.append(delimiter);
+            appendAmount(csv, unitCents * quantity, commaDecimal);
+            for (int c = 0; c < extraNumericColumns; c++) {
+                csv.append(delimiter).append(random.nextInt(100_000));
+            }
+            if (notes) {
+                String note = NOTES[random.nextInt(NOTES.length)];
+                csv.append(delimiter).append('"').append(note.replace("\"", "\"\"")).append('"');
+            }
+            csv.append("\r\n");
+        }
+        return csv.toString().getBytes(charset);
+    }
+
+    /**
+     * Monto en pesos con dos decimales y separador de miles: 1.234.567,89 en
+     * es-CO o 1,234,567.89 con el formato de Excel en inglés (entre comillas)
+     */
+    private static void appendAmount(StringBuilder csv, long cents, boolean commaDecimal) {
+        String formatted = String.format(Locale.ROOT, "%,d.%02d", cents / 100, cents % 100);
+        if (commaDecimal) {
+            csv.append(formatted.replace(',', ' ').replace('.', ',').replace(' ', '.'));
+        } else {
+            csv.append('"').append(formatted).append('"');
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.dashboard.benchmarks;
+
+import com.dashboard.upload.parser.CharsetSniffer;
+import com.dashboard.upload.parser.CsvTableReader;
+import com.dashboard.upload.parser.ParsedCsv;
+import com.dashboard.upload.progress.UploadProgress;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Las dos pasadas de CsvService sobre un CSV plano: scan (SHA-256 y charset
+ * con todos los bytes) y read (delimitador, recorrido de todos los registros
+ * y conversión de la muestra de 1000 filas).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CsvIngestBenchmark {
+
+    private static final int MAX_SAMPLE_ROWS = 1000;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    @Param
+    public CsvFixture fixture;
+
+    private byte[] file;
+    private Charset charset;
+    private CsvTableReader reader;
+
+    @Setup
+    public void setUp() {
+        file = fixture.bytes();
+        CharsetSniffer sniffer = new CharsetSniffer();
+        sniffer.update(file, 0, file.length);
+        charset = sniffer.result(true);
+        reader = new CsvTableReader(ZoneId.of("America/Bogota"));
+    }
+
+    @Benchmark
+    public Charset scan(IngestCounters counters) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        CharsetSniffer sniffer = new CharsetSniffer();
+        for (int offset = 0; offset < file.length; offset += STREAM_BUFFER_SIZE) {
+            int length = Math.min(STREAM_BUFFER_SIZE, file.length - offset);
+            digest.update(file, offset, length);
+            sniffer.update(file, offset, length);
+        }
+        digest.digest();
+        counters.processed(file.length, fixture.rows());
+        return sniffer.result(true);
+    }
+
+    @Benchmark
+    public ParsedCsv read(IngestCounters counters) throws Exception {
+        ParsedCsv parsed = reader.read(new ByteArrayInputStream(file), charset, MAX_SAMPLE_ROWS,
+                UploadProgress.untracked());
+        counters.processed(file.length, parsed.totalRows());
+        return parsed;
+    }
+}
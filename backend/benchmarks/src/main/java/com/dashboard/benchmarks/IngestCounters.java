@@ -0,0 +1,30 @@
+package com.dashboard.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Contadores adicionales que JMH reporta como tasas junto al resultado del
+ * benchmark: megabytes es MB/s y rows es filas/s del archivo procesado.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class IngestCounters {
+
+    public double megabytes;
+    public long rows;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+        rows = 0;
+    }
+
+    void processed(long bytes, long rowCount) {
+        megabytes += bytes / 1_000_000.0;
+        rows += rowCount;
+    }
+}
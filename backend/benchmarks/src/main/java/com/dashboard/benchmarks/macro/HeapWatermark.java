@@ -0,0 +1,51 @@
+package com.dashboard.benchmarks.macro;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Máximo de heap usado durante la corrida, muestreado cada pocos
+ * milisegundos. Incluye la basura que el GC todavía no recogió: es el techo
+ * que tiene que soportar -Xmx.
+ */
+final class HeapWatermark implements AutoCloseable {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 10;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final Thread sampler;
+    private volatile long maxUsedBytes;
+    private volatile boolean running = true;
+
+    HeapWatermark() {
+        sampler = Thread.ofPlatform().name("bench-heap").daemon().start(() -> {
+            while (running) {
+                sample();
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    double maxUsedMegabytes() {
+        sample();
+        return maxUsedBytes / (1024.0 * 1024.0);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        sampler.interrupt();
+        sampler.join();
+    }
+
+    private void sample() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        if (used > maxUsedBytes) {
+            maxUsedBytes = used;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.dashboard.benchmarks.macro;
+
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.Record;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * StringRedisTemplate en memoria con lo que usan los servicios: valores
+ * (caché de perfiles de auth-service), pub/sub (invalidación de la caché de
+ * report-service), XADD al stream de reportes y los scripts de idempotencia.
+ *
+ * Los mensajes publicados se entregan en el mismo hilo, como el listener de
+ * Redis que los recibe enseguida; los registros del stream se entregan en un
+ * hilo aparte, como el consumidor del stream. Los TTL no se aplican: una
+ * corrida dura menos que cualquier TTL configurado.
+ */
+final class InMemoryRedis extends StringRedisTemplate implements AutoCloseable {
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Map<String, List<MessageListener>> subscribers = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, Map<String, String>>> streamConsumers = new CopyOnWriteArrayList<>();
+    private final ExecutorService streamDelivery = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("bench-stream").daemon().factory());
+    private final AtomicLong streamSequence = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    private final ValueOperations<String, String> valueOperations = proxy(ValueOperations.class, (method, args) ->
+            switch (method) {
+                case "get" -> values.get((String) args[0]);
+                case "set" -> {
+                    values.put((String) args[0], (String) args[1]);
+                    yield null;
+                }
+                case "setIfAbsent" -> values.putIfAbsent((String) args[0], (String) args[1]) == null;
+                default -> null;
+            });
+
+    private final StreamOperations<String, Object, Object> streamOperations = proxy(StreamOperations.class, (method, args) ->
+            "add".equals(method) && args.length == 1 ? add((Record<?, ?>) args[0]) : null);
+
+    /**
+     * Entrega los mensajes publicados en channel a listener
+     */
+    void subscribe(String channel, MessageListener listener) {
+        subscribers.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Entrega cada registro agregado al stream (id y campos) a consumer
+     */
+    void consumeStream(BiConsumer<String, Map<String, String>> consumer) {
+        streamConsumers.add(consumer);
+    }
+
+    long publishedMessages() {
+        return published.get();
+    }
+
+    /**
+     * Espera a que se entreguen los registros del stream ya agregados
+     */
+    void awaitStream() throws InterruptedException, ExecutionException {
+        streamDelivery.submit(() -> { }).get();
+    }
+
+    @Override
+    public ValueOperations<String, String> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <HK, HV> StreamOperations<String, HK, HV> opsForStream() {
+        return (StreamOperations<String, HK, HV>) (StreamOperations<String, ?, ?>) streamOperations;
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return values.remove(key) != null;
+    }
+
+    @Override
+    public Long delete(Collection<String> keys) {
+        return keys.stream().filter(key -> values.remove(key) != null).count();
+    }
+
+    @Override
+    public Long convertAndSend(String channel, Object message) {
+        published.incrementAndGet();
+        List<MessageListener> listeners = subscribers.getOrDefault(channel, List.of());
+        DefaultMessage redisMessage = new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+        listeners.forEach(listener -> listener.onMessage(redisMessage, null));
+        return (long) listeners.size();
+    }
+
+    /**
+     * Los scripts de idempotencia devuelven 1 cuando reservan, completan o
+     * liberan la clave: cada carga del benchmark usa una clave nueva
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        return Long.class.equals(script.getResultType()) ? (T) Long.valueOf(1L) : null;
+    }
+
+    @Override
+    public void close() {
+        streamDelivery.shutdown();
+        try {
+            streamDelivery.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RecordId add(Record<?, ?> record) {
+        RecordId id = RecordId.of(System.currentTimeMillis(), streamSequence.incrementAndGet());
+        if (record instanceof MapRecord<?, ?, ?> mapRecord) {
+            Map<String, String> fields = new HashMap<>();
+            ((Map<Object, Object>) mapRecord.getValue()).forEach((k, v) -> fields.put(String.valueOf(k), String.valueOf(v)));
+            streamDelivery.execute(() -> streamConsumers.forEach(consumer -> consumer.accept(id.getValue(), fields)));
+        }
+        return id;
+    }
+
+    private interface Operation {
+        Object apply(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Operation operation) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> operation.apply(method.getName(), args != null ? args : new Object[0]));
+    }
+}
@@ -0,0 +1,114 @@
+package com.dashboard.benchmarks.macro;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Repositorio de Spring Data en memoria para el benchmark macro. Implementa
+ * los métodos CRUD que usan los servicios (save, findById, deleteById...) y
+ * los finders que se registren con finder(); cualquier otro método lanza
+ * UnsupportedOperationException, así un método nuevo en los servicios se nota
+ * en vez de devolver datos falsos.
+ */
+final class InMemoryRepository<T, ID> implements InvocationHandler {
+
+    interface Finder<T> {
+        Object find(Collection<T> all, Object[] args);
+    }
+
+    private final Map<ID, T> store;
+    private final Function<T, ID> idOf;
+    private final BiConsumer<T, ID> setId;
+    private final Supplier<ID> newId;
+    private final Map<String, Finder<T>> finders = new HashMap<>();
+
+    InMemoryRepository(Map<ID, T> store, Function<T, ID> idOf, BiConsumer<T, ID> setId, Supplier<ID> newId) {
+        this.store = store;
+        this.idOf = idOf;
+        this.setId = setId;
+        this.newId = newId;
+    }
+
+    InMemoryRepository(Function<T, ID> idOf, BiConsumer<T, ID> setId, Supplier<ID> newId) {
+        this(new ConcurrentHashMap<>(), idOf, setId, newId);
+    }
+
+    InMemoryRepository<T, ID> finder(String method, Finder<T> finder) {
+        finders.put(method, finder);
+        return this;
+    }
+
+    <R> R as(Class<R> repositoryType) {
+        return repositoryType.cast(Proxy.newProxyInstance(
+                repositoryType.getClassLoader(), new Class<?>[]{repositoryType}, this));
+    }
+
+    Collection<T> all() {
+        return store.values();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        Finder<T> finder = finders.get(name);
+        if (finder != null) {
+            return finder.find(store.values(), args);
+        }
+        switch (name) {
+            case "save":
+                return save((T) args[0]);
+            case "saveAll": {
+                List<T> saved = new ArrayList<>();
+                ((Iterable<T>) args[0]).forEach(entity -> saved.add(save(entity)));
+                return saved;
+            }
+            case "findById":
+                return Optional.ofNullable(store.get((ID) args[0]));
+            case "existsById":
+                return store.containsKey((ID) args[0]);
+            case "findAll":
+                if (args == null) return new ArrayList<>(store.values());
+                break;
+            case "count":
+                return (long) store.size();
+            case "deleteById":
+                store.remove((ID) args[0]);
+                return null;
+            case "delete":
+                store.remove(idOf.apply((T) args[0]));
+                return null;
+            case "deleteAll":
+                if (args == null) {
+                    store.clear();
+                    return null;
+                }
+                break;
+            case "toString":
+                return "InMemoryRepository" + finders.keySet();
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                break;
+        }
+        throw new UnsupportedOperationException("Método no implementado en memoria: " + method);
+    }
+
+    private T save(T entity) {
+        ID id = idOf.apply(entity);
+        if (id == null) {
+            id = newId.get();
+            setId.accept(entity, id);
+        }
+        store.put(id, entity);
+        return entity;
+    }
+}
@@ -0,0 +1,290 @@
+package com.dashboard.benchmarks.macro;
+
+import com.dashboard.auth.cache.UserProfileCache;
+import com.dashboard.auth.config.JwtConfig;
+import com.dashboard.auth.config.PasswordHashingConfig;
+import com.dashboard.auth.config.SecurityConfig;
+import com.dashboard.auth.controller.AuthController;
+import com.dashboard.auth.model.User;
+import com.dashboard.auth.password.PasswordHasher;
+import com.dashboard.auth.repository.UserRepository;
+import com.dashboard.auth.service.AuthService;
+import com.dashboard.reports.arrow.ArrowTableWriter;
+import com.dashboard.reports.cache.ReportCache;
+import com.dashboard.reports.config.AnalysisConfig;
+import com.dashboard.reports.config.ArrowConfig;
+import com.dashboard.reports.config.LiveUpdatesConfig;
+import com.dashboard.reports.controller.ReportController;
+import com.dashboard.reports.event.ReportEventListener;
+import com.dashboard.reports.live.LiveUpdateHub;
+import com.dashboard.reports.readmodel.ReadModelProjector;
+import com.dashboard.reports.readmodel.ReportCatalogEntry;
+import com.dashboard.reports.readmodel.UserReportStats;
+import com.dashboard.reports.repository.ReportCatalogRepository;
+import com.dashboard.reports.repository.UserReportStatsRepository;
+import com.dashboard.reports.service.ReportAnalyzer;
+import com.dashboard.reports.service.ReportService;
+import com.dashboard.upload.admission.UploadAdmissionLimiter;
+import com.dashboard.upload.config.BulkUploadConfig;
+import com.dashboard.upload.config.UploadProgressConfig;
+import com.dashboard.upload.controller.UploadController;
+import com.dashboard.upload.idempotency.UploadIdempotency;
+import com.dashboard.upload.progress.UploadProgressRegistry;
+import com.dashboard.upload.service.BulkUploadService;
+import com.dashboard.upload.service.CsvService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * auth-service, upload-service y report-service dentro del mismo proceso:
+ * cada uno en su propio contexto de Spring con sus controllers, servicios y
+ * configuración reales, y con Postgres, Mongo y Redis reemplazados por
+ * repositorios y un Redis en memoria. Las peticiones pasan por MockMvc
+ * (DispatcherServlet, binding, Jackson), sin red ni Tomcat.
+ *
+ * Como en producción, upload-service y report-service comparten csv_reports
+ * y se comunican por Redis: los eventos de cambios invalidan la caché de
+ * report-service y el stream alimenta sus modelos de lectura. Los @Value
+ * toman sus valores por defecto y se pueden cambiar con -D.
+ */
+final class InProcessServices implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final Environment environment = new StandardEnvironment();
+
+    // Colección csv_reports compartida entre upload-service y report-service
+    private final Map<String, com.dashboard.upload.model.CsvReport> csvReports = new ConcurrentHashMap<>();
+
+    private final InMemoryRedis authRedis = new InMemoryRedis();
+    private final InMemoryRedis uploadRedis = new InMemoryRedis();
+    private final InMemoryRedis reportRedis = new InMemoryRedis();
+    // Cliente sin servidor: solo se usaría en la carga bulk y el append, que no están en la mezcla
+    private final MongoClient unusedMongo = MongoClients.create("mongodb://127.0.0.1:1/?serverSelectionTimeoutMS=100");
+
+    private final AnnotationConfigApplicationContext auth;
+    private final AnnotationConfigApplicationContext upload;
+    private final AnnotationConfigApplicationContext report;
+
+    final MockMvc authMvc;
+    final MockMvc uploadMvc;
+    final MockMvc reportMvc;
+
+    InProcessServices() {
+        auth = context("auth-service", Map.of(
+                        "userRepository", userRepository(),
+                        "stringRedisTemplate", authRedis,
+                        "passwordEncoder", new SecurityConfig().passwordEncoder(
+                                environment.getProperty("auth.password.bcrypt-strength", Integer.class, 10))),
+                AuthController.class, AuthService.class, UserProfileCache.class, PasswordHasher.class,
+                PasswordHashingConfig.class, JwtConfig.class);
+
+        upload = context("upload-service", Map.of(
+                        "csvReportRepository", uploadReportRepository(),
+                        "mongoTemplate", new MongoTemplate(unusedMongo, "bench"),
+                        "stringRedisTemplate", uploadRedis),
+                UploadController.class, CsvService.class, BulkUploadService.class, BulkUploadConfig.class,
+                UploadAdmissionLimiter.class, UploadProgressRegistry.class, UploadProgressConfig.class,
+                UploadIdempotency.class, com.dashboard.upload.event.ReportEventPublisher.class,
+                com.dashboard.upload.event.ReportStreamPublisher.class);
+
+        report = context("report-service", Map.of(
+                        "csvReportRepository", reportRepository(),
+                        "reportCatalogRepository", catalogRepository(),
+                        "userReportStatsRepository", statsRepository(),
+                        "stringRedisTemplate", reportRedis),
+                ReportController.class, ReportService.class, ReportAnalyzer.class, AnalysisConfig.class,
+                ArrowTableWriter.class, ArrowConfig.class, ReportCache.class, ReportEventListener.class,
+                ReadModelProjector.class, LiveUpdateHub.class, LiveUpdatesConfig.class,
+                com.dashboard.reports.event.ReportEventPublisher.class,
+                com.dashboard.reports.event.ReportStreamPublisher.class);
+
+        // Redis entre servicios: pub/sub para la caché y stream para los modelos de lectura
+        String channel = environment.getProperty("reports.events.channel", "reports:changed");
+        ReportEventListener cacheListener = report.getBean(ReportEventListener.class);
+        uploadRedis.subscribe(channel, cacheListener);
+        reportRedis.subscribe(channel, cacheListener);
+        ReadModelProjector projector = report.getBean(ReadModelProjector.class);
+        uploadRedis.consumeStream((id, fields) -> project(projector, id, fields));
+        reportRedis.consumeStream((id, fields) -> project(projector, id, fields));
+
+        authMvc = mvc(auth.getBean(AuthController.class));
+        uploadMvc = mvc(upload.getBean(UploadController.class));
+        reportMvc = mvc(report.getBean(ReportController.class));
+    }
+
+    ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    int storedReports() {
+        return csvReports.size();
+    }
+
+    /**
+     * Espera a que report-service aplique los eventos del stream pendientes
+     */
+    void awaitReadModels() throws Exception {
+        uploadRedis.awaitStream();
+        reportRedis.awaitStream();
+    }
+
+    @Override
+    public void close() {
+        report.close();
+        upload.close();
+        auth.close();
+        authRedis.close();
+        uploadRedis.close();
+        reportRedis.close();
+        unusedMongo.close();
+    }
+
+    private AnnotationConfigApplicationContext context(String name, Map<String, Object> standIns, Class<?>... components) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setDisplayName(name);
+        context.setEnvironment((StandardEnvironment) environment);
+        // Conversiones de Spring Boot para los @Value: 30s, 64MB...
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.getBeanFactory().registerSingleton("objectMapper", objectMapper);
+        context.getBeanFactory().registerSingleton("meterRegistry", new SimpleMeterRegistry());
+        context.getBeanFactory().registerSingleton("tracer", Tracer.NOOP);
+        standIns.forEach(context.getBeanFactory()::registerSingleton);
+        context.register(components);
+        context.refresh();
+        return context;
+    }
+
+    private MockMvc mvc(Object controller) {
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(
+                        new ByteArrayHttpMessageConverter(),
+                        new StringHttpMessageConverter(StandardCharsets.UTF_8),
+                        new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+
+    private static void project(ReadModelProjector projector, String id, Map<String, String> fields) {
+        try {
+            projector.apply(id, fields);
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo aplicar el evento " + id, e);
+        }
+    }
+
+    private UserRepository userRepository() {
+        AtomicLong ids = new AtomicLong();
+        InMemoryRepository<User, Long> users = new InMemoryRepository<>(User::getId, User::setId, ids::incrementAndGet);
+        return users
+                .finder("findByEmail", (all, args) -> all.stream()
+                        .filter(user -> args[0].equals(user.getEmail())).findFirst())
+                .finder("findByAuth0Id", (all, args) -> all.stream()
+                        .filter(user -> args[0].equals(user.getAuth0Id())).findFirst())
+                .finder("replacePasswordHash", (all, args) -> {
+                    synchronized (users) {
+                        return (int) all.stream()
+                                .filter(user -> args[0].equals(user.getId()) && args[1].equals(user.getPassword()))
+                                .peek(user -> user.setPassword((String) args[2]))
+                                .count();
+                    }
+                })
+                .as(UserRepository.class);
+    }
+
+    private com.dashboard.upload.repository.CsvReportRepository uploadReportRepository() {
+        return new InMemoryRepository<com.dashboard.upload.model.CsvReport, String>(csvReports,
+                com.dashboard.upload.model.CsvReport::getId, com.dashboard.upload.model.CsvReport::setId,
+                () -> new ObjectId().toHexString())
+                .finder("findFirstByUserIdAndCategoryAndPeriodAndContentHashAndStatus", (all, args) -> all.stream()
+                        .filter(r -> args[0].equals(r.getUserId()) && args[1].equals(r.getCategory())
+                                && args[2].equals(r.getPeriod()) && args[3].equals(r.getContentHash())
+                                && args[4].equals(r.getStatus()))
+                        .findFirst())
+                .finder("findWithoutRowsById", (all, args) -> Optional.ofNullable(csvReports.get((String) args[0]))
+                        .map(stored -> {
+                            com.dashboard.upload.model.CsvReport copy = new com.dashboard.upload.model.CsvReport();
+                            BeanUtils.copyProperties(stored, copy, "rows");
+                            return copy;
+                        }))
+                .as(com.dashboard.upload.repository.CsvReportRepository.class);
+    }
+
+    /**
+     * report-service lee los mismos documentos con su propio modelo
+     */
+    private com.dashboard.reports.repository.CsvReportRepository reportRepository() {
+        return new InMemoryRepository<com.dashboard.upload.model.CsvReport, String>(csvReports,
+                com.dashboard.upload.model.CsvReport::getId, com.dashboard.upload.model.CsvReport::setId,
+                () -> new ObjectId().toHexString())
+                .finder("findById", (all, args) -> Optional.ofNullable(csvReports.get((String) args[0]))
+                        .map(stored -> asReport(stored, true)))
+                .finder("findWithoutRowsById", (all, args) -> Optional.ofNullable(csvReports.get((String) args[0]))
+                        .map(stored -> asReport(stored, false)))
+                .finder("findByUserId", (all, args) -> all.stream()
+                        .filter(r -> args[0].equals(r.getUserId()))
+                        .map(stored -> asReport(stored, true))
+                        .toList())
+                .finder("findByIsPublicTrueOrUserId", (all, args) -> all.stream()
+                        .filter(r -> r.isPublic() || args[0].equals(r.getUserId()))
+                        .map(stored -> asReport(stored, true))
+                        .toList())
+                .as(com.dashboard.reports.repository.CsvReportRepository.class);
+    }
+
+    private static com.dashboard.reports.model.CsvReport asReport(com.dashboard.upload.model.CsvReport stored,
+                                                                  boolean withRows) {
+        com.dashboard.reports.model.CsvReport report = new com.dashboard.reports.model.CsvReport();
+        if (withRows) {
+            BeanUtils.copyProperties(stored, report);
+        } else {
+            BeanUtils.copyProperties(stored, report, "rows");
+        }
+        return report;
+    }
+
+    private ReportCatalogRepository catalogRepository() {
+        return new InMemoryRepository<ReportCatalogEntry, String>(ReportCatalogEntry::getId, ReportCatalogEntry::setId,
+                () -> new ObjectId().toHexString())
+                .finder("findByUserIdAndDeletedFalse", (all, args) -> all.stream()
+                        .filter(entry -> !entry.isDeleted() && args[0].equals(entry.getUserId()))
+                        .toList())
+                // Sort.by("uploadedAt"), el único orden que usa ReportService
+                .finder("findVisible", (all, args) -> all.stream()
+                        .filter(entry -> !entry.isDeleted() && (entry.isPublic() || args[0].equals(entry.getUserId())))
+                        .sorted(Comparator.comparing(ReportCatalogEntry::getUploadedAt,
+                                Comparator.nullsFirst(Comparator.naturalOrder())))
+                        .toList())
+                .as(ReportCatalogRepository.class);
+    }
+
+    private UserReportStatsRepository statsRepository() {
+        return new InMemoryRepository<UserReportStats, Long>(UserReportStats::getUserId, UserReportStats::setUserId,
+                () -> {
+                    throw new IllegalStateException("Las estadísticas siempre llevan userId");
+                })
+                .as(UserReportStatsRepository.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.dashboard.benchmarks.macro;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencias por operación del benchmark macro. Guarda todas las muestras (una
+ * corrida tiene miles, no millones) para calcular percentiles exactos.
+ */
+final class LatencyRecorder {
+
+    record Summary(String operation, int count, long errors, double p50Millis, double p99Millis, double maxMillis) {}
+
+    private final Map<String, Queue<Long>> samples = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    void record(String operation, long nanos, boolean ok) {
+        samples.computeIfAbsent(operation, key -> new ConcurrentLinkedQueue<>()).add(nanos);
+        if (!ok) {
+            errors.computeIfAbsent(operation, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Resumen por operación, en orden alfabético
+     */
+    List<Summary> summaries() {
+        return samples.keySet().stream().sorted().map(operation -> summary(operation, List.of(operation))).toList();
+    }
+
+    /**
+     * Resumen de todas las operaciones cuyo nombre empieza con prefix
+     */
+    Summary group(String name, String prefix) {
+        return summary(name, samples.keySet().stream().filter(operation -> operation.startsWith(prefix)).toList());
+    }
+
+    private Summary summary(String name, List<String> operations) {
+        long[] nanos = operations.stream()
+                .flatMap(operation -> samples.get(operation).stream())
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        long failed = operations.stream()
+                .mapToLong(operation -> errors.getOrDefault(operation, new AtomicLong()).get())
+                .sum();
+        if (nanos.length == 0) {
+            return new Summary(name, 0, failed, 0, 0, 0);
+        }
+        return new Summary(name, nanos.length, failed,
+                millis(percentile(nanos, 50)), millis(percentile(nanos, 99)), millis(nanos[nanos.length - 1]));
+    }
+
+    // Método nearest-rank: el menor valor que cubre el percentil
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
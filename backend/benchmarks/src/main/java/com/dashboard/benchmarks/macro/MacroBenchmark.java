@@ -0,0 +1,240 @@
+package com.dashboard.benchmarks.macro;
+
+import com.dashboard.benchmarks.CsvFixture;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Benchmark de extremo a extremo con presupuestos de rendimiento. Varios
+ * usuarios a la vez repiten una sesión típica del dashboard contra los
+ * servicios en el mismo proceso (ver InProcessServices): login, verificación
+ * del token, carga de un CSV y lecturas del dashboard (listado, categorías,
+ * estadísticas, reporte, análisis por columna y línea de tiempo).
+ *
+ * Al final compara p50/p99, filas/s y el máximo de heap con
+ * perf-budget.properties y termina con código 1 si algún presupuesto no se
+ * cumple. Parámetros con -D: bench.users, bench.sessions,
+ * bench.warmup-sessions, bench.rows y bench.reads.
+ */
+public final class MacroBenchmark {
+
+    private static final String PASSWORD = "Dashboard-bench-2024";
+    // Alterna los formatos que suben los usuarios: Excel en inglés, es-CO y ANSI
+    private static final CsvFixture[] UPLOADS = {CsvFixture.TALL, CsvFixture.SEMICOLON, CsvFixture.WINDOWS_1252};
+    private static final String[] CATEGORIES = {"Ventas", "Inventario", "Cartera"};
+
+    private final InProcessServices services;
+    private final int rowsPerUpload;
+    private final int readsPerSession;
+    private final AtomicLong rowsIngested = new AtomicLong();
+
+    private MacroBenchmark(InProcessServices services, int rowsPerUpload, int readsPerSession) {
+        this.services = services;
+        this.rowsPerUpload = rowsPerUpload;
+        this.readsPerSession = readsPerSession;
+    }
+
+    private record BenchUser(int index, long userId, String email, String auth0Id) {}
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("bench.users", 8);
+        int sessions = Integer.getInteger("bench.sessions", 6);
+        int warmupSessions = Integer.getInteger("bench.warmup-sessions", 2);
+        int rows = Integer.getInteger("bench.rows", 20_000);
+        int reads = Integer.getInteger("bench.reads", 12);
+
+        PerfBudget budget = new PerfBudget();
+        try (InProcessServices services = new InProcessServices()) {
+            MacroBenchmark benchmark = new MacroBenchmark(services, rows, reads);
+            List<BenchUser> benchUsers = benchmark.register(users);
+
+            System.out.printf(Locale.ROOT, "Calentamiento: %d usuarios x %d sesiones%n", users, warmupSessions);
+            benchmark.run(benchUsers, warmupSessions, 0, new LatencyRecorder());
+            benchmark.rowsIngested.set(0);
+            System.gc();
+
+            System.out.printf(Locale.ROOT, "Medición: %d usuarios x %d sesiones, %d filas por carga, %d lecturas por sesión%n",
+                    users, sessions, rows, reads);
+            LatencyRecorder latencies = new LatencyRecorder();
+            double seconds;
+            double heapMegabytes;
+            try (HeapWatermark heap = new HeapWatermark()) {
+                long start = System.nanoTime();
+                benchmark.run(benchUsers, sessions, warmupSessions, latencies);
+                services.awaitReadModels();
+                seconds = (System.nanoTime() - start) / 1e9;
+                heapMegabytes = heap.maxUsedMegabytes();
+            }
+
+            LatencyRecorder.Summary uploads = latencies.group("upload", "upload.");
+            LatencyRecorder.Summary readsSummary = latencies.group("reports", "reports.");
+            LatencyRecorder.Summary auth = latencies.group("auth", "auth.");
+            long requests = latencies.summaries().stream().mapToLong(LatencyRecorder.Summary::count).sum();
+            double rowsPerSecond = benchmark.rowsIngested.get() / seconds;
+
+            System.out.println();
+            System.out.printf("%-22s %8s %7s %10s %10s %10s%n", "operación", "n", "errores", "p50 ms", "p99 ms", "max ms");
+            latencies.summaries().forEach(MacroBenchmark::printSummary);
+            List.of(auth, uploads, readsSummary).forEach(MacroBenchmark::printSummary);
+            System.out.println();
+            System.out.printf(Locale.ROOT, "duración %.1f s, %.1f peticiones/s, %.0f filas/s cargadas, %d reportes, heap máximo %.0f MB%n",
+                    seconds, requests / seconds, rowsPerSecond, services.storedReports(), heapMegabytes);
+            System.out.println();
+
+            budget.atMost("budget.upload.p50-ms", uploads.p50Millis());
+            budget.atMost("budget.upload.p99-ms", uploads.p99Millis());
+            budget.atMost("budget.read.p50-ms", readsSummary.p50Millis());
+            budget.atMost("budget.read.p99-ms", readsSummary.p99Millis());
+            budget.atMost("budget.auth.p99-ms", auth.p99Millis());
+            budget.atLeast("budget.upload.min-rows-per-second", rowsPerSecond);
+            budget.atMost("budget.heap.max-mb", heapMegabytes);
+            budget.atMost("budget.errors.max", latencies.totalErrors());
+            budget.print(System.out);
+        }
+
+        if (!budget.passed()) {
+            System.out.println("Presupuesto de rendimiento excedido");
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void printSummary(LatencyRecorder.Summary summary) {
+        System.out.printf(Locale.ROOT, "%-22s %8d %7d %10.2f %10.2f %10.2f%n", summary.operation(), summary.count(),
+                summary.errors(), summary.p50Millis(), summary.p99Millis(), summary.maxMillis());
+    }
+
+    /**
+     * Usuarios locales (con contraseña) que además tienen una cuenta de Auth0
+     */
+    private List<BenchUser> register(int users) throws Exception {
+        LatencyRecorder setup = new LatencyRecorder();
+        List<BenchUser> registered = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            String email = "usuario" + i + "@bench.dashboard.local";
+            MvcResult result = call(setup, "setup", services.authMvc, post("/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(json(Map.of("email", email, "password", PASSWORD, "firstName", "Usuario " + i))));
+            long userId = body(result).path("userId").asLong();
+            registered.add(new BenchUser(i, userId, email, "auth0|bench-" + i));
+        }
+        if (setup.totalErrors() > 0) {
+            throw new IllegalStateException("No se pudieron registrar los usuarios del benchmark");
+        }
+        return registered;
+    }
+
+    /**
+     * Cada usuario corre sus sesiones en orden, todos los usuarios a la vez
+     */
+    private void run(List<BenchUser> users, int sessions, int firstSession, LatencyRecorder latencies) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(users.size(),
+                Thread.ofPlatform().name("bench-user-", 0).factory());
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (BenchUser user : users) {
+                tasks.add(() -> {
+                    for (int s = firstSession; s < firstSession + sessions; s++) {
+                        session(user, s, latencies);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> task : pool.invokeAll(tasks)) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void session(BenchUser user, int session, LatencyRecorder latencies) throws Exception {
+        MvcResult login = call(latencies, "auth.login", services.authMvc, post("/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("email", user.email(), "password", PASSWORD))));
+        String token = body(login).path("token").asText();
+        call(latencies, "auth.verify-token", services.authMvc, post("/verify-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("idToken", token, "auth0Id", user.auth0Id(), "email", "auth0-" + user.email()))));
+        call(latencies, "auth.user", services.authMvc, get("/user/{id}", user.userId()));
+
+        // El dashboard abre con el listado, las categorías y las estadísticas
+        long userId = user.userId();
+        call(latencies, "reports.list", services.reportMvc, get("/csv/user/{userId}", userId));
+        call(latencies, "reports.categories", services.reportMvc, get("/csv/categories/{userId}", userId));
+        call(latencies, "reports.stats", services.reportMvc, get("/csv/stats/{userId}", userId));
+
+        String reportId = upload(user, session, latencies);
+
+        for (int r = 0; r < readsPerSession; r++) {
+            switch (r % 6) {
+                case 0 -> call(latencies, "reports.get", services.reportMvc,
+                        get("/csv/{reportId}", reportId).param("userId", String.valueOf(userId)));
+                case 1 -> call(latencies, "reports.analysis", services.reportMvc,
+                        get("/csv/analysis/{userId}", userId).param("column", "Ciudad"));
+                case 2 -> call(latencies, "reports.timeline", services.reportMvc,
+                        get("/csv/{reportId}/timeline", reportId).param("column", "Fecha")
+                                .param("bucket", "month").param("userId", String.valueOf(userId)));
+                case 3 -> call(latencies, "reports.list", services.reportMvc, get("/csv/user/{userId}", userId));
+                case 4 -> call(latencies, "reports.analysis", services.reportMvc,
+                        get("/csv/analysis/{userId}", userId).param("column", "Cliente"));
+                default -> call(latencies, "reports.stats", services.reportMvc, get("/csv/stats/{userId}", userId));
+            }
+        }
+    }
+
+    private String upload(BenchUser user, int session, LatencyRecorder latencies) throws Exception {
+        CsvFixture fixture = UPLOADS[session % UPLOADS.length];
+        // Archivo distinto por usuario y sesión, para que no se detecte como repetido
+        byte[] content = fixture.bytes(rowsPerUpload, user.index() * 10_000L + session);
+        String uploadId = UUID.randomUUID().toString();
+        MvcResult result = call(latencies, "upload.csv", services.uploadMvc, multipart("/csv/upload")
+                .file(new MockMultipartFile("file", "ventas-" + session + ".csv", "text/csv", content))
+                .param("userId", String.valueOf(user.userId()))
+                .param("category", CATEGORIES[session % CATEGORIES.length])
+                .param("period", String.format(Locale.ROOT, "2024-%02d", 1 + session % 12))
+                .param("isPublic", String.valueOf(session % 4 == 0))
+                .param("uploadId", uploadId)
+                .header("Idempotency-Key", uploadId));
+        JsonNode body = body(result);
+        rowsIngested.addAndGet(body.path("rowCount").asLong());
+        return body.path("reportId").asText();
+    }
+
+    private static MvcResult call(LatencyRecorder latencies, String operation, MockMvc mvc, RequestBuilder request)
+            throws Exception {
+        long start = System.nanoTime();
+        MvcResult result = mvc.perform(request).andReturn();
+        long elapsed = System.nanoTime() - start;
+        int status = result.getResponse().getStatus();
+        latencies.record(operation, elapsed, status >= 200 && status < 300);
+        return result;
+    }
+
+    private String json(Object value) throws Exception {
+        return services.objectMapper().writeValueAsString(value);
+    }
+
+    private JsonNode body(MvcResult result) throws Exception {
+        return services.objectMapper().readTree(result.getResponse().getContentAsByteArray());
+    }
+}
@@ -0,0 +1,66 @@
+package com.dashboard.benchmarks.macro;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Presupuestos de rendimiento del benchmark macro, leídos de
+ * perf-budget.properties. Cada uno se puede cambiar con -D&lt;clave&gt;=&lt;valor&gt;,
+ * p. ej. -Dbudget.read.p99-ms=200 para una máquina más lenta.
+ */
+final class PerfBudget {
+
+    private record Check(String key, String comparison, double limit, double actual, boolean ok) {}
+
+    private final Properties budgets = new Properties();
+    private final List<Check> checks = new ArrayList<>();
+
+    PerfBudget() throws IOException {
+        try (InputStream in = PerfBudget.class.getResourceAsStream("/perf-budget.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("Falta perf-budget.properties en el classpath");
+            }
+            budgets.load(in);
+        }
+    }
+
+    /**
+     * actual no debe superar el presupuesto
+     */
+    void atMost(String key, double actual) {
+        double limit = limit(key);
+        checks.add(new Check(key, "<=", limit, actual, actual <= limit));
+    }
+
+    /**
+     * actual debe llegar al menos al presupuesto
+     */
+    void atLeast(String key, double actual) {
+        double limit = limit(key);
+        checks.add(new Check(key, ">=", limit, actual, actual >= limit));
+    }
+
+    boolean passed() {
+        return checks.stream().allMatch(Check::ok);
+    }
+
+    void print(PrintStream out) {
+        for (Check check : checks) {
+            out.printf(Locale.ROOT, "%-6s %-32s %12.1f %s %.1f%n",
+                    check.ok() ? "OK" : "FALLA", check.key(), check.actual(), check.comparison(), check.limit());
+        }
+    }
+
+    private double limit(String key) {
+        String value = System.getProperty(key, budgets.getProperty(key));
+        if (value == null) {
+            throw new IllegalArgumentException("Presupuesto sin definir: " + key);
+        }
+        return Double.parseDouble(value.trim());
+    }
+}
@@ -0,0 +1,33 @@
+package com.dashboard.data.event;
+
+import com.dashboard.data.model.CsvReport;
+
+/**
+ * Evento publicado en Redis cada vez que se escribe en csv_reports, para que
+ * report-service invalide su caché. wasPublic es la visibilidad anterior.
+ */
+public record ReportChangedEvent(
+        String type,        // CREATED, UPDATED, APPENDED, DELETED
+        String reportId,
+        Long userId,
+        String category,
+        Boolean isPublic,
+        Boolean wasPublic,
+        String source,
+        long timestamp) {
+
+    private static final String SOURCE = "data-service";
+
+    public static ReportChangedEvent created(CsvReport report) {
+        return of("CREATED", report, false);
+    }
+
+    public static ReportChangedEvent deleted(CsvReport report) {
+        return of("DELETED", report, report.isPublic());
+    }
+
+    private static ReportChangedEvent of(String type, CsvReport report, boolean wasPublic) {
+        return new ReportChangedEvent(type, report.getId(), report.getUserId(), report.getCategory(),
+                report.isPublic(), wasPublic, SOURCE, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,32 @@
+package com.dashboard.data.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica los cambios en csv_reports. Un fallo de Redis no hace fallar la
+ * carga: el TTL de la caché de report-service acota el dato viejo.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReportEventPublisher {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${reports.events.channel:reports:changed}")
+    private String channel;
+
+    public void publish(ReportChangedEvent event) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.warn("No se pudo publicar el evento {} del reporte {}: {}", event.type(), event.reportId(), e.getMessage());
+        }
+    }
+}
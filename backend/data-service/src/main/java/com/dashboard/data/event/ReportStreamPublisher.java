@@ -0,0 +1,65 @@
+package com.dashboard.data.event;
+
+import com.dashboard.data.model.CsvReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Agrega las escrituras de data-service en csv_reports al stream de reportes
+ * (ReportIngested al cargar, ReportDeleted al borrar), igual que upload-service
+ * y report-service. Sin esto los modelos de lectura de report-service no
+ * verían los reportes que se cargan o borran por /api/data.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReportStreamPublisher {
+
+    public static final String REPORT_INGESTED = "ReportIngested";
+    public static final String REPORT_DELETED = "ReportDeleted";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${reports.events.stream:reports:events}")
+    private String streamKey;
+
+    @Value("${reports.events.max-length:10000}")
+    private long maxLength;
+
+    public void ingested(CsvReport report) {
+        add(REPORT_INGESTED, report.getId(), ReportSummary.of(report));
+    }
+
+    public void deleted(CsvReport report) {
+        add(REPORT_DELETED, report.getId(), ReportSummary.deleted(report.getId(), report.getUserId()));
+    }
+
+    private void add(String type, String reportId, ReportSummary summary) {
+        try {
+            Map<String, String> fields = Map.of(
+                    "type", type,
+                    "reportId", reportId,
+                    "payload", objectMapper.writeValueAsString(summary),
+                    "source", "data-service");
+            // XADD con MAXLEN ~, como los demás servicios que escriben en el stream
+            redisTemplate.execute((RedisCallback<RecordId>) connection -> ((StringRedisConnection) connection).xAdd(
+                    StreamRecords.string(fields).withStreamKey(streamKey),
+                    XAddOptions.maxlen(maxLength).approximateTrimming(true)));
+        } catch (Exception e) {
+            // El modelo de lectura se puede reconstruir desde Mongo (actuator readmodels de report-service)
+            log.warn("No se pudo agregar {} del reporte {} al stream: {}", type, reportId, e.getMessage());
+        }
+    }
+}
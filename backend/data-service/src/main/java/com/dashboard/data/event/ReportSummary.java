@@ -0,0 +1,47 @@
+package com.dashboard.data.event;
+
+import com.dashboard.data.model.CsvReport;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumen de un reporte (sin filas) que viaja en los eventos del stream, con
+ * el mismo formato que publica upload-service. En ReportDeleted solo van
+ * reportId y userId.
+ */
+public record ReportSummary(
+        int schemaVersion,
+        String reportId,
+        Long userId,
+        String category,
+        String period,
+        String originalFileName,
+        Long fileSize,
+        Integer rowCount,
+        List<String> columns,
+        List<String> dateColumns,
+        Boolean isPublic,
+        String status,
+        LocalDateTime uploadedAt) {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public static ReportSummary of(CsvReport report) {
+        List<String> dateColumns = report.getMetadata() != null
+                && report.getMetadata().get("dateColumns") instanceof Map<?, ?> dates
+                ? dates.keySet().stream().map(String::valueOf).toList()
+                : List.of();
+        return new ReportSummary(SCHEMA_VERSION, report.getId(), report.getUserId(), report.getCategory(),
+                report.getPeriod(), report.getOriginalFileName(), report.getFileSize(), report.getRowCount(),
+                report.getHeaders() != null ? new ArrayList<>(report.getHeaders()) : List.of(),
+                dateColumns, report.isPublic(), report.getStatus(), report.getUploadedAt());
+    }
+
+    public static ReportSummary deleted(String reportId, Long userId) {
+        return new ReportSummary(SCHEMA_VERSION, reportId, userId, null, null, null, null, null,
+                null, null, null, null, null);
+    }
+}
@@ -1,5 +1,8 @@
 package com.dashboard.data.service;
 
+import com.dashboard.data.event.ReportChangedEvent;
+import com.dashboard.data.event.ReportEventPublisher;
+import com.dashboard.data.event.ReportStreamPublisher;
 import com.dashboard.data.model.CsvReport;
 import com.dashboard.data.repository.CsvReportRepository;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +25,8 @@ import java.util.*;
 public class CsvService {
 
     private final CsvReportRepository csvReportRepository;
+    private final ReportEventPublisher reportEventPublisher;
+    private final ReportStreamPublisher reportStreamPublisher;
 
     public CsvReport uploadAndParseCsv(MultipartFile file, Long userId, String category, String period, boolean isPublic) throws Exception {
         log.info("Procesando CSV: {} para usuario: {}, categoría: {}, período: {}", 
@@ -115,7 +120,10 @@ public class CsvService {
             throw new Exception("Error procesando CSV: " + e.getMessage());
         }
 
-        return csvReportRepository.save(report);
+        CsvReport saved = csvReportRepository.save(report);
+        reportStreamPublisher.ingested(saved);
+        reportEventPublisher.publish(ReportChangedEvent.created(saved));
+        return saved;
     }
 
     private char detectDelimiter(String line) {
@@ -207,7 +215,13 @@ public class CsvService {
     }
 
     public void deleteReport(String id) {
+        // El evento solo necesita dueño, categoría y visibilidad: sin las filas de muestra
+        Optional<CsvReport> existing = csvReportRepository.findWithoutRowsById(id);
         csvReportRepository.deleteById(id);
+        existing.ifPresent(report -> {
+            reportStreamPublisher.deleted(report);
+            reportEventPublisher.publish(ReportChangedEvent.deleted(report));
+        });
     }
 
     /**
@@ -0,0 +1,21 @@
+package com.dashboard.diagnostics;
+
+import com.dashboard.diagnostics.jfr.ContinuousRecording;
+import com.dashboard.diagnostics.jfr.JfrEndpoint;
+import com.dashboard.diagnostics.tracing.RepositoryTracingAspect;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Se carga en cada servicio que tenga este módulo en el classpath (ver
+ * META-INF/spring/...AutoConfiguration.imports): los paquetes de los
+ * servicios no incluyen com.dashboard.diagnostics en su escaneo.
+ *
+ * Sin condiciones @ConditionalOnProperty a propósito: con Spring AOT se
+ * evaluarían al construir la imagen y JFR_ENABLED dejaría de tener efecto.
+ * ContinuousRecording lee diagnostics.jfr.enabled al arrancar.
+ */
+@AutoConfiguration
+@Import({ContinuousRecording.class, JfrEndpoint.class, RepositoryTracingAspect.class})
+public class DiagnosticsAutoConfiguration {
+}
@@ -0,0 +1,127 @@
+package com.dashboard.diagnostics.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.util.unit.DataSize;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Grabación continua de JDK Flight Recorder con la configuración "default"
+ * (menos de 1% de overhead): asignaciones, contención de locks, GC, hilos y
+ * los eventos propios del servicio. Se guardan en disco los últimos max-age
+ * minutos o max-size, lo que se llene primero, y JfrEndpoint los vuelca a un
+ * archivo cuando hace falta.
+ *
+ * Si la JVM ya arrancó con -XX:StartFlightRecording:name=continuous se usa esa,
+ * con su propio maxage. La registra DiagnosticsAutoConfiguration; cada servicio
+ * la activa con diagnostics.jfr.enabled.
+ */
+@Slf4j
+public class ContinuousRecording {
+
+    static final String NAME = "continuous";
+
+    @Value("${diagnostics.jfr.enabled:false}")
+    private boolean enabled;
+
+    @Value("${diagnostics.jfr.settings:default}")
+    private String settings;
+
+    @Value("${diagnostics.jfr.max-age:30m}")
+    private Duration maxAge;
+
+    @Value("${diagnostics.jfr.max-size:64MB}")
+    private DataSize maxSize;
+
+    private volatile Recording recording;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Grabación continua de JFR desactivada");
+            return;
+        }
+        Optional<Recording> existing = FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(r -> NAME.equals(r.getName()))
+                .findFirst();
+        if (existing.isPresent()) {
+            recording = existing.get();
+            log.info("Usando la grabación JFR '{}' iniciada con la JVM", NAME);
+            return;
+        }
+        try {
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            started.setName(NAME);
+            started.setToDisk(true);
+            started.setMaxAge(maxAge);
+            started.setMaxSize(maxSize.toBytes());
+            started.start();
+            recording = started;
+            log.info("Grabación JFR continua iniciada ({}, últimos {} o {})", settings, maxAge, maxSize);
+        } catch (Exception e) {
+            // Sin JFR el servicio funciona igual, solo no hay volcados
+            log.warn("No se pudo iniciar la grabación JFR: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Recording current = recording;
+        if (current != null) {
+            recording = null;
+            current.close();
+        }
+    }
+
+    public Optional<Recording> recording() {
+        return Optional.ofNullable(recording);
+    }
+
+    /**
+     * Lo que guarda la grabación activa: la iniciada con la JVM puede tener
+     * otro maxage que diagnostics.jfr.max-age (o ninguno)
+     */
+    public Duration maxAge() {
+        Recording current = recording;
+        if (current != null && current.getMaxAge() != null) {
+            return current.getMaxAge();
+        }
+        return maxAge;
+    }
+
+    /**
+     * Vuelca los últimos minutos de la grabación a target. Usa el comando
+     * JFR.dump (el mismo de jcmd), que a diferencia de Recording.dump permite
+     * limitar el volcado a un rango de tiempo.
+     */
+    public Path dump(Duration last, Path target) throws Exception {
+        if (recording == null) {
+            throw new IllegalStateException("La grabación JFR continua no está activa");
+        }
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        String[] arguments = {
+                "name=" + NAME,
+                "filename=" + target.toAbsolutePath(),
+                "maxage=" + Math.max(1, last.toSeconds()) + "s"
+        };
+        String output = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"), "jfrDump",
+                new Object[]{arguments}, new String[]{String[].class.getName()});
+        if (!Files.exists(target)) {
+            throw new IllegalStateException("JFR.dump no generó el archivo: " + output.trim());
+        }
+        return target;
+    }
+}
@@ -0,0 +1,80 @@
+package com.dashboard.diagnostics.jfr;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * /actuator/jfr (puerto de management): estado de la grabación continua de
+ * JFR y volcado de los últimos minutos a un archivo .jfr para abrirlo en JDK
+ * Mission Control o con "jfr print".
+ *
+ * POST {"minutes": 5} escribe el archivo en diagnostics.jfr.dump-dir y
+ * devuelve su ruta; se copia del contenedor con docker cp.
+ */
+@Endpoint(id = "jfr")
+@Slf4j
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ContinuousRecording continuousRecording;
+
+    @Value("${diagnostics.jfr.dump-dir:/tmp/jfr}")
+    private Path dumpDir;
+
+    @Value("${spring.application.name}")
+    private String applicationName;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("dumpDir", dumpDir.toString());
+        continuousRecording.recording().ifPresentOrElse(recording -> {
+            status.put("name", recording.getName());
+            status.put("state", recording.getState().name());
+            status.put("startTime", String.valueOf(recording.getStartTime()));
+            status.put("maxAge", String.valueOf(recording.getMaxAge()));
+            status.put("maxSizeBytes", recording.getMaxSize());
+            status.put("sizeBytes", recording.getSize());
+        }, () -> status.put("state", "INACTIVE"));
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> dump(@Nullable Integer minutes) throws Exception {
+        Duration maxAge = continuousRecording.maxAge();
+        Duration last = minutes != null && minutes > 0 ? Duration.ofMinutes(minutes) : maxAge;
+        if (last.compareTo(maxAge) > 0) {
+            // La grabación no guarda más que max-age
+            last = maxAge;
+        }
+
+        Path target = dumpDir.resolve(applicationName + "-" + LocalDateTime.now().format(FILE_TIMESTAMP)
+                + "-" + last.toMinutes() + "m.jfr");
+        long start = System.currentTimeMillis();
+        continuousRecording.dump(last, target);
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Volcado JFR de los últimos {} en {} ({} ms)", last, target, elapsed);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("file", target.toAbsolutePath().toString());
+        result.put("sizeBytes", Files.size(target));
+        result.put("lastMinutes", last.toMinutes());
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package com.dashboard.diagnostics.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+
+/**
+ * Un span por cada llamada a un repositorio de Spring Data, hijo del span de
+ * la petición: en la traza se ve cuánto de una petición fue Mongo o Postgres.
+ *
+ * Fuera de una petición (consumidores de streams, cargas en segundo plano) no
+ * se crea ninguno, para no llenar el archivo de trazas de raíces sueltas.
+ */
+@Aspect
+@RequiredArgsConstructor
+public class RepositoryTracingAspect {
+
+    private final Tracer tracer;
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (tracer.currentSpan() == null) {
+            return joinPoint.proceed();
+        }
+
+        String repository = repositoryName(joinPoint.getTarget());
+        String method = joinPoint.getSignature().getName();
+        Span span = tracer.nextSpan()
+                .name(repository + "." + method)
+                .tag("repository", repository)
+                .tag("method", method)
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * La interfaz del repositorio (CsvReportRepository), no la que declara el
+     * método (CrudRepository.findById)
+     */
+    private static String repositoryName(Object repository) {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(repository);
+        return interfaces.length > 0 ? interfaces[0].getSimpleName() : repository.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,160 @@
+package com.dashboard.reports.arrow;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Escribe filas (columna -> valor) como Arrow IPC stream, en lotes de
+ * batch-rows filas. El navegador lee las columnas directamente de los buffers
+ * en vez de hacer JSON.parse de miles de objetos.
+ *
+ * El tipo de cada columna se infiere de sus valores: enteros a Int64, números
+ * a Float64, booleanos a Bool, columnas de fecha (epoch ms) a Timestamp con la
+ * zona del reporte y el resto a Utf8.
+ *
+ * La ganancia es de parseo, no de tamaño: con la muestra de 1000 filas el
+ * stream ocupa ~57% del JSON sin comprimir, pero con gzip queda ~10% por
+ * encima, y una línea de tiempo (dos columnas cortas) ocupa más que su JSON.
+ */
+@Component
+@Slf4j
+public class ArrowTableWriter {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.apache.arrow.stream";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private enum ColumnType { TIMESTAMP, INT64, FLOAT64, BOOL, UTF8 }
+
+    private final BufferAllocator allocator;
+    private final int batchRows;
+
+    public ArrowTableWriter(BufferAllocator arrowAllocator,
+                            @Value("${reports.arrow.batch-rows:4096}") int batchRows) {
+        this.allocator = arrowAllocator;
+        this.batchRows = Math.max(1, batchRows);
+    }
+
+    /**
+     * true si el cliente pidió Arrow explícitamente en Accept; JSON sigue siendo
+     * la respuesta por defecto (incluido Accept: *&#47;*).
+     */
+    public static boolean isRequested(String accept) {
+        if (accept == null || accept.isBlank()) return false;
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(type -> type.equalsTypeAndSubtype(MEDIA_TYPE));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param columns     columnas en el orden de salida
+     * @param dateColumns columnas con epoch en milisegundos
+     * @param metadata    metadata del esquema (p. ej. datos del reporte)
+     */
+    public void write(List<String> columns, List<Map<String, Object>> rows, Set<String> dateColumns,
+                      ZoneId zone, Map<String, String> metadata, OutputStream out) throws IOException {
+        ColumnType[] types = new ColumnType[columns.size()];
+        List<Field> fields = new ArrayList<>(columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            types[c] = inferType(columns.get(c), rows, dateColumns);
+            fields.add(new Field(columns.get(c), FieldType.nullable(arrowType(types[c], zone)), null));
+        }
+        Schema schema = new Schema(fields, metadata);
+
+        try (BufferAllocator child = allocator.newChildAllocator("response", 0, allocator.getLimit());
+             VectorSchemaRoot root = VectorSchemaRoot.create(schema, child);
+             ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(out))) {
+            writer.start();
+            for (int start = 0; start < rows.size(); start += batchRows) {
+                int end = Math.min(rows.size(), start + batchRows);
+                root.allocateNew();
+                for (int c = 0; c < columns.size(); c++) {
+                    fill(root.getVector(c), types[c], columns.get(c), rows, start, end);
+                }
+                root.setRowCount(end - start);
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+        log.debug("Respuesta Arrow: {} filas, {} columnas", rows.size(), columns.size());
+    }
+
+    private static ColumnType inferType(String column, List<Map<String, Object>> rows, Set<String> dateColumns) {
+        boolean allLong = true;
+        boolean allNumber = true;
+        boolean allBoolean = true;
+        boolean any = false;
+        for (Map<String, Object> row : rows) {
+            Object value = row.get(column);
+            if (value == null) continue;
+            any = true;
+            boolean integral = value instanceof Long || value instanceof Integer || value instanceof Short;
+            allLong &= integral;
+            allNumber &= value instanceof Number;
+            allBoolean &= value instanceof Boolean;
+            if (!allNumber && !allBoolean) return ColumnType.UTF8;
+        }
+        if (!any) return ColumnType.UTF8;
+        if (allLong && dateColumns.contains(column)) return ColumnType.TIMESTAMP;
+        if (allLong) return ColumnType.INT64;
+        if (allNumber) return ColumnType.FLOAT64;
+        return ColumnType.BOOL;
+    }
+
+    private static ArrowType arrowType(ColumnType type, ZoneId zone) {
+        return switch (type) {
+            case TIMESTAMP -> new ArrowType.Timestamp(TimeUnit.MILLISECOND, zone.getId());
+            case INT64 -> new ArrowType.Int(64, true);
+            case FLOAT64 -> new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            case BOOL -> ArrowType.Bool.INSTANCE;
+            case UTF8 -> ArrowType.Utf8.INSTANCE;
+        };
+    }
+
+    // Los valores nulos no se escriben: allocateNew deja el bit de validez en 0
+    private static void fill(FieldVector vector, ColumnType type, String column,
+                             List<Map<String, Object>> rows, int start, int end) {
+        for (int i = start; i < end; i++) {
+            Object value = rows.get(i).get(column);
+            if (value == null) continue;
+            int index = i - start;
+            switch (type) {
+                case TIMESTAMP -> ((TimeStampMilliTZVector) vector).setSafe(index, ((Number) value).longValue());
+                case INT64 -> ((BigIntVector) vector).setSafe(index, ((Number) value).longValue());
+                case FLOAT64 -> ((Float8Vector) vector).setSafe(index, ((Number) value).doubleValue());
+                case BOOL -> ((BitVector) vector).setSafe(index, (Boolean) value ? 1 : 0);
+                case UTF8 -> ((VarCharVector) vector).setSafe(index, value.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        vector.setValueCount(end - start);
+    }
+}
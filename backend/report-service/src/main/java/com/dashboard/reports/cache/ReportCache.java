@@ -0,0 +1,163 @@
+package com.dashboard.reports.cache;
+
+import com.dashboard.reports.event.ReportChangedEvent;
+import com.dashboard.reports.jfr.CacheLookupEvent;
+import com.dashboard.reports.model.CsvReport;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caché local de las lecturas de report-service. Las entradas se invalidan
+ * con los eventos de cambios publicados en Redis (ver ReportEventListener),
+ * así el TTL puede ser largo; el TTL solo cubre eventos perdidos.
+ *
+ * Los reportes y listados pesan según sus filas de muestra, para que la caché
+ * se limite por cantidad de filas y no por cantidad de entradas.
+ */
+@Component
+@Slf4j
+public class ReportCache {
+
+    private record AnalysisKey(Long userId, String column) {}
+
+    private final Cache<String, CsvReport> reports;
+    private final Cache<Long, List<CsvReport>> visibleReports;
+    private final Cache<Long, Map<String, List<Map<String, Object>>>> categories;
+    private final Cache<Long, Map<String, Object>> stats;
+    private final Cache<AnalysisKey, Map<String, Object>> analyses;
+    private final Tracer tracer;
+
+    public ReportCache(
+            @Value("${reports.cache.ttl:30m}") Duration ttl,
+            @Value("${reports.cache.max-rows:200000}") long maxRows,
+            @Value("${reports.cache.max-entries:2000}") long maxEntries,
+            MeterRegistry meterRegistry,
+            Tracer tracer) {
+        this.tracer = tracer;
+        this.reports = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxRows)
+                .<String, CsvReport>weigher((id, report) -> weight(report))
+                .recordStats()
+                .build();
+        this.visibleReports = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxRows)
+                .<Long, List<CsvReport>>weigher((userId, list) -> list.stream().mapToInt(ReportCache::weight).sum())
+                .recordStats()
+                .build();
+        this.categories = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxEntries).recordStats().build();
+        this.stats = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxEntries).recordStats().build();
+        this.analyses = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxEntries).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, reports, "reports");
+        CaffeineCacheMetrics.monitor(meterRegistry, visibleReports, "visibleReports");
+        CaffeineCacheMetrics.monitor(meterRegistry, categories, "categories");
+        CaffeineCacheMetrics.monitor(meterRegistry, stats, "stats");
+        CaffeineCacheMetrics.monitor(meterRegistry, analyses, "analyses");
+    }
+
+    private static int weight(CsvReport report) {
+        return 1 + (report.getRows() != null ? report.getRows().size() : 0);
+    }
+
+    /**
+     * Reporte por id; los reportes inexistentes no se guardan
+     */
+    public CsvReport report(String id, Function<String, CsvReport> loader) {
+        return lookup("reports", reports, id, loader);
+    }
+
+    public List<CsvReport> visibleReports(Long userId, Supplier<List<CsvReport>> loader) {
+        return lookup("visibleReports", visibleReports, userId, key -> loader.get());
+    }
+
+    public Map<String, List<Map<String, Object>>> categories(Long userId,
+                                                             Supplier<Map<String, List<Map<String, Object>>>> loader) {
+        return lookup("categories", categories, userId, key -> loader.get());
+    }
+
+    public Map<String, Object> stats(Long userId, Supplier<Map<String, Object>> loader) {
+        return lookup("stats", stats, userId, key -> loader.get());
+    }
+
+    public Map<String, Object> analysis(Long userId, String column, Supplier<Map<String, Object>> loader) {
+        return lookup("analyses", analyses, new AnalysisKey(userId, column), key -> loader.get());
+    }
+
+    /**
+     * Cache.get con un evento de JFR y un span por búsqueda (acierto o fallo).
+     * En un fallo, las consultas del loader quedan dentro del span. Si otro
+     * hilo está cargando la misma clave, la espera cuenta como acierto.
+     */
+    private <K, V> V lookup(String name, Cache<K, V> cache, K key, Function<K, V> loader) {
+        CacheLookupEvent event = CacheLookupEvent.start(name, key);
+        Span span = tracer.nextSpan().name("cache " + name).tag("cache", name).start();
+        boolean[] loaded = {false};
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            V value = cache.get(key, k -> {
+                loaded[0] = true;
+                return loader.apply(k);
+            });
+            event.hit(!loaded[0]);
+            event.commit();
+            span.tag("cache.hit", !loaded[0]);
+            return value;
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Quita las entradas afectadas por un cambio: el reporte, lo calculado con
+     * los reportes del dueño y, si el reporte era o es público, los listados de
+     * todos los usuarios.
+     */
+    public void evict(ReportChangedEvent event) {
+        if (event.reportId() != null) {
+            reports.invalidate(event.reportId());
+        }
+
+        Long owner = event.userId();
+        if (owner == null) {
+            stats.invalidateAll();
+            analyses.invalidateAll();
+        } else {
+            stats.invalidate(owner);
+            analyses.asMap().keySet().removeIf(key -> owner.equals(key.userId()));
+        }
+
+        if (owner == null || event.affectsOtherUsers()) {
+            visibleReports.invalidateAll();
+            categories.invalidateAll();
+        } else {
+            visibleReports.invalidate(owner);
+            categories.invalidate(owner);
+        }
+    }
+
+    public void clear() {
+        reports.invalidateAll();
+        visibleReports.invalidateAll();
+        categories.invalidateAll();
+        stats.invalidateAll();
+        analyses.invalidateAll();
+        log.info("Caché de reportes vaciada");
+    }
+}
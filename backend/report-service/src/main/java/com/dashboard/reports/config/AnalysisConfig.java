@@ -0,0 +1,23 @@
+package com.dashboard.reports.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class AnalysisConfig {
+
+    /**
+     * Pool dedicado para los análisis de reportes. Se mantiene separado del
+     * commonPool para que un análisis pesado no bloquee al resto del servicio.
+     * Si no se configura, deja un núcleo libre para los hilos de Tomcat.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool analysisPool(@Value("${reports.analysis.parallelism:0}") int parallelism) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int effective = parallelism > 0 ? Math.min(parallelism, cores) : Math.max(1, cores - 1);
+        return new ForkJoinPool(effective);
+    }
+}
@@ -0,0 +1,21 @@
+package com.dashboard.reports.config;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class ArrowConfig {
+
+    /**
+     * Memoria fuera del heap para armar las respuestas Arrow. El límite acota
+     * cuánto pueden ocupar a la vez los lotes de todas las respuestas en curso.
+     */
+    @Bean(destroyMethod = "close")
+    public BufferAllocator arrowAllocator(@Value("${reports.arrow.max-memory:64MB}") DataSize maxMemory) {
+        return new RootAllocator(maxMemory.toBytes());
+    }
+}
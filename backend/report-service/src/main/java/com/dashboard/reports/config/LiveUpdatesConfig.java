@@ -0,0 +1,38 @@
+package com.dashboard.reports.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+public class LiveUpdatesConfig {
+
+    /**
+     * Hilo dedicado al change stream de csv_reports (lectura bloqueante)
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService changeStreamExecutor() {
+        return Executors.newSingleThreadExecutor(Thread.ofPlatform().name("report-change-stream").daemon().factory());
+    }
+
+    /**
+     * Heartbeats de las conexiones SSE
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService liveUpdatesScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("live-updates").daemon().factory());
+    }
+
+    /**
+     * Escritura de los eventos SSE, fuera del change stream: un cliente lento
+     * ocupa como mucho uno de estos hilos
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService liveUpdatesSender(@Value("${reports.live.sender-threads:4}") int threads) {
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("live-updates-send-", 0).daemon().factory());
+    }
+}
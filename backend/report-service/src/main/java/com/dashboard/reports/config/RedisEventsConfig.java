@@ -0,0 +1,49 @@
+package com.dashboard.reports.config;
+
+import com.dashboard.reports.event.ReportEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+
+import java.time.Duration;
+
+@Configuration
+public class RedisEventsConfig {
+
+    /**
+     * Suscripción al canal de cambios de reportes. Si Redis se cae, el
+     * contenedor reintenta la suscripción en segundo plano.
+     */
+    @Bean
+    public RedisMessageListenerContainer reportEventsContainer(
+            RedisConnectionFactory connectionFactory,
+            ReportEventListener listener,
+            @Value("${reports.events.channel:reports:changed}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(listener, new ChannelTopic(channel));
+        return container;
+    }
+
+    /**
+     * Contenedor que lee el stream de reportes (XREADGROUP bloqueante) para los
+     * modelos de lectura; la suscripción la registra ReportStreamConsumer.
+     */
+    @Bean
+    public StreamMessageListenerContainer<String, MapRecord<String, String, String>> reportStreamContainer(
+            RedisConnectionFactory connectionFactory,
+            @Value("${reports.read-models.batch-size:100}") int batchSize) {
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofSeconds(2))
+                        .batchSize(batchSize)
+                        .build();
+        return StreamMessageListenerContainer.create(connectionFactory, options);
+    }
+}
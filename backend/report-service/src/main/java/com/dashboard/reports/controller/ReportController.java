@@ -1,14 +1,25 @@
 package com.dashboard.reports.controller;
 
+import com.dashboard.reports.arrow.ArrowTableWriter;
+import com.dashboard.reports.live.LiveUpdateHub;
 import com.dashboard.reports.model.CsvReport;
 import com.dashboard.reports.service.ReportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/csv")
@@ -17,6 +28,7 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final LiveUpdateHub liveUpdateHub;
 
     @GetMapping(value = "/user/{userId}", produces = "application/json;charset=UTF-8")
     public ResponseEntity<?> getUserReports(@PathVariable Long userId) {
@@ -30,17 +42,94 @@ public class ReportController {
         }
     }
 
-    @GetMapping(value = "/{reportId}", produces = "application/json;charset=UTF-8")
-    public ResponseEntity<?> getReport(@PathVariable String reportId, @RequestParam(value = "userId", required = false) Long userId) {
+    /**
+     * Con Accept: application/vnd.apache.arrow.stream las filas se devuelven
+     * como Arrow IPC en lotes; sin ese Accept se responde JSON como siempre.
+     */
+    @GetMapping(value = "/{reportId}", produces = {"application/json;charset=UTF-8", ArrowTableWriter.MEDIA_TYPE_VALUE})
+    public ResponseEntity<?> getReport(
+            @PathVariable String reportId,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) throws IOException {
         try {
-            return reportService.getReportById(reportId, userId)
-                    .<ResponseEntity<?>>map(ResponseEntity::ok)
-                    .orElseGet(() -> ResponseEntity.status(403).body(Map.of("error", "No autorizado o no encontrado")));
+            Optional<CsvReport> report = reportService.getReportById(reportId, userId);
+            if (report.isEmpty()) {
+                return jsonError(403, "No autorizado o no encontrado");
+            }
+            if (ArrowTableWriter.isRequested(accept)) {
+                reportService.writeReportArrow(report.get(), arrowOutput(response));
+                return null;
+            }
+            return ResponseEntity.ok(report.get());
         } catch (Exception e) {
+            discardArrowOrRethrow(response, e);
             log.error("Error obteniendo reporte: {}", e.getMessage());
-            return ResponseEntity.status(500)
-                    .body(Map.of("error", e.getMessage()));
+            return jsonError(500, e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/{reportId}/timeline", produces = {"application/json;charset=UTF-8", ArrowTableWriter.MEDIA_TYPE_VALUE})
+    public ResponseEntity<?> getTimeline(
+            @PathVariable String reportId,
+            @RequestParam String column,
+            @RequestParam(value = "bucket", defaultValue = "day") String bucket,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) throws IOException {
+        try {
+            Optional<Map<String, Object>> timeline = reportService.getTimeline(reportId, userId, column, bucket);
+            if (timeline.isEmpty()) {
+                return jsonError(403, "No autorizado o no encontrado");
+            }
+            if (ArrowTableWriter.isRequested(accept)) {
+                reportService.writeTimelineArrow(timeline.get(), arrowOutput(response));
+                return null;
+            }
+            return ResponseEntity.ok(timeline.get());
+        } catch (IllegalArgumentException e) {
+            discardArrowOrRethrow(response, e);
+            return jsonError(400, e.getMessage());
+        } catch (Exception e) {
+            discardArrowOrRethrow(response, e);
+            log.error("Error agrupando columna {}: {}", column, e.getMessage());
+            return jsonError(500, e.getMessage());
+        }
+    }
+
+    /**
+     * Los lotes Arrow se escriben directo a la respuesta a medida que se arman;
+     * el handler devuelve null porque la respuesta ya quedó escrita.
+     */
+    private OutputStream arrowOutput(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(ArrowTableWriter.MEDIA_TYPE_VALUE);
+        return response.getOutputStream();
+    }
+
+    /**
+     * Error en JSON con el Content-Type explícito: así se envía también cuando
+     * el Accept solo pide Arrow, en vez de terminar en 406.
+     */
+    private static ResponseEntity<?> jsonError(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", message));
+    }
+
+    /**
+     * Si los lotes Arrow ya empezaron a salir la respuesta no se puede cambiar a
+     * un error JSON: se relanza la excepción y el contenedor corta la conexión,
+     * así el cliente ve un stream incompleto. Si todo sigue en el buffer, se
+     * descarta antes de escribir el error.
+     */
+    private static void discardArrowOrRethrow(HttpServletResponse response, Exception e) throws IOException {
+        if (response.isCommitted()) {
+            if (e instanceof IOException io) throw io;
+            if (e instanceof RuntimeException runtime) throw runtime;
+            throw new IOException(e);
         }
+        response.resetBuffer();
     }
 
     @DeleteMapping(value = "/{reportId}", produces = "application/json;charset=UTF-8")
@@ -84,6 +173,23 @@ public class ReportController {
         }
     }
 
+    /**
+     * Cambios de los reportes visibles para el usuario como Server-Sent Events
+     * (evento "report" con un ReportDelta), para actualizar la vista sin recargar.
+     */
+    @GetMapping(value = "/live/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> liveUpdates(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok()
+                    // Nginx no debe acumular el stream en su buffer
+                    .header("X-Accel-Buffering", "no")
+                    .body(liveUpdateHub.subscribe(userId));
+        } catch (IllegalStateException e) {
+            log.warn("Suscripción en vivo rechazada para usuario {}: {}", userId, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
     @GetMapping(value = "/analysis/{userId}", produces = "application/json;charset=UTF-8")
     public ResponseEntity<?> getColumnAnalysis(
             @PathVariable Long userId, 
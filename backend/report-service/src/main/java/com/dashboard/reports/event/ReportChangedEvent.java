@@ -0,0 +1,31 @@
+package com.dashboard.reports.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Evento publicado en Redis cada vez que un servicio escribe en csv_reports.
+ * wasPublic es la visibilidad anterior: si el reporte era o es público, el
+ * cambio afecta los listados de todos los usuarios, no solo los del dueño.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ReportChangedEvent(
+        String type,        // CREATED, UPDATED, APPENDED, DELETED
+        String reportId,
+        Long userId,
+        String category,
+        Boolean isPublic,
+        Boolean wasPublic,
+        String source,
+        long timestamp) {
+
+    public static ReportChangedEvent deleted(String reportId, Long userId, String category, Boolean isPublic, String source) {
+        return new ReportChangedEvent("DELETED", reportId, userId, category, isPublic, isPublic, source, System.currentTimeMillis());
+    }
+
+    /**
+     * true salvo que se sepa que el reporte no era ni es público
+     */
+    public boolean affectsOtherUsers() {
+        return !Boolean.FALSE.equals(isPublic) || !Boolean.FALSE.equals(wasPublic);
+    }
+}
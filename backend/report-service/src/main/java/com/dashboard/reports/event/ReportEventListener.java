@@ -0,0 +1,38 @@
+package com.dashboard.reports.event;
+
+import com.dashboard.reports.cache.ReportCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Recibe los eventos de cambios de upload-service, data-service y las demás
+ * réplicas de report-service, y quita de la caché solo lo afectado.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReportEventListener implements MessageListener {
+
+    private final ReportCache reportCache;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            ReportChangedEvent event = objectMapper.readValue(body, ReportChangedEvent.class);
+            log.debug("Evento {} del reporte {} (origen {})", event.type(), event.reportId(), event.source());
+            reportCache.evict(event);
+        } catch (Exception e) {
+            // Evento ilegible: no se sabe qué invalidar, se vacía todo
+            log.warn("Evento de reporte inválido, se limpia la caché: {}", e.getMessage());
+            reportCache.clear();
+        }
+    }
+}
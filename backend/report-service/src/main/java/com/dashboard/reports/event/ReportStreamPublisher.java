@@ -0,0 +1,66 @@
+package com.dashboard.reports.event;
+
+import com.dashboard.reports.readmodel.ReadModelProjector;
+import com.dashboard.reports.readmodel.ReportSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Agrega los borrados hechos por este servicio al stream de reportes, donde
+ * upload-service agrega los ReportIngested.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReportStreamPublisher {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${reports.events.stream:reports:events}")
+    private String streamKey;
+
+    @Value("${reports.events.max-length:10000}")
+    private long maxLength;
+
+    /**
+     * Agrega el ReportDeleted y devuelve su id en el stream, o null si Redis no
+     * respondió
+     */
+    public String deleted(String reportId, Long userId) {
+        try {
+            Map<String, String> fields = Map.of(
+                    "type", ReadModelProjector.REPORT_DELETED,
+                    "reportId", reportId,
+                    "payload", objectMapper.writeValueAsString(ReportSummary.deleted(reportId, userId)),
+                    "source", "report-service");
+            RecordId id = add(fields);
+            return id != null ? id.getValue() : null;
+        } catch (Exception e) {
+            log.warn("No se pudo agregar {} del reporte {} al stream: {}",
+                    ReadModelProjector.REPORT_DELETED, reportId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * XADD con MAXLEN ~: Redis recorta el stream a unos maxLength eventos,
+     * por nodos completos, sin costo extra en cada escritura
+     */
+    private RecordId add(Map<String, String> fields) {
+        return redisTemplate.execute((RedisCallback<RecordId>) connection -> ((StringRedisConnection) connection).xAdd(
+                StreamRecords.string(fields).withStreamKey(streamKey),
+                XAddOptions.maxlen(maxLength).approximateTrimming(true)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.dashboard.reports.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Búsqueda en una de las cachés de ReportCache. En un fallo la duración
+ * incluye la carga desde Mongo y el cálculo.
+ */
+@Name("com.dashboard.reports.CacheLookup")
+@Label("Búsqueda en caché")
+@Category({"Dashboard", "Reports"})
+@Description("Acierto o fallo en la caché local de report-service")
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Caché")
+    String cache;
+
+    @Label("Clave")
+    String key;
+
+    @Label("Acierto")
+    boolean hit;
+
+    public static CacheLookupEvent start(String cache, Object key) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        if (event.isEnabled()) {
+            event.cache = cache;
+            event.key = String.valueOf(key);
+            event.begin();
+        }
+        return event;
+    }
+
+    public void hit(boolean hit) {
+        this.hit = hit;
+    }
+}
@@ -0,0 +1,47 @@
+package com.dashboard.reports.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Una consulta del dashboard en ReportService, de principio a fin: caché,
+ * Mongo y cálculo. Los CacheLookupEvent del mismo hilo caen dentro de su rango.
+ */
+@Name("com.dashboard.reports.ReportQuery")
+@Label("Consulta de reportes")
+@Category({"Dashboard", "Reports"})
+@Description("Consulta de reportes, estadísticas o análisis de un usuario")
+@StackTrace(false)
+public class ReportQueryEvent extends Event {
+
+    @Label("Operación")
+    String operation;
+
+    @Label("Usuario")
+    long userId;
+
+    @Label("Reporte")
+    String reportId;
+
+    @Label("Columna")
+    String column;
+
+    /**
+     * Crea el evento y empieza a medir; se cierra con commit()
+     */
+    public static ReportQueryEvent start(String operation, Long userId, String reportId, String column) {
+        ReportQueryEvent event = new ReportQueryEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.userId = userId != null ? userId : -1;
+            event.reportId = reportId;
+            event.column = column;
+            event.begin();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,174 @@
+package com.dashboard.reports.live;
+
+import com.dashboard.reports.model.CsvReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Navegadores suscritos a los cambios de reportes por SSE. Cada cambio se
+ * envía solo a quien puede ver el reporte: al dueño siempre y a los demás si
+ * el reporte es público.
+ *
+ * Los eventos no se escriben en el hilo que los publica (change stream,
+ * heartbeat): van a una cola acotada por suscriptor que vacían los hilos de
+ * liveUpdatesSender. Un cliente que no lee no frena al resto; si su cola se
+ * llena se cierra la conexión y al reconectar vuelve a cargar la vista.
+ */
+@Component
+@Slf4j
+public class LiveUpdateHub {
+
+    private static final String EVENT_NAME = "report";
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService liveUpdatesSender;
+    private final int maxSubscribers;
+    private final int queueSize;
+    private final Duration timeout;
+    private final Duration reconnectDelay;
+
+    public LiveUpdateHub(
+            ScheduledExecutorService liveUpdatesScheduler,
+            ExecutorService liveUpdatesSender,
+            @Value("${reports.live.max-subscribers:500}") int maxSubscribers,
+            @Value("${reports.live.queue-size:64}") int queueSize,
+            @Value("${reports.live.timeout:30m}") Duration timeout,
+            @Value("${reports.live.heartbeat:25s}") Duration heartbeat,
+            @Value("${reports.live.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.liveUpdatesSender = liveUpdatesSender;
+        this.maxSubscribers = maxSubscribers;
+        this.queueSize = queueSize;
+        this.timeout = timeout;
+        this.reconnectDelay = reconnectDelay;
+        // Comentario periódico: mantiene viva la conexión en proxies y detecta clientes que se fueron
+        liveUpdatesScheduler.scheduleAtFixedRate(this::heartbeat,
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @throws IllegalStateException si ya se alcanzó el máximo de suscriptores
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Demasiadas conexiones de actualizaciones en vivo");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(queueSize),
+                new AtomicBoolean(), new AtomicBoolean());
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.put(emitter, subscriber);
+
+        enqueue(subscriber, SseEmitter.event().name("ready").reconnectTime(reconnectDelay.toMillis()).data("{}"));
+        log.debug("Suscripción en vivo del usuario {} ({} activas)", userId, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Envía el cambio de un reporte. report es null si se borró; operation es
+     * CREATED o UPDATED en otro caso. visibilityChanged indica que el cambio
+     * tocó isPublic: si el reporte quedó privado, los demás lo quitan.
+     */
+    public void publish(String operation, String reportId, CsvReport report, boolean visibilityChanged) {
+        if (subscribers.isEmpty()) return;
+
+        ReportDelta visible = report != null ? ReportDelta.of(operation, report) : ReportDelta.deleted(reportId);
+        // Solo un reporte que pasó a privado pudo estar en la vista de otros usuarios
+        ReportDelta hidden = report != null && visibilityChanged && "UPDATED".equals(operation)
+                ? ReportDelta.deleted(reportId) : null;
+
+        subscribers.values().forEach(subscriber -> {
+            boolean canSee = report == null || report.isPublic() || subscriber.userId().equals(report.getUserId());
+            ReportDelta delta = canSee ? visible : hidden;
+            if (delta != null) {
+                enqueue(subscriber, SseEmitter.event().name(EVENT_NAME).data(delta, MediaType.APPLICATION_JSON));
+            }
+        });
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(subscriber -> enqueue(subscriber, SseEmitter.event().comment("ping")));
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue().offer(event)) {
+            log.debug("Suscriptor en vivo del usuario {} no lee al ritmo de los cambios, se cierra", subscriber.userId());
+            subscribers.remove(subscriber.emitter());
+            subscriber.closed().set(true);
+        }
+        scheduleDrain(subscriber);
+    }
+
+    /**
+     * Un solo envío en curso por suscriptor, así los eventos salen en orden
+     */
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining().compareAndSet(false, true)) return;
+        try {
+            liveUpdatesSender.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Apagando el servicio
+            subscriber.draining().set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        SseEmitter.SseEventBuilder event;
+        while ((event = subscriber.queue().poll()) != null) {
+            if (subscriber.closed().get()) {
+                subscriber.queue().clear();
+                subscriber.emitter().complete();
+                break;
+            }
+            if (!send(subscriber.emitter(), event)) {
+                subscriber.queue().clear();
+                break;
+            }
+        }
+        subscriber.draining().set(false);
+        // Lo encolado entre el último poll y el set(false) no debe quedar esperando al próximo evento
+        if (!subscriber.queue().isEmpty() && subscribers.containsKey(subscriber.emitter())) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * closed: la cola se desbordó. Lo cierra el hilo que la vacía: el envío en
+     * curso tiene tomado el lock del emitter y complete() esperaría por él.
+     */
+    private record Subscriber(Long userId, SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue,
+                              AtomicBoolean draining, AtomicBoolean closed) {
+    }
+}
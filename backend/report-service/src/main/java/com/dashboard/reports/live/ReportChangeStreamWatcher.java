@@ -0,0 +1,164 @@
+package com.dashboard.reports.live;
+
+import com.dashboard.reports.model.CsvReport;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Field;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sigue csv_reports con un change stream y pasa cada cambio a LiveUpdateHub.
+ * Las filas y la metadata se quitan en el servidor (etapa $project), así cada
+ * evento pesa unos cientos de bytes aunque el reporte tenga 1000 filas. De
+ * updateDescription solo se conserva si cambió isPublic.
+ *
+ * Los change streams requieren replica set (en docker-compose es de un nodo).
+ * Si se corta la conexión se reanuda desde el último token; si Mongo no tiene
+ * replica set se reintenta cada retry-delay sin afectar al resto del servicio.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReportChangeStreamWatcher {
+
+    // ChangeStreamHistoryLost / ChangeStreamFatalError: el token ya no sirve
+    private static final List<Integer> RESUME_FAILED_CODES = List.of(280, 286);
+    // Campo agregado al evento: el nuevo isPublic, solo si el update lo cambió
+    private static final String VISIBILITY_FIELD = "isPublicUpdated";
+
+    private final MongoTemplate mongoTemplate;
+    private final LiveUpdateHub liveUpdateHub;
+    private final ExecutorService changeStreamExecutor;
+
+    @Value("${reports.live.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reports.live.retry-delay:10s}")
+    private Duration retryDelay;
+
+    private volatile boolean running;
+    private volatile BsonDocument resumeToken;
+    private String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Actualizaciones en vivo desactivadas");
+            return;
+        }
+        running = true;
+        changeStreamExecutor.submit(this::watch);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    private void watch() {
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                log.info("Change stream de csv_reports abierto");
+                lastError = null;
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        dispatch(change);
+                    }
+                    // Sin cambios el cursor igual avanza su token (post-batch resume token)
+                    if (cursor.getResumeToken() != null) {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) break;
+                if (e instanceof MongoCommandException command && RESUME_FAILED_CODES.contains(command.getErrorCode())) {
+                    log.warn("No se pudo reanudar el change stream, se sigue desde ahora: {}", e.getMessage());
+                    resumeToken = null;
+                }
+                // Mientras Mongo no responde o no es replica set el error se repite: se registra una vez
+                if (!String.valueOf(e.getMessage()).equals(lastError)) {
+                    log.warn("Change stream de csv_reports interrumpido, reintento en {}: {}", retryDelay, e.getMessage());
+                }
+                lastError = String.valueOf(e.getMessage());
+                sleep(retryDelay);
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        List<Bson> pipeline = List.of(
+                Aggregates.match(Filters.in("operationType", "insert", "update", "replace", "delete")),
+                Aggregates.addFields(new Field<>(VISIBILITY_FIELD, "$updateDescription.updatedFields.isPublic")),
+                Aggregates.project(Projections.exclude("fullDocument.rows", "fullDocument.metadata", "updateDescription")));
+        var stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(CsvReport.class))
+                .watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    private void dispatch(ChangeStreamDocument<Document> change) {
+        String reportId = idOf(change.getDocumentKey());
+        if (reportId == null) return;
+
+        // En un update el documento se lee después del cambio: si ya se borró llega null
+        Document fullDocument = change.getFullDocument();
+        CsvReport report = fullDocument != null ? mongoTemplate.getConverter().read(CsvReport.class, fullDocument) : null;
+        String operation = switch (change.getOperationType()) {
+            case INSERT -> "CREATED";
+            case DELETE -> "DELETED";
+            default -> "UPDATED";
+        };
+        // Un replace (p. ej. el duplicado que cambia de visibilidad al subirse) no trae qué cambió
+        boolean visibilityChanged = switch (change.getOperationType()) {
+            case UPDATE -> change.getExtraElements() != null && change.getExtraElements().containsKey(VISIBILITY_FIELD);
+            case REPLACE -> true;
+            default -> false;
+        };
+        try {
+            liveUpdateHub.publish(operation, reportId, report, visibilityChanged);
+        } catch (Exception e) {
+            log.warn("Error enviando el cambio del reporte {}: {}", reportId, e.getMessage());
+        }
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) return null;
+        if (id.isObjectId()) return id.asObjectId().getValue().toHexString();
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
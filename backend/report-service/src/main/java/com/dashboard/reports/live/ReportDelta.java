@@ -0,0 +1,32 @@
+package com.dashboard.reports.live;
+
+import com.dashboard.reports.model.CsvReport;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de un reporte enviado por SSE, con los mismos datos que un período de
+ * /categories para que el cliente lo agregue o lo quite sin volver a pedir la
+ * lista. DELETED significa que el reporte ya no es visible para el usuario
+ * (se borró o dejó de ser público) y solo trae reportId.
+ */
+public record ReportDelta(
+        String type,        // CREATED, UPDATED, DELETED
+        String reportId,
+        Long userId,
+        String category,
+        String period,
+        String fileName,
+        Integer rowCount,
+        Boolean isPublic,
+        LocalDateTime uploadedAt) {
+
+    public static ReportDelta of(String type, CsvReport report) {
+        return new ReportDelta(type, report.getId(), report.getUserId(), report.getCategory(), report.getPeriod(),
+                report.getOriginalFileName(), report.getRowCount(), report.isPublic(), report.getUploadedAt());
+    }
+
+    public static ReportDelta deleted(String reportId) {
+        return new ReportDelta("DELETED", reportId, null, null, null, null, null, null, null);
+    }
+}
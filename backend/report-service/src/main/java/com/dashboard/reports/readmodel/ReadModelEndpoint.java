@@ -0,0 +1,75 @@
+package com.dashboard.reports.readmodel;
+
+import com.dashboard.reports.repository.CsvReportRepository;
+import com.dashboard.reports.repository.ReportCatalogRepository;
+import com.dashboard.reports.repository.UserReportStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * /actuator/readmodels (puerto de management): estado y reconstrucción de los
+ * modelos de lectura, p. ej. después de cambiar su esquema.
+ *
+ * POST {"source": "stream"} los vacía y reproduce el stream desde el inicio
+ * (solo quedan los reportes con eventos en el stream); {"source": "reports"} los vuelve a cargar desde csv_reports (recupera
+ * eventos que no llegaron al stream porque Redis estaba caído).
+ */
+@Component
+@Endpoint(id = "readmodels")
+@Slf4j
+@RequiredArgsConstructor
+public class ReadModelEndpoint {
+
+    private final ReadModelProjector projector;
+    private final ReportStreamConsumer streamConsumer;
+    private final ReportCatalogRepository catalogRepository;
+    private final UserReportStatsRepository statsRepository;
+    private final CsvReportRepository csvReportRepository;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("catalogEntries", catalogRepository.count());
+        status.put("userStats", statsRepository.count());
+        try {
+            status.putAll(streamConsumer.streamInfo());
+        } catch (Exception e) {
+            status.put("streamError", e.getMessage());
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Nullable String source) {
+        String from = source != null ? source : "stream";
+        long start = System.currentTimeMillis();
+        long applied;
+        switch (from) {
+            case "stream" -> {
+                projector.clear();
+                applied = streamConsumer.replay();
+            }
+            case "reports" -> {
+                projector.clear();
+                applied = projector.seed(csvReportRepository.findAllWithoutRows());
+            }
+            default -> throw new IllegalArgumentException("Origen no soportado: " + from + " (stream o reports)");
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Modelos de lectura reconstruidos desde {}: {} registros en {} ms", from, applied, elapsed);
+
+        Map<String, Object> result = status();
+        result.put("source", from);
+        result.put("applied", applied);
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+package com.dashboard.reports.readmodel;
+
+import com.dashboard.reports.model.CsvReport;
+import com.dashboard.reports.repository.ReportCatalogRepository;
+import com.dashboard.reports.repository.UserReportStatsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Aplica los eventos del stream de reportes a los modelos de lectura
+ * (report_catalog y user_report_stats).
+ *
+ * Los eventos traen el estado completo del reporte, así que aplicarlos es
+ * idempotente; además se ignora un evento anterior al último aplicado a la
+ * entrada, por si dos réplicas procesan eventos del mismo reporte a la vez o
+ * se reproduce el stream sobre un catálogo ya cargado.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReadModelProjector {
+
+    public static final String REPORT_INGESTED = "ReportIngested";
+    public static final String REPORT_DELETED = "ReportDeleted";
+
+    private final ReportCatalogRepository catalogRepository;
+    private final UserReportStatsRepository statsRepository;
+    private final ObjectMapper objectMapper;
+
+    public void apply(String eventId, Map<String, String> fields) throws IOException {
+        String type = fields.get("type");
+        if (!REPORT_INGESTED.equals(type) && !REPORT_DELETED.equals(type)) {
+            log.debug("Evento {} ignorado: tipo desconocido {}", eventId, type);
+            return;
+        }
+        ReportSummary summary = objectMapper.readValue(fields.get("payload"), ReportSummary.class);
+        if (summary.schemaVersion() > ReportSummary.SCHEMA_VERSION) {
+            log.warn("Evento {} ignorado: versión de esquema {} no soportada", eventId, summary.schemaVersion());
+            return;
+        }
+
+        ReportCatalogEntry existing = catalogRepository.findById(summary.reportId()).orElse(null);
+        if (existing != null && existing.getLastEventId() != null && !isAfter(eventId, existing.getLastEventId())) {
+            log.debug("Evento {} ignorado: el reporte {} ya tiene el evento {}",
+                    eventId, summary.reportId(), existing.getLastEventId());
+            return;
+        }
+
+        Set<Long> owners = new HashSet<>();
+        if (existing != null && existing.getUserId() != null) owners.add(existing.getUserId());
+
+        ReportCatalogEntry entry;
+        if (REPORT_INGESTED.equals(type)) {
+            entry = ReportCatalogEntry.of(summary, eventId);
+        } else {
+            entry = existing != null ? existing : ReportCatalogEntry.of(summary, eventId);
+            entry.setDeleted(true);
+            entry.setLastEventId(eventId);
+        }
+        if (entry.getUserId() != null) owners.add(entry.getUserId());
+
+        catalogRepository.save(entry);
+        owners.forEach(this::refreshStats);
+        log.debug("Evento {} {} aplicado al reporte {}", eventId, type, summary.reportId());
+    }
+
+    /**
+     * Marca el reporte como borrado sin esperar a su evento, para que quien lo
+     * borró no lo siga viendo en el catálogo. Guarda el id del ReportDeleted
+     * como último evento aplicado, así un ReportIngested anterior que llegue
+     * tarde no revive la entrada, y el ReportDeleted mismo no cambia nada.
+     * Sin eventId (Redis no respondió) solo se marca.
+     */
+    public void markDeleted(String reportId, String eventId) {
+        catalogRepository.findById(reportId).ifPresent(entry -> {
+            if (eventId != null && entry.getLastEventId() != null && !isAfter(eventId, entry.getLastEventId())) {
+                log.debug("Borrado {} ignorado: el reporte {} ya tiene el evento {}",
+                        eventId, reportId, entry.getLastEventId());
+                return;
+            }
+            entry.setDeleted(true);
+            if (eventId != null) entry.setLastEventId(eventId);
+            catalogRepository.save(entry);
+            if (entry.getUserId() != null) refreshStats(entry.getUserId());
+        });
+    }
+
+    /**
+     * Carga el catálogo desde csv_reports (sin filas) y recalcula las
+     * estadísticas de todos los dueños
+     */
+    public int seed(List<CsvReport> reports) {
+        List<ReportCatalogEntry> entries = reports.stream().map(ReportCatalogEntry::of).toList();
+        catalogRepository.saveAll(entries);
+        entries.stream()
+                .map(ReportCatalogEntry::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(this::refreshStats);
+        return entries.size();
+    }
+
+    public void clear() {
+        catalogRepository.deleteAll();
+        statsRepository.deleteAll();
+    }
+
+    private void refreshStats(Long userId) {
+        List<ReportCatalogEntry> entries = catalogRepository.findByUserIdAndDeletedFalse(userId);
+        if (entries.isEmpty()) {
+            statsRepository.deleteById(userId);
+        } else {
+            statsRepository.save(UserReportStats.of(userId, entries));
+        }
+    }
+
+    private static boolean isAfter(String eventId, String otherId) {
+        RecordId event = RecordId.of(eventId);
+        RecordId other = RecordId.of(otherId);
+        return event.getTimestamp() > other.getTimestamp()
+                || (event.getTimestamp().equals(other.getTimestamp()) && event.getSequence() > other.getSequence());
+    }
+}
@@ -0,0 +1,98 @@
+package com.dashboard.reports.readmodel;
+
+import com.dashboard.reports.model.CsvReport;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un reporte en el catálogo (modelo de lectura): los datos del reporte sin sus
+ * filas. Los borrados quedan como lápida (deleted=true) para que un evento
+ * viejo que llegue tarde no vuelva a crear el reporte.
+ *
+ * lastEventId es el id del último evento del stream aplicado; null si la
+ * entrada se cargó directamente de csv_reports.
+ */
+@Document(collection = "report_catalog")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_deleted", def = "{ 'userId': 1, 'deleted': 1 }"),
+        @CompoundIndex(name = "public_deleted", def = "{ 'isPublic': 1, 'deleted': 1 }")
+})
+@Data
+@NoArgsConstructor
+public class ReportCatalogEntry {
+
+    @Id
+    private String id;
+
+    private Long userId;
+
+    private String category;
+
+    private String period;
+
+    private String originalFileName;
+
+    private Long fileSize;
+
+    private Integer rowCount;
+
+    private List<String> columns;
+
+    private List<String> dateColumns;
+
+    private boolean isPublic;
+
+    private String status;
+
+    private LocalDateTime uploadedAt;
+
+    private boolean deleted;
+
+    private String lastEventId;
+
+    public static ReportCatalogEntry of(ReportSummary summary, String eventId) {
+        ReportCatalogEntry entry = new ReportCatalogEntry();
+        entry.setId(summary.reportId());
+        entry.setUserId(summary.userId());
+        entry.setCategory(summary.category());
+        entry.setPeriod(summary.period());
+        entry.setOriginalFileName(summary.originalFileName());
+        entry.setFileSize(summary.fileSize());
+        entry.setRowCount(summary.rowCount());
+        entry.setColumns(summary.columns());
+        entry.setDateColumns(summary.dateColumns());
+        entry.setPublic(Boolean.TRUE.equals(summary.isPublic()));
+        entry.setStatus(summary.status());
+        entry.setUploadedAt(summary.uploadedAt());
+        entry.setLastEventId(eventId);
+        return entry;
+    }
+
+    public static ReportCatalogEntry of(CsvReport report) {
+        ReportCatalogEntry entry = new ReportCatalogEntry();
+        entry.setId(report.getId());
+        entry.setUserId(report.getUserId());
+        entry.setCategory(report.getCategory());
+        entry.setPeriod(report.getPeriod());
+        entry.setOriginalFileName(report.getOriginalFileName());
+        entry.setFileSize(report.getFileSize());
+        entry.setRowCount(report.getRowCount());
+        entry.setColumns(report.getHeaders() != null ? new ArrayList<>(report.getHeaders()) : List.of());
+        entry.setDateColumns(report.getMetadata() != null && report.getMetadata().get("dateColumns") instanceof Map<?, ?> dates
+                ? dates.keySet().stream().map(String::valueOf).toList()
+                : List.of());
+        entry.setPublic(report.isPublic());
+        entry.setStatus(report.getStatus());
+        entry.setUploadedAt(report.getUploadedAt());
+        return entry;
+    }
+}
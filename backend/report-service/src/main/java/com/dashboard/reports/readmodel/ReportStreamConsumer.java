@@ -0,0 +1,260 @@
+package com.dashboard.reports.readmodel;
+
+import com.dashboard.reports.repository.CsvReportRepository;
+import com.dashboard.reports.repository.ReportCatalogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Consume el stream de reportes con un grupo de consumidores: cada evento lo
+ * procesa una sola réplica de report-service, que lo confirma (XACK) después
+ * de aplicarlo a los modelos de lectura. Un evento no confirmado queda
+ * pendiente y se vuelve a procesar al reiniciar la réplica.
+ *
+ * Cada réplica consume con su propio nombre: el de su host, o
+ * reports.read-models.consumer si se fija uno para que los pendientes
+ * sobrevivan a un redespliegue. Dos réplicas con el mismo nombre se
+ * repartirían los pendientes de una sola. Al arrancar también se reclaman
+ * (XCLAIM) los pendientes de otros consumidores que llevan más de
+ * reports.read-models.claim-idle sin confirmarse, p. ej. los de una réplica
+ * que ya no existe.
+ *
+ * El grupo se crea desde el inicio del stream, y al arrancar con el catálogo
+ * vacío se carga desde csv_reports, así los reportes anteriores al stream
+ * también quedan en los modelos de lectura.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReportStreamConsumer {
+
+    private final StreamMessageListenerContainer<String, MapRecord<String, String, String>> reportStreamContainer;
+    private final StringRedisTemplate redisTemplate;
+    private final ReadModelProjector projector;
+    private final ReportCatalogRepository catalogRepository;
+    private final CsvReportRepository csvReportRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${reports.events.stream:reports:events}")
+    private String streamKey;
+
+    @Value("${reports.read-models.group:report-service}")
+    private String group;
+
+    @Value("${reports.read-models.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reports.read-models.replay-page-size:500}")
+    private int pageSize;
+
+    // Vacío: el nombre del host (en Docker, el id del contenedor)
+    @Value("${reports.read-models.consumer:}")
+    private String consumerName;
+
+    @Value("${reports.read-models.claim-idle:5m}")
+    private Duration claimIdle;
+
+    private volatile String lastError;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Modelos de lectura desactivados");
+            return;
+        }
+        try {
+            // Índices del catálogo aquí y no con auto-index-creation, que exige Mongo al arrancar
+            IndexOperations indexOps = mongoTemplate.indexOps(ReportCatalogEntry.class);
+            new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                    .resolveIndexFor(ReportCatalogEntry.class)
+                    .forEach(indexOps::ensureIndex);
+
+            if (catalogRepository.count() == 0) {
+                int loaded = projector.seed(csvReportRepository.findAllWithoutRows());
+                log.info("Catálogo de reportes cargado desde csv_reports: {} reportes", loaded);
+            }
+        } catch (Exception e) {
+            // Sin Mongo el servicio igual arranca; /stats usa csv_reports hasta que haya estadísticas
+            log.warn("No se pudo cargar el catálogo desde csv_reports (usar actuator readmodels): {}", e.getMessage());
+        }
+
+        Consumer consumer = Consumer.from(group, consumerName());
+        createGroup();
+        claimIdlePending(consumer);
+        replayPending(consumer);
+
+        reportStreamContainer.register(
+                StreamReadRequest.builder(StreamOffset.create(streamKey, ReadOffset.lastConsumed()))
+                        .consumer(consumer)
+                        .autoAcknowledge(false)
+                        .cancelOnError(e -> false)
+                        .errorHandler(this::onError)
+                        .build(),
+                this::onMessage);
+        log.info("Consumiendo el stream {} como {}/{}", streamKey, group, consumer.getName());
+    }
+
+    private String consumerName() {
+        if (!consumerName.isBlank()) {
+            return consumerName;
+        }
+        String hostname = System.getenv("HOSTNAME");
+        if (hostname != null && !hostname.isBlank()) {
+            return hostname;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            // Sin nombre de host: uno único por arranque, los pendientes los reclama otra réplica
+            return "report-service-" + UUID.randomUUID();
+        }
+    }
+
+    private void onMessage(MapRecord<String, String, String> record) {
+        try {
+            projector.apply(record.getId().getValue(), record.getValue());
+            redisTemplate.opsForStream().acknowledge(group, record);
+        } catch (Exception e) {
+            // Sin XACK: el evento queda pendiente y se reintenta al reiniciar
+            log.error("Error aplicando el evento {} del stream: {}", record.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void onError(Throwable e) {
+        String message = String.valueOf(e.getMessage());
+        if (message.contains("NOGROUP")) {
+            // El stream o el grupo se borraron (p. ej. Redis sin persistencia reiniciado)
+            createGroup();
+        }
+        // Mientras Redis no responde el error se repite en cada lectura: se registra una vez
+        if (!message.equals(lastError)) {
+            log.warn("Error leyendo el stream {}: {}", streamKey, message);
+        }
+        lastError = message;
+    }
+
+    private void createGroup() {
+        try {
+            // MKSTREAM: el grupo se puede crear antes del primer evento
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(streamKey.getBytes(StandardCharsets.UTF_8), group, ReadOffset.from("0"), true));
+            log.info("Grupo {} creado en el stream {}", group, streamKey);
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (!String.valueOf(cause.getMessage()).contains("BUSYGROUP")) {
+                log.warn("No se pudo crear el grupo {} en el stream {}: {}", group, streamKey, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Pasa a este consumidor los pendientes de otros que llevan más de
+     * claimIdle sin confirmar; replayPending los procesa después
+     */
+    private void claimIdlePending(Consumer consumer) {
+        try {
+            long claimed = 0;
+            Range<String> range = Range.unbounded();
+            while (true) {
+                PendingMessages page = redisTemplate.opsForStream().pending(streamKey, group, range, pageSize);
+                if (page == null || page.isEmpty()) break;
+                RecordId[] idle = page.stream()
+                        .filter(message -> !consumer.getName().equals(message.getConsumerName()))
+                        .filter(message -> message.getElapsedTimeSinceLastDelivery().compareTo(claimIdle) >= 0)
+                        .map(PendingMessage::getId)
+                        .toArray(RecordId[]::new);
+                if (idle.length > 0) {
+                    redisTemplate.opsForStream().claim(streamKey, group, consumer.getName(), claimIdle, idle);
+                    claimed += idle.length;
+                }
+                if (page.size() < pageSize) break;
+                range = Range.of(Range.Bound.exclusive(page.get(page.size() - 1).getIdAsString()), Range.Bound.unbounded());
+            }
+            if (claimed > 0) {
+                log.info("{} eventos pendientes de otros consumidores reclamados por {}", claimed, consumer.getName());
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron reclamar los eventos pendientes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Procesa los eventos que esta réplica leyó y no confirmó antes de reiniciarse
+     */
+    private void replayPending(Consumer consumer) {
+        try {
+            // Con un id en vez de ">" XREADGROUP devuelve los pendientes del consumidor posteriores al id
+            String offset = "0";
+            while (true) {
+                // Un solo stream: el arreglo genérico del varargs no se expone
+                @SuppressWarnings("unchecked")
+                List<MapRecord<String, String, String>> pending = redisTemplate.<String, String>opsForStream()
+                        .read(consumer, StreamReadOptions.empty().count(pageSize),
+                                StreamOffset.create(streamKey, ReadOffset.from(offset)));
+                if (pending == null || pending.isEmpty()) break;
+                pending.forEach(this::onMessage);
+                offset = pending.get(pending.size() - 1).getId().getValue();
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron reprocesar los eventos pendientes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve a aplicar todo el stream, en páginas, sobre los modelos de lectura
+     * (XRANGE, sin pasar por el grupo)
+     */
+    public long replay() {
+        long applied = 0;
+        Range<String> range = Range.unbounded();
+        while (true) {
+            List<MapRecord<String, String, String>> page = redisTemplate.<String, String>opsForStream()
+                    .range(streamKey, range, Limit.limit().count(pageSize));
+            if (page == null || page.isEmpty()) break;
+            for (MapRecord<String, String, String> record : page) {
+                try {
+                    projector.apply(record.getId().getValue(), record.getValue());
+                    applied++;
+                } catch (Exception e) {
+                    log.error("Error aplicando el evento {} al reproducir el stream: {}", record.getId(), e.getMessage());
+                }
+            }
+            if (page.size() < pageSize) break;
+            range = Range.of(Range.Bound.exclusive(page.get(page.size() - 1).getId().getValue()), Range.Bound.unbounded());
+        }
+        return applied;
+    }
+
+    public Map<String, Object> streamInfo() {
+        Long length = redisTemplate.opsForStream().size(streamKey);
+        PendingMessagesSummary pending = redisTemplate.opsForStream().pending(streamKey, group);
+        return Map.of(
+                "stream", streamKey,
+                "group", group,
+                "length", Objects.requireNonNullElse(length, 0L),
+                "pending", pending != null ? pending.getTotalPendingMessages() : 0L);
+    }
+}
@@ -0,0 +1,35 @@
+package com.dashboard.reports.readmodel;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resumen de un reporte que viaja en los eventos del stream (ver
+ * ReportStreamPublisher de upload-service). En ReportDeleted solo vienen
+ * reportId y userId.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ReportSummary(
+        int schemaVersion,
+        String reportId,
+        Long userId,
+        String category,
+        String period,
+        String originalFileName,
+        Long fileSize,
+        Integer rowCount,
+        List<String> columns,
+        List<String> dateColumns,
+        Boolean isPublic,
+        String status,
+        LocalDateTime uploadedAt) {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public static ReportSummary deleted(String reportId, Long userId) {
+        return new ReportSummary(SCHEMA_VERSION, reportId, userId, null, null, null, null, null,
+                null, null, null, null, null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.dashboard.reports.readmodel;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Estadísticas de los reportes de un usuario (modelo de lectura), ya calculadas
+ * para que /stats sea una lectura por id. Se recalculan con las entradas del
+ * catálogo del dueño en cada evento que lo afecta.
+ *
+ * Los conteos por categoría se guardan como lista: una categoría con "." no
+ * puede ser clave de un documento de Mongo.
+ */
+@Document(collection = "user_report_stats")
+@Data
+@NoArgsConstructor
+public class UserReportStats {
+
+    public record CategoryCount(String category, long reports) {}
+
+    private static final String NO_CATEGORY = "Sin categoría";
+
+    @Id
+    private Long userId;
+
+    private long totalReports;
+
+    private long publicReports;
+
+    private long totalCategories;
+
+    private long totalRows;
+
+    private List<CategoryCount> reportsByCategory = new ArrayList<>();
+
+    private List<String> availableColumns = new ArrayList<>();
+
+    private LocalDateTime updatedAt;
+
+    public static UserReportStats of(Long userId, List<ReportCatalogEntry> entries) {
+        Set<String> categories = new HashSet<>();
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        Set<String> columns = new TreeSet<>();
+
+        UserReportStats stats = new UserReportStats();
+        stats.setUserId(userId);
+        for (ReportCatalogEntry entry : entries) {
+            stats.totalReports++;
+            if (entry.isPublic()) stats.publicReports++;
+            if (entry.getCategory() != null) categories.add(entry.getCategory());
+            byCategory.merge(entry.getCategory() != null ? entry.getCategory() : NO_CATEGORY, 1L, Long::sum);
+            if (entry.getRowCount() != null) stats.totalRows += entry.getRowCount();
+            if (entry.getColumns() != null) columns.addAll(entry.getColumns());
+        }
+        stats.setTotalCategories(categories.size());
+        byCategory.forEach((category, count) -> stats.reportsByCategory.add(new CategoryCount(category, count)));
+        stats.setAvailableColumns(new ArrayList<>(columns));
+        stats.setUpdatedAt(LocalDateTime.now());
+        return stats;
+    }
+
+    /**
+     * Respuesta de /stats, con las mismas claves que el cálculo sobre csv_reports
+     */
+    public Map<String, Object> toResponse() {
+        Map<String, Long> byCategory = new LinkedHashMap<>();
+        reportsByCategory.forEach(count -> byCategory.put(count.category(), count.reports()));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalCategories", totalCategories);
+        response.put("totalReports", totalReports);
+        response.put("publicReports", publicReports);
+        response.put("privateReports", totalReports - publicReports);
+        response.put("reportsByCategory", byCategory);
+        response.put("totalRows", totalRows);
+        response.put("availableColumns", availableColumns);
+        return response;
+    }
+}
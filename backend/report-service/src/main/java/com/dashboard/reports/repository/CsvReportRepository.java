@@ -2,9 +2,11 @@ package com.dashboard.reports.repository;
 
 import com.dashboard.reports.model.CsvReport;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CsvReportRepository extends MongoRepository<CsvReport, String> {
@@ -12,4 +14,12 @@ public interface CsvReportRepository extends MongoRepository<CsvReport, String>
     List<CsvReport> findByStatus(String status);
     List<CsvReport> findByUserIdOrderByUploadedAtDesc(Long userId);
     List<CsvReport> findByIsPublicTrueOrUserId(Long userId);
+
+    // Carga el reporte sin las filas de muestra
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'rows': 0 }")
+    Optional<CsvReport> findWithoutRowsById(String id);
+
+    // Todos los reportes sin filas, para cargar los modelos de lectura
+    @Query(value = "{}", fields = "{ 'rows': 0 }")
+    List<CsvReport> findAllWithoutRows();
 }
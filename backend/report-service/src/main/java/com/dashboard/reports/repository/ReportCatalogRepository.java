@@ -0,0 +1,18 @@
+package com.dashboard.reports.repository;
+
+import com.dashboard.reports.readmodel.ReportCatalogEntry;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReportCatalogRepository extends MongoRepository<ReportCatalogEntry, String> {
+    List<ReportCatalogEntry> findByUserIdAndDeletedFalse(Long userId);
+
+    // Reportes que ve un usuario: los públicos y los propios
+    @Query("{ 'deleted': false, '$or': [ { 'isPublic': true }, { 'userId': ?0 } ] }")
+    List<ReportCatalogEntry> findVisible(Long userId, Sort sort);
+}
@@ -0,0 +1,9 @@
+package com.dashboard.reports.repository;
+
+import com.dashboard.reports.readmodel.UserReportStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserReportStatsRepository extends MongoRepository<UserReportStats, Long> {
+}
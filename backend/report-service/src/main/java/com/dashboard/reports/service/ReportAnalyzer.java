@@ -0,0 +1,292 @@
+package com.dashboard.reports.service;
+
+import com.dashboard.reports.model.CsvReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * Ejecuta los recorridos de análisis sobre los reportes de un usuario.
+ * Con muchos reportes reparte el trabajo en el pool de análisis: cada tarea
+ * construye sus propios conteos locales y al final se combinan.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReportAnalyzer {
+
+    private static final String NO_CATEGORY = "Sin categoría";
+    // Cada tarea recorre hasta miles de filas por reporte; con menos reportes
+    // por tarea el costo de fork/join y de combinar mapas supera al conteo
+    private static final int REPORTS_PER_TASK = 16;
+
+    private final ForkJoinPool analysisPool;
+
+    @Value("${reports.analysis.parallel.enabled:true}")
+    private boolean parallelEnabled;
+
+    @Value("${reports.analysis.parallel.min-reports:32}")
+    private int minReportsForParallel;
+
+    /**
+     * Cuenta las ocurrencias de cada valor de la columna hasta un máximo de
+     * maxValues valores no nulos, como el recorrido secuencial original: los
+     * reportes se toman en el orden recibido y el último solo hasta completar
+     * el cupo.
+     *
+     * Los reportes cuyas filas suman menos que el cupo restante no pueden
+     * pasarse aunque no tengan nulos: se cuentan enteros, en paralelo. El
+     * siguiente se cuenta solo, hasta lo que falte. Si los nulos dejaron cupo
+     * libre se repite con los reportes que quedan.
+     */
+    public ColumnCounts countColumnValues(List<CsvReport> reports, String columnName, int maxValues) {
+        List<CsvReport> withColumn = reports.stream()
+                .filter(report -> report.getRows() != null && report.getHeaders() != null)
+                .filter(report -> report.getHeaders().contains(columnName))
+                .toList();
+
+        ColumnCounts counts = new ColumnCounts();
+        int next = 0;
+        while (next < withColumn.size() && counts.counted < maxValues) {
+            long remaining = maxValues - counts.counted;
+            int end = next;
+            long rows = 0;
+            while (end < withColumn.size() && rows + withColumn.get(end).getRows().size() < remaining) {
+                rows += withColumn.get(end).getRows().size();
+                end++;
+            }
+            counts.merge(countWhole(withColumn, next, end, columnName));
+            next = end;
+
+            if (next < withColumn.size() && counts.counted < maxValues) {
+                counts.merge(countReport(withColumn.get(next), columnName, maxValues - counts.counted));
+                next++;
+            }
+        }
+        return counts;
+    }
+
+    private ColumnCounts countWhole(List<CsvReport> reports, int from, int to, String columnName) {
+        if (!useParallel(to - from)) {
+            return countReports(reports, from, to, columnName);
+        }
+        log.debug("Análisis paralelo de columna {} sobre {} reportes", columnName, to - from);
+        return analysisPool.invoke(new ColumnCountTask(reports, from, to, columnName));
+    }
+
+    /**
+     * Agrega los contadores generales (categorías, visibilidad, filas y columnas)
+     * de los reportes de un usuario.
+     */
+    public ReporterStats aggregateStats(List<CsvReport> reports) {
+        if (!useParallel(reports.size())) {
+            return statsOf(reports, 0, reports.size());
+        }
+        log.debug("Estadísticas en paralelo sobre {} reportes", reports.size());
+        return analysisPool.invoke(new StatsTask(reports, 0, reports.size()));
+    }
+
+    private boolean useParallel(int reportCount) {
+        return parallelEnabled && reportCount >= minReportsForParallel;
+    }
+
+    private static ColumnCounts countReports(List<CsvReport> reports, int from, int to, String columnName) {
+        ColumnCounts counts = new ColumnCounts();
+        for (int i = from; i < to; i++) {
+            counts.merge(countReport(reports.get(i), columnName, Long.MAX_VALUE));
+        }
+        return counts;
+    }
+
+    /**
+     * Cuenta los primeros maxValues valores no nulos de la columna en el reporte
+     */
+    private static ColumnCounts countReport(CsvReport report, String columnName, long maxValues) {
+        ColumnCounts counts = new ColumnCounts();
+        for (Map<String, Object> row : report.getRows()) {
+            if (counts.counted >= maxValues) break;
+            Object value = row.get(columnName);
+            if (value != null) {
+                counts.valueCounts.merge(value.toString(), 1L, Long::sum);
+                counts.counted++;
+            }
+        }
+        // Usar rowCount para el total real (no solo las muestras procesadas)
+        Integer rowCount = report.getRowCount();
+        counts.totalValues += rowCount != null ? rowCount : counts.counted;
+        return counts;
+    }
+
+    private static ReporterStats statsOf(List<CsvReport> reports, int from, int to) {
+        ReporterStats stats = new ReporterStats();
+        for (int i = from; i < to; i++) {
+            CsvReport report = reports.get(i);
+            stats.totalReports++;
+            if (report.isPublic()) stats.publicReports++;
+            if (report.getCategory() != null) stats.categories.add(report.getCategory());
+
+            String category = report.getCategory() != null ? report.getCategory() : NO_CATEGORY;
+            stats.reportsByCategory.merge(category, 1L, Long::sum);
+
+            if (report.getRowCount() != null) stats.totalRows += report.getRowCount();
+            if (report.getHeaders() != null) stats.columns.addAll(report.getHeaders());
+        }
+        return stats;
+    }
+
+    private static class ColumnCountTask extends RecursiveTask<ColumnCounts> {
+        private final List<CsvReport> reports;
+        private final int from;
+        private final int to;
+        private final String columnName;
+
+        ColumnCountTask(List<CsvReport> reports, int from, int to, String columnName) {
+            this.reports = reports;
+            this.from = from;
+            this.to = to;
+            this.columnName = columnName;
+        }
+
+        @Override
+        protected ColumnCounts compute() {
+            if (to - from <= REPORTS_PER_TASK) {
+                return countReports(reports, from, to, columnName);
+            }
+            int mid = (from + to) >>> 1;
+            ColumnCountTask left = new ColumnCountTask(reports, from, mid, columnName);
+            left.fork();
+            ColumnCounts right = new ColumnCountTask(reports, mid, to, columnName).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static class StatsTask extends RecursiveTask<ReporterStats> {
+        private final List<CsvReport> reports;
+        private final int from;
+        private final int to;
+
+        StatsTask(List<CsvReport> reports, int from, int to) {
+            this.reports = reports;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ReporterStats compute() {
+            if (to - from <= REPORTS_PER_TASK) {
+                return statsOf(reports, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            StatsTask left = new StatsTask(reports, from, mid);
+            left.fork();
+            ReporterStats right = new StatsTask(reports, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Conteo parcial de valores de una columna
+     */
+    public static class ColumnCounts {
+        private final Map<String, Long> valueCounts = new HashMap<>();
+        private long totalValues;
+        // Valores no nulos recorridos, para el cupo de countColumnValues
+        private long counted;
+
+        public Map<String, Long> getValueCounts() {
+            return valueCounts;
+        }
+
+        public long getTotalValues() {
+            return totalValues;
+        }
+
+        /**
+         * Resumen para el gráfico: los topN valores más comunes, para evitar
+         * gráficos sobrecargados, y los totales antes de limitar
+         */
+        public Map<String, Object> toAnalysis(String columnName, int topN) {
+            Map<String, Long> topValues = valueCounts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(topN)
+                    .collect(Collectors.toMap(
+                            Map.Entry::getKey,
+                            Map.Entry::getValue,
+                            (e1, e2) -> e1,
+                            LinkedHashMap::new
+                    ));
+
+            Map<String, Object> analysis = new HashMap<>();
+            analysis.put("columnName", columnName);
+            analysis.put("valueCounts", topValues);
+            analysis.put("totalValues", totalValues);
+            analysis.put("uniqueValues", topValues.size());
+            analysis.put("totalUniqueValues", valueCounts.size()); // Total antes de limitar a topN
+            analysis.put("isLimited", valueCounts.size() > topN);
+            return analysis;
+        }
+
+        ColumnCounts merge(ColumnCounts other) {
+            other.valueCounts.forEach((value, count) -> valueCounts.merge(value, count, Long::sum));
+            totalValues += other.totalValues;
+            counted += other.counted;
+            return this;
+        }
+    }
+
+    /**
+     * Contadores parciales de las estadísticas de un usuario
+     */
+    public static class ReporterStats {
+        private final Set<String> categories = new HashSet<>();
+        private final Map<String, Long> reportsByCategory = new HashMap<>();
+        private final Set<String> columns = new HashSet<>();
+        private long totalReports;
+        private long publicReports;
+        private long totalRows;
+
+        public long getTotalCategories() {
+            return categories.size();
+        }
+
+        public Map<String, Long> getReportsByCategory() {
+            return reportsByCategory;
+        }
+
+        public Set<String> getColumns() {
+            return columns;
+        }
+
+        public long getTotalReports() {
+            return totalReports;
+        }
+
+        public long getPublicReports() {
+            return publicReports;
+        }
+
+        public long getPrivateReports() {
+            return totalReports - publicReports;
+        }
+
+        public long getTotalRows() {
+            return totalRows;
+        }
+
+        ReporterStats merge(ReporterStats other) {
+            categories.addAll(other.categories);
+            other.reportsByCategory.forEach((category, count) -> reportsByCategory.merge(category, count, Long::sum));
+            columns.addAll(other.columns);
+            totalReports += other.totalReports;
+            publicReports += other.publicReports;
+            totalRows += other.totalRows;
+            return this;
+        }
+    }
+}
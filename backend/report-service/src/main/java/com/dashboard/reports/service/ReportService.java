@@ -1,12 +1,36 @@
 package com.dashboard.reports.service;
 
+import com.dashboard.reports.arrow.ArrowTableWriter;
+import com.dashboard.reports.cache.ReportCache;
+import com.dashboard.reports.event.ReportChangedEvent;
+import com.dashboard.reports.event.ReportEventPublisher;
+import com.dashboard.reports.event.ReportStreamPublisher;
+import com.dashboard.reports.jfr.ReportQueryEvent;
 import com.dashboard.reports.model.CsvReport;
+import com.dashboard.reports.readmodel.ReadModelProjector;
+import com.dashboard.reports.readmodel.ReportCatalogEntry;
+import com.dashboard.reports.readmodel.UserReportStats;
 import com.dashboard.reports.repository.CsvReportRepository;
+import com.dashboard.reports.repository.ReportCatalogRepository;
+import com.dashboard.reports.repository.UserReportStatsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -15,15 +39,56 @@ import java.util.stream.Collectors;
 public class ReportService {
 
     private final CsvReportRepository csvReportRepository;
+    private final ReportAnalyzer reportAnalyzer;
+    private final ArrowTableWriter arrowTableWriter;
+    private final ObjectMapper objectMapper;
+    private final ReportCache reportCache;
+    private final ReportEventPublisher reportEventPublisher;
+    private final ReportStreamPublisher reportStreamPublisher;
+    private final ReportCatalogRepository catalogRepository;
+    private final UserReportStatsRepository statsRepository;
+    private final ReadModelProjector readModelProjector;
+    private final MeterRegistry meterRegistry;
+
+    // Categorías y estadísticas salen de los modelos de lectura (ver ReportStreamConsumer)
+    @Value("${reports.read-models.enabled:true}")
+    private boolean readModelsEnabled;
+
+    // Zona usada para reportes cargados antes de guardar "dateZone" en la metadata
+    @Value("${reports.dates.zone:America/Bogota}")
+    private ZoneId defaultDateZone;
 
     public List<CsvReport> getUserReports(Long userId) {
-        return csvReportRepository.findByIsPublicTrueOrUserId(userId)
-                .stream()
-                .sorted(Comparator.comparing(CsvReport::getUploadedAt).reversed())
-                .toList();
+        return query(ReportQueryEvent.start("list", userId, null, null), () -> reportCache.visibleReports(userId,
+                () -> csvReportRepository.findByIsPublicTrueOrUserId(userId)
+                        .stream()
+                        .sorted(Comparator.comparing(CsvReport::getUploadedAt).reversed())
+                        .toList()));
     }
 
     public Map<String, List<Map<String, Object>>> getUserCategoriesWithPeriods(Long userId) {
+        return query(ReportQueryEvent.start("categories", userId, null, null), () -> readModelsEnabled
+                ? categoriesFromCatalog(userId)
+                : reportCache.categories(userId, () -> timed("categories", () -> loadUserCategoriesWithPeriods(userId))));
+    }
+
+    private Map<String, List<Map<String, Object>>> categoriesFromCatalog(Long userId) {
+        Map<String, List<Map<String, Object>>> categoriesMap = new LinkedHashMap<>();
+        for (ReportCatalogEntry entry : catalogRepository.findVisible(userId, Sort.by("uploadedAt"))) {
+            String category = entry.getCategory() != null ? entry.getCategory() : "Sin categoría";
+
+            Map<String, Object> periodInfo = new HashMap<>();
+            periodInfo.put("period", entry.getPeriod());
+            periodInfo.put("reportId", entry.getId());
+            periodInfo.put("fileName", entry.getOriginalFileName());
+            periodInfo.put("rowCount", entry.getRowCount());
+            periodInfo.put("uploadedAt", entry.getUploadedAt());
+            categoriesMap.computeIfAbsent(category, key -> new ArrayList<>()).add(periodInfo);
+        }
+        return categoriesMap;
+    }
+
+    private Map<String, List<Map<String, Object>>> loadUserCategoriesWithPeriods(Long userId) {
         List<CsvReport> reports = csvReportRepository.findByIsPublicTrueOrUserId(userId);
         
         Map<String, List<Map<String, Object>>> categoriesMap = new LinkedHashMap<>();
@@ -53,7 +118,12 @@ public class ReportService {
     }
 
     public Optional<CsvReport> getReportById(String id, Long requesterId) {
-        Optional<CsvReport> reportOpt = csvReportRepository.findById(id);
+        return query(ReportQueryEvent.start("report", requesterId, id, null), () -> visibleReport(id, requesterId));
+    }
+
+    private Optional<CsvReport> visibleReport(String id, Long requesterId) {
+        Optional<CsvReport> reportOpt = Optional.ofNullable(
+                reportCache.report(id, key -> csvReportRepository.findById(key).orElse(null)));
         if (reportOpt.isEmpty()) return Optional.empty();
 
         CsvReport report = reportOpt.get();
@@ -64,56 +134,197 @@ public class ReportService {
         return Optional.empty();
     }
 
+    /**
+     * Agrupa una columna de fecha (epoch en milisegundos) por día, semana o mes
+     */
+    public Optional<Map<String, Object>> getTimeline(String reportId, Long requesterId, String columnName, String bucket) {
+        return query(ReportQueryEvent.start("timeline", requesterId, reportId, columnName),
+                () -> timeline(reportId, requesterId, columnName, bucket));
+    }
+
+    private Optional<Map<String, Object>> timeline(String reportId, Long requesterId, String columnName, String bucket) {
+        Optional<CsvReport> reportOpt = getReportById(reportId, requesterId);
+        if (reportOpt.isEmpty()) return Optional.empty();
+
+        CsvReport report = reportOpt.get();
+        TimeBucket timeBucket = TimeBucket.parse(bucket);
+        if (!isDateColumn(report, columnName)) {
+            throw new IllegalArgumentException("La columna no es de fecha: " + columnName);
+        }
+        ZoneId zone = dateZoneOf(report);
+
+        // TreeMap para devolver los periodos en orden cronológico
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        long skipped = 0;
+        if (report.getRows() != null) {
+            for (Map<String, Object> row : report.getRows()) {
+                Object value = row.get(columnName);
+                // Solo los Long son fechas: el resto (texto, decimales) se cuenta como omitido
+                if (!(value instanceof Long epochMillis)) {
+                    if (value != null) skipped++;
+                    continue;
+                }
+                LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+                counts.merge(timeBucket.truncate(day), 1L, Long::sum);
+            }
+        }
+        sample.stop(analyticsTimer("timeline"));
+
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        counts.forEach((start, count) -> buckets.put(start.toString(), count));
+
+        Map<String, Object> timeline = new HashMap<>();
+        timeline.put("columnName", columnName);
+        timeline.put("bucket", timeBucket.name().toLowerCase(Locale.ROOT));
+        timeline.put("zone", zone.getId());
+        timeline.put("buckets", buckets);
+        timeline.put("skippedValues", skipped);
+        return Optional.of(timeline);
+    }
+
+    /**
+     * Escribe las filas del reporte como Arrow IPC stream. Los datos del reporte
+     * (id, archivo, categoría, metadata...) van en la metadata del esquema.
+     */
+    public void writeReportArrow(CsvReport report, OutputStream out) throws IOException {
+        List<Map<String, Object>> rows = report.getRows() != null ? report.getRows() : List.of();
+        List<String> columns = report.getHeaders();
+        if (columns == null) {
+            Set<String> keys = new LinkedHashSet<>();
+            rows.forEach(row -> keys.addAll(row.keySet()));
+            columns = new ArrayList<>(keys);
+        }
+
+        Map<String, String> schemaMetadata = new LinkedHashMap<>();
+        schemaMetadata.put("reportId", report.getId());
+        putIfNotNull(schemaMetadata, "fileName", report.getOriginalFileName());
+        putIfNotNull(schemaMetadata, "category", report.getCategory());
+        putIfNotNull(schemaMetadata, "period", report.getPeriod());
+        putIfNotNull(schemaMetadata, "rowCount", report.getRowCount());
+        putIfNotNull(schemaMetadata, "uploadedAt", report.getUploadedAt());
+        if (report.getMetadata() != null) {
+            schemaMetadata.put("metadata", objectMapper.writeValueAsString(report.getMetadata()));
+        }
+
+        arrowTableWriter.write(columns, rows, dateColumnsOf(report), dateZoneOf(report), schemaMetadata, out);
+    }
+
+    /**
+     * Escribe el resultado de getTimeline como tabla Arrow (bucket, count)
+     */
+    @SuppressWarnings("unchecked")
+    public void writeTimelineArrow(Map<String, Object> timeline, OutputStream out) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        ((Map<String, Long>) timeline.get("buckets")).forEach((bucket, count) -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("bucket", bucket);
+            row.put("count", count);
+            rows.add(row);
+        });
+
+        Map<String, String> schemaMetadata = new LinkedHashMap<>();
+        timeline.forEach((key, value) -> {
+            if (!"buckets".equals(key)) schemaMetadata.put(key, String.valueOf(value));
+        });
+        arrowTableWriter.write(List.of("bucket", "count"), rows, Set.of(),
+                ZoneId.of(timeline.get("zone").toString()), schemaMetadata, out);
+    }
+
+    private static void putIfNotNull(Map<String, String> target, String key, Object value) {
+        if (value != null) target.put(key, value.toString());
+    }
+
+    private boolean isDateColumn(CsvReport report, String columnName) {
+        return dateColumnsOf(report).contains(columnName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> dateColumnsOf(CsvReport report) {
+        Object dateColumns = report.getMetadata() != null ? report.getMetadata().get("dateColumns") : null;
+        return dateColumns instanceof Map ? ((Map<String, Object>) dateColumns).keySet() : Set.of();
+    }
+
+    private ZoneId dateZoneOf(CsvReport report) {
+        Object zone = report.getMetadata() != null ? report.getMetadata().get("dateZone") : null;
+        return zone != null ? ZoneId.of(zone.toString()) : defaultDateZone;
+    }
+
+    private enum TimeBucket {
+        DAY, WEEK, MONTH;
+
+        static TimeBucket parse(String bucket) {
+            for (TimeBucket value : values()) {
+                if (value.name().equalsIgnoreCase(bucket)) return value;
+            }
+            throw new IllegalArgumentException("Agrupación no soportada: " + bucket);
+        }
+
+        LocalDate truncate(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+            };
+        }
+    }
+
     public void deleteReport(String id) {
+        Optional<CsvReport> existing = csvReportRepository.findWithoutRowsById(id);
         csvReportRepository.deleteById(id);
+
+        // Sin el reporte no se conoce el dueño: el evento invalida todo lo compartido
+        ReportChangedEvent event = existing
+                .map(r -> ReportChangedEvent.deleted(id, r.getUserId(), r.getCategory(), r.isPublic(), "report-service"))
+                .orElseGet(() -> ReportChangedEvent.deleted(id, null, null, null, "report-service"));
+        reportCache.evict(event);
+        reportEventPublisher.publish(event);
+
+        String eventId = reportStreamPublisher.deleted(id, existing.map(CsvReport::getUserId).orElse(null));
+        if (readModelsEnabled) {
+            readModelProjector.markDeleted(id, eventId);
+        }
     }
 
     public Map<String, Object> getReporterStats(Long userId) {
+        return query(ReportQueryEvent.start("stats", userId, null, null), () -> reporterStats(userId));
+    }
+
+    private Map<String, Object> reporterStats(Long userId) {
+        if (readModelsEnabled) {
+            // Sin documento: el usuario no tiene reportes o el catálogo aún se está cargando
+            Optional<UserReportStats> stats = statsRepository.findById(userId);
+            if (stats.isPresent()) {
+                return stats.get().toResponse();
+            }
+        }
+        return reportCache.stats(userId, () -> timed("stats", () -> loadReporterStats(userId)));
+    }
+
+    private Map<String, Object> loadReporterStats(Long userId) {
         List<CsvReport> userReports = csvReportRepository.findByUserId(userId);
+        ReportAnalyzer.ReporterStats aggregated = reportAnalyzer.aggregateStats(userReports);
         
         Map<String, Object> stats = new HashMap<>();
         
         // Total de categorías
-        long totalCategories = userReports.stream()
-                .map(CsvReport::getCategory)
-                .filter(Objects::nonNull)
-                .distinct()
-                .count();
-        stats.put("totalCategories", totalCategories);
+        stats.put("totalCategories", aggregated.getTotalCategories());
         
         // Total de reportes
         stats.put("totalReports", userReports.size());
         
         // Reportes públicos vs privados
-        long publicReports = userReports.stream()
-                .filter(CsvReport::isPublic)
-                .count();
-        long privateReports = userReports.size() - publicReports;
-        stats.put("publicReports", publicReports);
-        stats.put("privateReports", privateReports);
+        stats.put("publicReports", aggregated.getPublicReports());
+        stats.put("privateReports", aggregated.getPrivateReports());
         
         // Reportes por categoría
-        Map<String, Long> reportsByCategory = new HashMap<>();
-        userReports.forEach(report -> {
-            String category = report.getCategory() != null ? report.getCategory() : "Sin categoría";
-            reportsByCategory.put(category, reportsByCategory.getOrDefault(category, 0L) + 1);
-        });
-        stats.put("reportsByCategory", reportsByCategory);
+        stats.put("reportsByCategory", aggregated.getReportsByCategory());
         
         // Total de filas procesadas
-        long totalRows = userReports.stream()
-                .mapToLong(CsvReport::getRowCount)
-                .sum();
-        stats.put("totalRows", totalRows);
+        stats.put("totalRows", aggregated.getTotalRows());
         
         // Obtener todas las columnas disponibles de todos los reportes
-        Set<String> allColumns = new HashSet<>();
-        userReports.forEach(report -> {
-            if (report.getHeaders() != null) {
-                allColumns.addAll(report.getHeaders());
-            }
-        });
-        stats.put("availableColumns", new ArrayList<>(allColumns));
+        stats.put("availableColumns", new ArrayList<>(aggregated.getColumns()));
         
         return stats;
     }
@@ -122,58 +333,41 @@ public class ReportService {
      * Obtiene análisis dinámico por columna específica
      */
     public Map<String, Object> getColumnAnalysis(Long userId, String columnName) {
+        return query(ReportQueryEvent.start("column", userId, null, columnName), () -> reportCache.analysis(userId,
+                columnName, () -> timed("column", () -> loadColumnAnalysis(userId, columnName))));
+    }
+
+    private Map<String, Object> loadColumnAnalysis(Long userId, String columnName) {
         List<CsvReport> userReports = csvReportRepository.findByUserId(userId);
         
-        Map<String, Long> valueCount = new HashMap<>();
-       long totalProcessed = 0;
        int maxValuesToProcess = 10000; // Límite de valores a procesar
-       int processedValues = 0;
-        
-        for (CsvReport report : userReports) {
-           // Romper si ya procesamos suficientes valores
-           if (processedValues >= maxValuesToProcess) break;
-           
-            if (report.getRows() == null || report.getHeaders() == null) continue;
-            if (!report.getHeaders().contains(columnName)) continue;
-            
-            for (Map<String, Object> row : report.getRows()) {
-               if (processedValues >= maxValuesToProcess) break;
-               
-                Object value = row.get(columnName);
-                if (value != null) {
-                    String valueStr = value.toString();
-                    valueCount.put(valueStr, valueCount.getOrDefault(valueStr, 0L) + 1);
-                   processedValues++;
-                }
-            }
-           
-           // Usar rowCount para el total real (no solo las muestras procesadas)
-           if (report.getRowCount() != null && report.getHeaders().contains(columnName)) {
-               totalProcessed += report.getRowCount();
-           } else {
-               totalProcessed += processedValues;
-           }
+        ReportAnalyzer.ColumnCounts counts = reportAnalyzer.countColumnValues(userReports, columnName, maxValuesToProcess);
+        return counts.toAnalysis(columnName, 20);
+    }
+
+    /**
+     * Categorías, estadísticas y análisis por columna cuando no están en caché
+     * (incluye la consulta a Mongo, medida aparte en
+     * spring.data.repository.invocations) y el agrupado de la línea de tiempo
+     */
+    private Timer analyticsTimer(String operation) {
+        return Timer.builder("reports.analytics")
+                .description("Duración de los cálculos de análisis de reportes")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private <T> T timed(String operation, Supplier<T> work) {
+        return analyticsTimer(operation).record(work);
+    }
+
+    // El evento de JFR se registra también si la consulta falla
+    private static <T> T query(ReportQueryEvent event, Supplier<T> work) {
+        try {
+            return work.get();
+        } finally {
+            event.commit();
         }
-        
-       // Limitar a los top 20 valores más comunes para evitar gráficos sobrecargados
-       Map<String, Long> topValues = valueCount.entrySet().stream()
-               .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-               .limit(20)
-               .collect(Collectors.toMap(
-                       Map.Entry::getKey,
-                       Map.Entry::getValue,
-                       (e1, e2) -> e1,
-                       LinkedHashMap::new
-               ));
-       
-        Map<String, Object> analysis = new HashMap<>();
-        analysis.put("columnName", columnName);
-       analysis.put("valueCounts", topValues);
-        analysis.put("totalValues", totalProcessed);
-       analysis.put("uniqueValues", topValues.size());
-       analysis.put("totalUniqueValues", valueCount.size()); // Total antes de limitar a top 20
-       analysis.put("isLimited", valueCount.size() > 20);
-        
-        return analysis;
     }
 }
@@ -0,0 +1,77 @@
+#!/bin/bash
+# Compara el arranque de un servicio con el fat jar (java -jar) y con el
+# classpath separado + Spring AOT + AppCDS, igual que en el Dockerfile.
+#
+#   cd backend/<servicio> && mvn package -Paot -DskipTests
+#   ./startup-benchmark.sh upload-service [corridas]
+#
+# Mide, por corrida: el "Started ... in" de Spring (contexto listo), el tiempo
+# de proceso hasta ese momento, la metaspace usada (jcmd GC.heap_info) y el RSS.
+# Las clases que vienen del archivo CDS no cuentan en la metaspace.
+#
+# Por defecto arranca sin bases de datos, con los mismos ajustes de la corrida
+# de entrenamiento. report-service necesita Redis para arrancar (sus listeners
+# se suscriben al iniciar). Con Mongo y Redis levantados
+# (docker compose up -d mongodb redis) se pasa la configuración en BENCH_OPTS, p. ej.
+#   BENCH_OPTS="-DMONGO_HOST=localhost -DREDIS_HOST=localhost" ./startup-benchmark.sh report-service
+set -euo pipefail
+
+service=${1:?"Uso: startup-benchmark.sh <servicio> [corridas]"}
+runs=${2:-3}
+root=$(cd "$(dirname "$0")" && pwd)
+jar="$root/$service/target/$service-1.0.0.jar"
+work=${BENCH_DIR:-/tmp/startup-benchmark/$service}
+opts=${BENCH_OPTS:-"-Dspring.data.mongodb.auto-index-creation=false -Dspring.jpa.hibernate.ddl-auto=none -Dspring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false"}
+# Puertos libres para no chocar con un servicio ya levantado
+opts="$opts -Dserver.port=0 -Dmanagement.server.port=0"
+
+[ -f "$jar" ] || { echo "No existe $jar (mvn package -Paot en $service)"; exit 1; }
+
+rm -rf "$work"
+"$root/../docker/java/appcds.sh" extract "$jar" "$work"
+grep -q spring.aot.enabled "$work/launch.args" || echo "Aviso: el jar no trae AOT, se mide solo AppCDS"
+"$root/../docker/java/appcds.sh" train "$work"
+
+# measure <modo> <comando...>: una corrida, imprime "ready_s process_s metaspace_kb rss_kb"
+measure() {
+    local log="$work/$1.log"
+    shift
+    (cd "$work" && exec "$@" > "$log" 2>&1) &
+    local pid=$!
+    for _ in $(seq 1 240); do
+        grep -q "Started .* in" "$log" && break
+        kill -0 "$pid" 2>/dev/null || { echo "$log: no arrancó" >&2; tail -20 "$log" >&2; exit 1; }
+        sleep 0.5
+    done
+    # Deja que terminen los listeners de ApplicationReadyEvent
+    sleep 2
+    local started metaspace rss
+    started=$(grep -o "Started .* in [0-9.]* seconds (process running for [0-9.]*)" "$log" | head -1)
+    metaspace=$(jcmd "$pid" GC.heap_info | sed -n 's/.*Metaspace *used \([0-9]*\)K.*/\1/p')
+    rss=$(awk '/^VmRSS:/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$(echo "$started" | sed 's/.* in \([0-9.]*\) seconds (process running for \([0-9.]*\))/\1 \2/') $metaspace $rss"
+}
+
+report() {
+    local label=$1
+    shift
+    local results=""
+    for i in $(seq 1 "$runs"); do
+        local result
+        result=$(measure "$label-$i" "$@")
+        results="$results$result"$'\n'
+        echo "$result" | awk -v label="$label" -v i="$i" \
+            '{ printf "  %-8s corrida %d: listo en %5.2f s, proceso %5.2f s, metaspace %6d KB, RSS %6d KB\n", label, i, $1, $2, $3, $4 }'
+    done
+    printf '%s' "$results" | awk -v label="$label" \
+        '{ r += $1; p += $2; m += $3; s += $4; n++ }
+         END { printf "%-10s promedio: listo en %5.2f s, proceso %5.2f s, metaspace %6d KB, RSS %6d KB\n", label, r / n, p / n, m / n, s / n }'
+}
+
+echo "== $service ($runs corridas)"
+# shellcheck disable=SC2086
+report fat-jar java $opts -jar "$jar"
+# shellcheck disable=SC2086
+report aot-cds java $opts -XX:SharedArchiveFile=app.jsa @launch.args
@@ -0,0 +1,178 @@
+package com.dashboard.upload.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limita cuántas cargas se parsean a la vez y cuántos bytes ocupan en memoria.
+ * Las cargas que no caben esperan en una cola acotada y se admiten en orden de
+ * llegada, así un archivo grande no queda postergado por los pequeños que
+ * siguen llegando. Si la cola está llena o la espera vence se rechazan para
+ * que el cliente reintente más tarde, en vez de agotar el heap.
+ */
+@Component
+@Slf4j
+public class UploadAdmissionLimiter {
+
+    private final int maxConcurrent;
+    private final long maxBytes;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final long retryAfterSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Turnos en orden de llegada; solo el primero puede entrar
+    private final Deque<Condition> waiters = new ArrayDeque<>();
+
+    private int active;
+    private int queued;
+    private long bytesInUse;
+
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Counter admitted;
+
+    public UploadAdmissionLimiter(
+            @Value("${upload.admission.max-concurrent:2}") int maxConcurrent,
+            @Value("${upload.admission.max-bytes:64MB}") DataSize maxBytes,
+            @Value("${upload.admission.max-queued:8}") int maxQueued,
+            @Value("${upload.admission.max-wait:30s}") Duration maxWait,
+            @Value("${upload.admission.retry-after:10s}") Duration retryAfter,
+            MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxBytes = maxBytes.toBytes();
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        Gauge.builder("upload.admission.active", this, c -> c.active)
+                .description("Cargas en proceso")
+                .register(meterRegistry);
+        Gauge.builder("upload.admission.queued", this, c -> c.queued)
+                .description("Cargas esperando turno")
+                .register(meterRegistry);
+        Gauge.builder("upload.admission.bytes", this, c -> c.bytesInUse)
+                .description("Bytes de archivos en proceso")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.admitted = Counter.builder("upload.admission.admitted")
+                .register(meterRegistry);
+        this.rejectedQueueFull = Counter.builder("upload.admission.rejected")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("upload.admission.rejected")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserva un turno para procesar un archivo de fileSize bytes. Un archivo
+     * mayor que el presupuesto completo se admite solo cuando no hay otro en curso.
+     *
+     * @throws UploadRejectedException si la cola está llena o la espera vence
+     */
+    public Permit acquire(long fileSize) {
+        long bytes = Math.min(Math.max(fileSize, 0), maxBytes);
+
+        lock.lock();
+        try {
+            // Orden de llegada: si alguien espera, un archivo pequeño no se le adelanta
+            if (!waiters.isEmpty() || !fits(bytes)) {
+                await(bytes);
+            }
+            active++;
+            bytesInUse += bytes;
+            admitted.increment();
+            return new Permit(bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Espera en la cola hasta ser el primero y caber en el presupuesto. Al salir
+     * (admitido o rechazado) avisa al siguiente, que puede caber también.
+     */
+    private void await(long bytes) {
+        if (queued >= maxQueued) {
+            rejectedQueueFull.increment();
+            log.warn("Carga rechazada: cola llena ({} en espera, {} activas)", queued, active);
+            throw new UploadRejectedException("queue_full", retryAfterSeconds);
+        }
+        Condition turn = lock.newCondition();
+        waiters.addLast(turn);
+        queued++;
+        try {
+            long remaining = maxWaitNanos;
+            while (waiters.peekFirst() != turn || !fits(bytes)) {
+                if (remaining <= 0) {
+                    rejectedTimeout.increment();
+                    log.warn("Carga rechazada: espera de {} ms agotada", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+                    throw new UploadRejectedException("timeout", retryAfterSeconds);
+                }
+                remaining = turn.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedTimeout.increment();
+            throw new UploadRejectedException("interrupted", retryAfterSeconds);
+        } finally {
+            waiters.remove(turn);
+            queued--;
+            signalNext();
+        }
+    }
+
+    private boolean fits(long bytes) {
+        return active < maxConcurrent && bytesInUse + bytes <= maxBytes;
+    }
+
+    private void signalNext() {
+        Condition next = waiters.peekFirst();
+        if (next != null) {
+            next.signal();
+        }
+    }
+
+    private void release(long bytes) {
+        lock.lock();
+        try {
+            active--;
+            bytesInUse -= bytes;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turno de procesamiento; se libera al cerrar (try-with-resources)
+     */
+    public final class Permit implements AutoCloseable {
+        private final long bytes;
+        private boolean closed;
+
+        private Permit(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            release(bytes);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.dashboard.upload.admission;
+
+import lombok.Getter;
+
+/**
+ * La carga no fue admitida porque el servicio está saturado
+ */
+@Getter
+public class UploadRejectedException extends RuntimeException {
+
+    private final String reason;
+    private final long retryAfterSeconds;
+
+    public UploadRejectedException(String reason, long retryAfterSeconds) {
+        super("Servicio de carga saturado (" + reason + "), intente de nuevo en " + retryAfterSeconds + " s");
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
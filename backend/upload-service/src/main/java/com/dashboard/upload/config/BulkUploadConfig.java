@@ -0,0 +1,42 @@
+package com.dashboard.upload.config;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class BulkUploadConfig {
+
+    /**
+     * Pool acotado para procesar los archivos de una carga masiva. Si la cola se
+     * llena, el hilo de la petición procesa el archivo (se frena en vez de
+     * acumular trabajo).
+     *
+     * El control de admisión limita solo el parseo de cada archivo: los
+     * reportes ya parseados (hasta upload.bulk.max-files, cada uno con su
+     * muestra de hasta 1000 filas) quedan en memoria hasta la escritura bulk
+     * del final. Ese máximo de archivos es lo que acota la memoria de la carga.
+     *
+     * Cada tarea lleva el contexto de la petición (la traza), para que las
+     * etapas y las consultas de cada archivo queden dentro de la carga masiva.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService bulkUploadExecutor(
+            @Value("${upload.bulk.parallelism:2}") int parallelism,
+            @Value("${upload.bulk.queue-capacity:50}") int queueCapacity) {
+        int threads = Math.max(1, Math.min(parallelism, Runtime.getRuntime().availableProcessors()));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("bulk-upload-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+        return ContextExecutorService.wrap(executor, snapshots::captureAll);
+    }
+}
@@ -0,0 +1,37 @@
+package com.dashboard.upload.config;
+
+import com.dashboard.upload.model.CsvReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Crea los índices declarados en CsvReport (owner_category_period_hash, usado
+ * para reconocer archivos repetidos) al arrancar, y no con auto-index-creation,
+ * que exige Mongo al crear el contexto. Sin Mongo el servicio igual arranca;
+ * el índice se crea en el siguiente arranque.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MongoIndexes {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(CsvReport.class);
+            new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                    .resolveIndexFor(CsvReport.class)
+                    .forEach(indexOps::ensureIndex);
+        } catch (Exception e) {
+            log.warn("No se pudieron crear los índices de csv_reports: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.dashboard.upload.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+public class UploadProgressConfig {
+
+    /**
+     * Envíos periódicos del avance de las cargas por SSE
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService uploadProgressScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("upload-progress").daemon().factory());
+    }
+
+    /**
+     * Escritura de los eventos SSE, fuera del hilo de flush: un cliente lento
+     * ocupa como mucho uno de estos hilos
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService uploadProgressSender(@Value("${upload.progress.sender-threads:2}") int threads) {
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("upload-progress-send-", 0).daemon().factory());
+    }
+}
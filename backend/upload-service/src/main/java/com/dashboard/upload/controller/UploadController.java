@@ -1,13 +1,28 @@
 package com.dashboard.upload.controller;
 
+import com.dashboard.upload.admission.UploadAdmissionLimiter;
+import com.dashboard.upload.admission.UploadRejectedException;
+import com.dashboard.upload.idempotency.UploadIdempotency;
 import com.dashboard.upload.model.CsvReport;
+import com.dashboard.upload.parser.DecompressedSizeExceededException;
+import com.dashboard.upload.parser.UploadFormat;
+import com.dashboard.upload.progress.UploadProgress;
+import com.dashboard.upload.progress.UploadProgressRegistry;
+import com.dashboard.upload.service.BulkUploadService;
 import com.dashboard.upload.service.CsvService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,6 +32,13 @@ import java.util.Map;
 public class UploadController {
 
     private final CsvService csvService;
+    private final BulkUploadService bulkUploadService;
+    private final UploadAdmissionLimiter admissionLimiter;
+    private final UploadProgressRegistry progressRegistry;
+    private final UploadIdempotency idempotency;
+
+    @Value("${upload.bulk.max-files:24}")
+    private int maxBulkFiles;
 
     @PostMapping(value = "/upload", consumes = "multipart/form-data", produces = "application/json;charset=UTF-8")
     public ResponseEntity<?> uploadCsv(
@@ -24,41 +46,227 @@ public class UploadController {
             @RequestParam("userId") Long userId,
             @RequestParam("category") String category,
             @RequestParam("period") String period,
-            @RequestParam(value = "isPublic", defaultValue = "false") boolean isPublic) {
-        
+            @RequestParam(value = "isPublic", defaultValue = "false") boolean isPublic,
+            @RequestParam(value = "uploadId", required = false) String uploadId,
+            @RequestHeader(value = UploadIdempotency.HEADER, required = false) String idempotencyKey) {
+
+        String fingerprint = UploadIdempotency.fingerprint("upload", file.getOriginalFilename(), file.getSize(),
+                category, period, isPublic);
+        return idempotency.execute(idempotencyKey, userId, fingerprint,
+                () -> processUpload(file, userId, category, period, isPublic, uploadId));
+    }
+
+    private ResponseEntity<?> processUpload(MultipartFile file, Long userId, String category, String period,
+                                            boolean isPublic, String uploadId) {
         log.info("Recibiendo upload de CSV: {} de usuario: {}, categoría: {}, período: {}", 
                 file.getOriginalFilename(), userId, category, period);
 
+        UploadProgress progress = UploadProgress.untracked();
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "El archivo está vacío"));
             }
 
-            if (!file.getOriginalFilename().toLowerCase().endsWith(".csv")) {
+            if (UploadFormat.fromFileName(file.getOriginalFilename()) == null) {
                 return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Solo se permiten archivos CSV"));
+                        .body(Map.of("error", "Solo se permiten archivos " + UploadFormat.SUPPORTED));
             }
 
-            CsvReport report = csvService.uploadAndParseCsv(file, userId, category, period, isPublic);
+            // Con uploadId el avance se puede seguir en GET /csv/progress/{uploadId}
+            if (uploadId != null) {
+                try {
+                    progress = progressRegistry.start(uploadId, file.getOriginalFilename(), file.getSize());
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+                } catch (IllegalStateException e) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("error", e.getMessage(), "uploadId", uploadId));
+                }
+            }
+
+            CsvReport report;
+            try (var permit = admissionLimiter.acquire(file.getSize())) {
+                report = csvService.uploadAndParseCsv(file, userId, category, period, isPublic, progress);
+            }
             
             log.info("CSV procesado exitosamente con ID: {}", report.getId());
             
-            return ResponseEntity.ok(Map.of(
-                    "message", "CSV procesado exitosamente",
+            Map<String, Object> body = Map.of(
+                    "message", report.isDuplicate() ? "El archivo ya había sido cargado" : "CSV procesado exitosamente",
                     "reportId", report.getId(),
                     "fileName", report.getOriginalFileName(),
                     "rowCount", report.getRowCount(),
-                    "columnCount", report.getHeaders().size()
-            ));
+                    "columnCount", report.getHeaders().size(),
+                    "duplicate", report.isDuplicate()
+            );
+            progress.done(body);
+            return ResponseEntity.ok(body);
 
+        } catch (UploadRejectedException e) {
+            progress.failed(UploadProgress.Stage.REJECTED, e.getMessage());
+            return tooManyRequests(e);
+        } catch (DecompressedSizeExceededException e) {
+            progress.failed(UploadProgress.Stage.ERROR, e.getMessage());
+            return payloadTooLarge(e);
         } catch (Exception e) {
             log.error("Error procesando CSV: {}", e.getMessage(), e);
+            progress.failed(UploadProgress.Stage.ERROR, "Error procesando CSV: " + e.getMessage());
             return ResponseEntity.status(500)
                     .body(Map.of("error", "Error procesando CSV: " + e.getMessage()));
         }
     }
 
+    /**
+     * Avance de una carga como Server-Sent Events (evento "progress"). El
+     * cliente se suscribe antes de subir el archivo con el mismo uploadId; si la
+     * carga ya está en curso o terminó, el primer evento lo indica y no hace
+     * falta volver a subirlo.
+     */
+    @GetMapping(value = "/progress/{uploadId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> uploadProgress(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no")
+                    .body(progressRegistry.subscribe(uploadId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            log.warn("Suscripción al avance de {} rechazada: {}", uploadId, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * Carga varios archivos en una sola petición. La categoría y el período se
+     * pueden enviar por archivo (categories/periods en el mismo orden que files),
+     * uno común para todos, o se deducen del nombre (p. ej. "Ventas_2025-10.csv").
+     */
+    @PostMapping(value = "/upload/bulk", consumes = "multipart/form-data", produces = "application/json;charset=UTF-8")
+    public ResponseEntity<?> uploadBulk(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam("userId") Long userId,
+            @RequestParam(value = "categories", required = false) List<String> categories,
+            @RequestParam(value = "periods", required = false) List<String> periods,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "period", required = false) String period,
+            @RequestParam(value = "isPublic", defaultValue = "false") boolean isPublic,
+            @RequestHeader(value = UploadIdempotency.HEADER, required = false) String idempotencyKey) {
+
+        String fingerprint = UploadIdempotency.fingerprint("bulk",
+                files.stream().map(f -> f.getOriginalFilename() + "/" + f.getSize()).toList(),
+                categories, periods, category, period, isPublic);
+        return idempotency.execute(idempotencyKey, userId, fingerprint,
+                () -> processBulk(files, userId, categories, periods, category, period, isPublic));
+    }
+
+    private ResponseEntity<?> processBulk(List<MultipartFile> files, Long userId, List<String> categories,
+                                          List<String> periods, String category, String period, boolean isPublic) {
+        log.info("Recibiendo carga masiva de {} archivos de usuario: {}", files.size(), userId);
+
+        try {
+            if (files.isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "No se recibieron archivos"));
+            }
+            if (files.size() > maxBulkFiles) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Máximo " + maxBulkFiles + " archivos por carga"));
+            }
+            if ((categories != null && !categories.isEmpty() && categories.size() != files.size())
+                    || (periods != null && !periods.isEmpty() && periods.size() != files.size())) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "categories y periods deben tener un valor por archivo"));
+            }
+
+            List<BulkUploadService.FileResult> results = bulkUploadService.uploadBulk(
+                    files, userId, categories, periods, category, period, isPublic);
+
+            long uploaded = results.stream().filter(r -> "UPLOADED".equals(r.status())).count();
+            long duplicates = results.stream().filter(r -> "DUPLICATE".equals(r.status())).count();
+            long failed = results.size() - uploaded - duplicates;
+
+            return ResponseEntity.ok(Map.of(
+                    "message", "Carga masiva procesada",
+                    "total", results.size(),
+                    "uploaded", uploaded,
+                    "duplicates", duplicates,
+                    "failed", failed,
+                    "files", results
+            ));
+
+        } catch (Exception e) {
+            log.error("Error en carga masiva: {}", e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", "Error procesando carga masiva: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/{reportId}/append", consumes = "multipart/form-data", produces = "application/json;charset=UTF-8")
+    public ResponseEntity<?> appendCsv(
+            @PathVariable String reportId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("userId") Long userId,
+            @RequestHeader(value = UploadIdempotency.HEADER, required = false) String idempotencyKey) {
+
+        // Un append repetido duplicaría las filas del reporte
+        String fingerprint = UploadIdempotency.fingerprint("append", reportId, file.getOriginalFilename(), file.getSize());
+        return idempotency.execute(idempotencyKey, userId, fingerprint,
+                () -> processAppend(reportId, file, userId));
+    }
+
+    private ResponseEntity<?> processAppend(String reportId, MultipartFile file, Long userId) {
+        log.info("Recibiendo CSV incremental: {} para reporte: {} de usuario: {}",
+                file.getOriginalFilename(), reportId, userId);
+
+        try {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "El archivo está vacío"));
+            }
+
+            if (UploadFormat.fromFileName(file.getOriginalFilename()) == null) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Solo se permiten archivos " + UploadFormat.SUPPORTED));
+            }
+
+            CsvReport report;
+            try (var permit = admissionLimiter.acquire(file.getSize())) {
+                report = csvService.appendCsv(reportId, file, userId);
+            }
+
+            return ResponseEntity.ok(Map.of(
+                    "message", "Filas agregadas exitosamente",
+                    "reportId", report.getId(),
+                    "rowCount", report.getRowCount()
+            ));
+
+        } catch (UploadRejectedException e) {
+            return tooManyRequests(e);
+        } catch (DecompressedSizeExceededException e) {
+            return payloadTooLarge(e);
+        } catch (IllegalArgumentException e) {
+            log.warn("CSV incremental rechazado: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error agregando CSV: {}", e.getMessage(), e);
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", "Error procesando CSV: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> tooManyRequests(UploadRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    private ResponseEntity<?> payloadTooLarge(DecompressedSizeExceededException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("error", e.getMessage()));
+    }
+
     @GetMapping("/health")
     public ResponseEntity<?> health() {
         return ResponseEntity.ok(Map.of("status", "Upload Service running"));
@@ -0,0 +1,37 @@
+package com.dashboard.upload.event;
+
+import com.dashboard.upload.model.CsvReport;
+
+/**
+ * Evento publicado en Redis cada vez que se escribe en csv_reports, para que
+ * report-service invalide su caché. wasPublic es la visibilidad anterior.
+ */
+public record ReportChangedEvent(
+        String type,        // CREATED, UPDATED, APPENDED, DELETED
+        String reportId,
+        Long userId,
+        String category,
+        Boolean isPublic,
+        Boolean wasPublic,
+        String source,
+        long timestamp) {
+
+    private static final String SOURCE = "upload-service";
+
+    public static ReportChangedEvent created(CsvReport report) {
+        return of("CREATED", report, false);
+    }
+
+    public static ReportChangedEvent updated(CsvReport report, boolean wasPublic) {
+        return of("UPDATED", report, wasPublic);
+    }
+
+    public static ReportChangedEvent appended(CsvReport report) {
+        return of("APPENDED", report, report.isPublic());
+    }
+
+    private static ReportChangedEvent of(String type, CsvReport report, boolean wasPublic) {
+        return new ReportChangedEvent(type, report.getId(), report.getUserId(), report.getCategory(),
+                report.isPublic(), wasPublic, SOURCE, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,63 @@
+package com.dashboard.upload.event;
+
+import com.dashboard.upload.model.CsvReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Agrega al stream de Redis un ReportIngested con el resumen del reporte
+ * después de cada escritura. Es la fuente de los modelos de lectura de
+ * report-service; el evento lleva el estado completo, así aplicarlo dos veces
+ * o reproducir el stream desde el inicio da el mismo resultado.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReportStreamPublisher {
+
+    public static final String REPORT_INGESTED = "ReportIngested";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${reports.events.stream:reports:events}")
+    private String streamKey;
+
+    @Value("${reports.events.max-length:10000}")
+    private long maxLength;
+
+    public void ingested(CsvReport report) {
+        try {
+            Map<String, String> fields = Map.of(
+                    "type", REPORT_INGESTED,
+                    "reportId", report.getId(),
+                    "payload", objectMapper.writeValueAsString(ReportSummary.of(report)),
+                    "source", "upload-service");
+            add(fields);
+        } catch (Exception e) {
+            // El modelo de lectura se puede reconstruir desde Mongo (actuator readmodels)
+            log.warn("No se pudo agregar {} del reporte {} al stream: {}", REPORT_INGESTED, report.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * XADD con MAXLEN ~: Redis recorta el stream a unos maxLength eventos,
+     * por nodos completos, sin costo extra en cada escritura
+     */
+    private void add(Map<String, String> fields) {
+        redisTemplate.execute((RedisCallback<RecordId>) connection -> ((StringRedisConnection) connection).xAdd(
+                StreamRecords.string(fields).withStreamKey(streamKey),
+                XAddOptions.maxlen(maxLength).approximateTrimming(true)));
+    }
+}
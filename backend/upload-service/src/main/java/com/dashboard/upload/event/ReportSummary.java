@@ -0,0 +1,42 @@
+package com.dashboard.upload.event;
+
+import com.dashboard.upload.model.CsvReport;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumen de un reporte (sin filas) que viaja en los eventos del stream para
+ * que report-service mantenga sus modelos de lectura. schemaVersion permite
+ * cambiar el formato sin romper a quien reproduce eventos viejos.
+ */
+public record ReportSummary(
+        int schemaVersion,
+        String reportId,
+        Long userId,
+        String category,
+        String period,
+        String originalFileName,
+        Long fileSize,
+        Integer rowCount,
+        List<String> columns,
+        List<String> dateColumns,
+        boolean isPublic,
+        String status,
+        LocalDateTime uploadedAt) {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public static ReportSummary of(CsvReport report) {
+        List<String> dateColumns = report.getMetadata() != null
+                && report.getMetadata().get("dateColumns") instanceof Map<?, ?> dates
+                ? dates.keySet().stream().map(String::valueOf).toList()
+                : List.of();
+        return new ReportSummary(SCHEMA_VERSION, report.getId(), report.getUserId(), report.getCategory(),
+                report.getPeriod(), report.getOriginalFileName(), report.getFileSize(), report.getRowCount(),
+                report.getHeaders() != null ? new ArrayList<>(report.getHeaders()) : List.of(),
+                dateColumns, report.isPublic(), report.getStatus(), report.getUploadedAt());
+    }
+}
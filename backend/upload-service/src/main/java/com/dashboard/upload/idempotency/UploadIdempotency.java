@@ -0,0 +1,231 @@
+package com.dashboard.upload.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Cabecera Idempotency-Key de las cargas, respaldada por Redis. La primera
+ * petición con una clave la reserva y, al terminar, guarda el status y el
+ * cuerpo de la respuesta. Un reintento con la misma clave (del cliente o del
+ * gateway después de un timeout) recibe la respuesta guardada, o 409 con
+ * Retry-After si la primera petición sigue en curso, en vez de parsear y
+ * guardar el archivo otra vez. El reintento no espera: ocuparía un hilo de
+ * Tomcat mientras dura la carga original.
+ *
+ * La clave es por usuario y queda asociada a una huella de la petición
+ * (endpoint, archivo, tamaño, categoría...): reutilizarla con otra petición
+ * responde 422. Los errores 5xx y 429 no se guardan, así el reintento vuelve a
+ * procesar el archivo. Si Redis no responde la carga se procesa igual, sin
+ * idempotencia.
+ */
+@Component
+@Slf4j
+public class UploadIdempotency {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Pattern KEY = Pattern.compile("[A-Za-z0-9_.:-]{8,128}");
+    private static final String PROCESSING = "PROCESSING";
+    private static final String DONE = "DONE";
+
+    // Reserva la clave si nadie la tiene: estado PROCESSING con el dueño y la huella
+    private static final RedisScript<Long> CLAIM = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'state', 'PROCESSING', 'owner', ARGV[1], 'fingerprint', ARGV[2]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+            "return 1", Long.class);
+
+    // Guarda la respuesta solo si la reserva sigue siendo de esta petición
+    private static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'state', 'DONE', 'status', ARGV[2], 'body', ARGV[3]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[4]) " +
+            "return 1", Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] then return 0 end " +
+            "return redis.call('DEL', KEYS[1])", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String keyPrefix;
+    private final Duration processingTtl;
+    private final Duration resultTtl;
+    private final long retryAfterSeconds;
+
+    public UploadIdempotency(
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${upload.idempotency.key-prefix:upload:idempotency:}") String keyPrefix,
+            @Value("${upload.idempotency.processing-ttl:10m}") Duration processingTtl,
+            @Value("${upload.idempotency.result-ttl:24h}") Duration resultTtl,
+            @Value("${upload.idempotency.retry-after:5s}") Duration retryAfter) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.keyPrefix = keyPrefix;
+        this.processingTtl = processingTtl;
+        this.resultTtl = resultTtl;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    }
+
+    /**
+     * Huella de la petición: los mismos datos dan la misma huella
+     */
+    public static String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Ejecuta action una sola vez por clave. Sin clave se ejecuta siempre.
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, Long userId, String fingerprint,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (!KEY.matcher(idempotencyKey).matches()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", HEADER + " inválida: 8 a 128 caracteres [A-Za-z0-9_.:-]"));
+        }
+
+        String key = keyPrefix + userId + ":" + idempotencyKey;
+        String owner = UUID.randomUUID().toString();
+        Boolean claimed = claim(key, owner, fingerprint);
+        if (claimed == null) {
+            return action.get();
+        }
+        if (!claimed) {
+            return existing(key, idempotencyKey, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(key, owner);
+            throw e;
+        }
+        int status = response.getStatusCode().value();
+        if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            release(key, owner);
+        } else {
+            complete(key, owner, status, response.getBody());
+        }
+        return response;
+    }
+
+    /**
+     * true si se reservó la clave, false si ya existía y null si Redis no respondió
+     */
+    private Boolean claim(String key, String owner, String fingerprint) {
+        try {
+            Long result = redisTemplate.execute(CLAIM, List.of(key),
+                    owner, fingerprint, String.valueOf(processingTtl.toMillis()));
+            return result != null && result == 1L;
+        } catch (Exception e) {
+            log.warn("No se pudo reservar la clave de idempotencia {}, se procesa sin ella: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void complete(String key, String owner, int status, Object body) {
+        try {
+            String json = objectMapper.writeValueAsString(body);
+            redisTemplate.execute(COMPLETE, List.of(key),
+                    owner, String.valueOf(status), json, String.valueOf(resultTtl.toMillis()));
+        } catch (Exception e) {
+            log.warn("No se pudo guardar la respuesta de la clave de idempotencia {}: {}", key, e.getMessage());
+            release(key, owner);
+        }
+    }
+
+    private void release(String key, String owner) {
+        try {
+            redisTemplate.execute(RELEASE, List.of(key), owner);
+        } catch (Exception e) {
+            // La reserva vence sola después de processing-ttl
+            log.warn("No se pudo liberar la clave de idempotencia {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Respuesta para una clave ya reservada: la guardada si la petición que la
+     * tiene terminó, o 409 con Retry-After para que el cliente vuelva a intentar
+     * con la misma clave.
+     */
+    private ResponseEntity<?> existing(String key, String idempotencyKey, String fingerprint) {
+        Map<Object, Object> entry;
+        try {
+            entry = redisTemplate.opsForHash().entries(key);
+        } catch (Exception e) {
+            log.warn("No se pudo leer la clave de idempotencia {}: {}", key, e.getMessage());
+            return stillProcessing(idempotencyKey);
+        }
+
+        if (entry.isEmpty()) {
+            // La petición original falló y liberó la clave: el cliente puede reintentar
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "La carga anterior con esta " + HEADER + " falló, vuelve a intentarlo",
+                            "idempotencyKey", idempotencyKey));
+        }
+        if (!fingerprint.equals(entry.get("fingerprint"))) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(Map.of("error", "La " + HEADER + " ya se usó con otra petición",
+                            "idempotencyKey", idempotencyKey));
+        }
+        if (DONE.equals(entry.get("state"))) {
+            log.info("Reintento con {} {}: se devuelve la respuesta guardada", HEADER, idempotencyKey);
+            return replay(entry);
+        }
+        return stillProcessing(idempotencyKey);
+    }
+
+    private ResponseEntity<?> replay(Map<Object, Object> entry) {
+        int status = Integer.parseInt((String) entry.get("status"));
+        try {
+            return ResponseEntity.status(status)
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readTree((String) entry.get("body")));
+        } catch (Exception e) {
+            throw new IllegalStateException("Respuesta guardada inválida", e);
+        }
+    }
+
+    private ResponseEntity<?> stillProcessing(String idempotencyKey) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(Map.of("error", "La carga con esta " + HEADER + " todavía se está procesando",
+                        "idempotencyKey", idempotencyKey,
+                        "state", PROCESSING));
+    }
+}
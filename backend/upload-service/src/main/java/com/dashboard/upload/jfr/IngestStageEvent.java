@@ -0,0 +1,42 @@
+package com.dashboard.upload.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Una etapa de la carga de un archivo (las mismas de la métrica upload.stage).
+ * Las etapas del parser se informan al terminar, así que la duración va en
+ * elapsed y el evento queda al final de la etapa, en el hilo que la ejecutó.
+ */
+@Name("com.dashboard.upload.IngestStage")
+@Label("Etapa de carga")
+@Category({"Dashboard", "Upload"})
+@Description("Duración de una etapa de la carga de un archivo")
+@StackTrace(false)
+public class IngestStageEvent extends Event {
+
+    @Label("Formato")
+    String format;
+
+    @Label("Etapa")
+    String stage;
+
+    @Label("Duración")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    public static void commit(String format, String stage, long elapsedNanos) {
+        IngestStageEvent event = new IngestStageEvent();
+        if (event.shouldCommit()) {
+            event.format = format;
+            event.stage = stage;
+            event.elapsed = elapsedNanos;
+            event.commit();
+        }
+    }
+}
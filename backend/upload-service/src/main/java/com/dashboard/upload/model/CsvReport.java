@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -11,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 
 @Document(collection = "csv_reports")
+@CompoundIndex(name = "owner_category_period_hash", def = "{'userId': 1, 'category': 1, 'period': 1, 'contentHash': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +34,8 @@ public class CsvReport {
     
     private Long fileSize;
     
+    private String contentHash; // SHA-256 del archivo original, para detectar cargas repetidas
+    
     private String delimiter; // Delimitador detectado: ',', ';', '\t', '|'
     
     private Integer rowCount;
@@ -53,6 +58,10 @@ public class CsvReport {
 
     // Visibilidad: true = público (lo ve cualquiera), false = privado (solo el owner)
     private boolean isPublic = false;
+
+    // true si la carga coincidió con un reporte existente (no se persiste)
+    @Transient
+    private boolean duplicate = false;
     
     public CsvReport(String fileName, Long userId) {
         this.fileName = fileName;
@@ -0,0 +1,82 @@
+package com.dashboard.upload.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Detecta el charset de un archivo a medida que se leen sus bytes, con
+ * prioridad para archivos latinoamericanos: respeta los BOM, usa UTF-8 si
+ * todos los bytes son UTF-8 válido y si no cae a Windows-1252 (Excel/ANSI),
+ * que mantiene los acentos españoles.
+ *
+ * Se puede alimentar con el archivo completo (mientras se calcula el hash) o
+ * solo con un prefijo cuando el archivo llega comprimido.
+ */
+public final class CharsetSniffer {
+
+    private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final CharBuffer scratch = CharBuffer.allocate(8192);
+    private final byte[] head = new byte[3];
+    private int headLength;
+    private ByteBuffer pending = ByteBuffer.allocate(0);
+    private boolean validUtf8 = true;
+
+    public void update(byte[] bytes, int offset, int length) {
+        for (int i = 0; headLength < head.length && i < length; i++) {
+            head[headLength++] = bytes[offset + i];
+        }
+        if (validUtf8 && length > 0) {
+            validate(bytes, offset, length);
+        }
+    }
+
+    private void validate(byte[] bytes, int offset, int length) {
+        // Unir con los bytes de un carácter multibyte que quedó partido en el bloque anterior
+        ByteBuffer input;
+        if (pending.hasRemaining()) {
+            input = ByteBuffer.allocate(pending.remaining() + length);
+            input.put(pending).put(bytes, offset, length).flip();
+        } else {
+            input = ByteBuffer.wrap(bytes, offset, length);
+        }
+
+        while (true) {
+            scratch.clear();
+            var result = utf8.decode(input, scratch, false);
+            if (result.isError()) {
+                validUtf8 = false;
+                return;
+            }
+            if (result.isUnderflow()) break;
+        }
+        pending = input.hasRemaining() ? ByteBuffer.allocate(input.remaining()).put(input).flip() : ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Charset detectado. Con complete=false (solo un prefijo) no se penaliza un
+     * carácter multibyte cortado al final del prefijo.
+     */
+    public Charset result(boolean complete) {
+        if (headLength >= 3 && head[0] == (byte) 0xEF && head[1] == (byte) 0xBB && head[2] == (byte) 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (headLength >= 2) {
+            if (head[0] == (byte) 0xFF && head[1] == (byte) 0xFE) return StandardCharsets.UTF_16LE;
+            if (head[0] == (byte) 0xFE && head[1] == (byte) 0xFF) return StandardCharsets.UTF_16BE;
+        }
+        if (validUtf8 && (!complete || !pending.hasRemaining())) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName("windows-1252");
+        } catch (Exception ignored) {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+}
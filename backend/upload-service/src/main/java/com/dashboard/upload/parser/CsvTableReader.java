@@ -0,0 +1,249 @@
+package com.dashboard.upload.parser;
+
+import com.dashboard.upload.progress.UploadProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Lectura de un CSV a filas tipadas: charset, delimitador, recorrido de todos
+ * los registros y conversión de la muestra a fechas y números. No depende de
+ * Spring ni de Mongo, así se puede medir aislado (módulo benchmarks).
+ * La duración de cada etapa se informa a un StageListener (métricas en
+ * upload-service).
+ */
+@Slf4j
+public final class CsvTableReader {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int CHARSET_SAMPLE_BYTES = 1024 * 1024;
+
+    /**
+     * Recibe la duración de cada etapa: charset, delimiter, parse y typing
+     */
+    @FunctionalInterface
+    public interface StageListener {
+        StageListener NONE = (stage, nanos) -> {};
+
+        void stageCompleted(String stage, long nanos);
+    }
+
+    private final ZoneId dateZone;
+    private final StageListener stages;
+
+    public CsvTableReader(ZoneId dateZone) {
+        this(dateZone, StageListener.NONE);
+    }
+
+    public CsvTableReader(ZoneId dateZone, StageListener stages) {
+        this.dateZone = dateZone;
+        this.stages = stages;
+    }
+
+    /**
+     * Lee el CSV con el charset y delimitador detectados, guardando como máximo
+     * maxSampleRows filas convertidas y contando el total. Si charset es null se
+     * detecta con el inicio del contenido. El stream no se cierra; lo cierra
+     * quien lo abrió.
+     */
+    public ParsedCsv read(InputStream in, Charset charset, int maxSampleRows, UploadProgress progress) throws IOException {
+        return read(in, charset, KnownColumns.NONE, maxSampleRows, progress);
+    }
+
+    /**
+     * Igual que read, pero con el delimitador, las columnas de fecha y los
+     * separadores decimales ya conocidos del reporte: solo se detecta lo que
+     * no se sabe.
+     */
+    public ParsedCsv read(InputStream in, Charset charset, KnownColumns known, int maxSampleRows,
+                          UploadProgress progress) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, STREAM_BUFFER_SIZE);
+        if (charset == null) {
+            // Detectar charset con el inicio del contenido
+            long charsetStarted = System.nanoTime();
+            buffered.mark(CHARSET_SAMPLE_BYTES);
+            byte[] prefix = buffered.readNBytes(CHARSET_SAMPLE_BYTES);
+            buffered.reset();
+            CharsetSniffer sniffer = new CharsetSniffer();
+            sniffer.update(prefix, 0, prefix.length);
+            charset = sniffer.result(prefix.length < CHARSET_SAMPLE_BYTES);
+            stages.stageCompleted("charset", System.nanoTime() - charsetStarted);
+        }
+        log.info("Charset detectado: {}", charset);
+
+        // Leer el archivo con el charset detectado
+        BufferedReader reader = new BufferedReader(new InputStreamReader(buffered, charset));
+
+        char delimiter;
+        if (known.delimiter() != null) {
+            delimiter = known.delimiter();
+        } else {
+            // Detectar delimitador leyendo la primera línea
+            long delimiterStarted = System.nanoTime();
+            reader.mark(8192);
+            String firstLine = reader.readLine();
+            reader.reset();
+
+            delimiter = detectDelimiter(firstLine);
+            stages.stageCompleted("delimiter", System.nanoTime() - delimiterStarted);
+            log.info("Delimitador detectado: '{}'", delimiter);
+        }
+
+        // Parse CSV con Apache Commons CSV
+        long parseStarted = System.nanoTime();
+        CSVParser csvParser = CSVFormat.DEFAULT
+                .withDelimiter(delimiter)
+                .withFirstRecordAsHeader()
+                .withIgnoreHeaderCase()
+                .withTrim()
+                .parse(reader);
+
+        // Extraer headers
+        List<String> headers = new ArrayList<>(csvParser.getHeaderNames());
+
+        // Parsear filas - SOLO GUARDAR MUESTRA (primeras 1000 filas para preview)
+        List<String[]> rawRows = new ArrayList<>();
+        int totalRowCount = 0;
+
+        for (CSVRecord csvRecord : csvParser) {
+            totalRowCount++;
+            progress.rowParsed();
+
+            // Solo guardar las primeras filas como muestra
+            if (rawRows.size() < maxSampleRows) {
+                String[] values = new String[headers.size()];
+                for (int i = 0; i < values.length && i < csvRecord.size(); i++) {
+                    values[i] = csvRecord.get(i);
+                }
+                rawRows.add(values);
+            }
+        }
+        stages.stageCompleted("parse", System.nanoTime() - parseStarted);
+
+        return toParsedCsv(delimiter, headers, rawRows, totalRowCount, known);
+    }
+
+    /**
+     * Infiere el tipo de cada columna con las filas de muestra y las convierte
+     */
+    public ParsedCsv toParsedCsv(char delimiter, List<String> headers, List<String[]> rawRows, int totalRowCount) {
+        return toParsedCsv(delimiter, headers, rawRows, totalRowCount, KnownColumns.NONE);
+    }
+
+    /**
+     * Como toParsedCsv, pero las columnas de fecha y los separadores decimales
+     * conocidos usan lo guardado y solo lo demás se detecta con la muestra
+     */
+    public ParsedCsv toParsedCsv(char delimiter, List<String> headers, List<String[]> rawRows, int totalRowCount,
+                                 KnownColumns known) {
+        long typingStarted = System.nanoTime();
+        // Detectar por columna si son fechas o el formato de sus números, usando la muestra
+        NumericParser[] numericParsers = new NumericParser[headers.size()];
+        DateTimeColumnParser[] dateParsers = new DateTimeColumnParser[headers.size()];
+        Map<String, String> dateColumns = new LinkedHashMap<>();
+        Map<String, String> numberFormats = new LinkedHashMap<>();
+        for (int i = 0; i < headers.size(); i++) {
+            Iterable<String> columnSample = columnValues(rawRows, i);
+            String knownPattern = known.datePattern(headers.get(i));
+            dateParsers[i] = knownPattern != null
+                    ? DateTimeColumnParser.forPattern(knownPattern, columnSample, dateZone)
+                    : null;
+            if (dateParsers[i] == null) {
+                dateParsers[i] = DateTimeColumnParser.detect(columnSample, dateZone);
+            }
+            if (dateParsers[i] != null) {
+                dateColumns.put(headers.get(i), dateParsers[i].pattern());
+                continue;
+            }
+            NumberFormatProfile numberFormat = known.numberFormat(headers.get(i));
+            if (numberFormat == null) {
+                numberFormat = NumberFormatProfile.decided(columnSample);
+                if (numberFormat != null) {
+                    numberFormats.put(headers.get(i), String.valueOf(numberFormat.decimalSeparator()));
+                } else {
+                    numberFormat = NumberFormatProfile.forDelimiter(delimiter);
+                }
+            }
+            numericParsers[i] = new NumericParser(numberFormat);
+        }
+        if (!dateColumns.isEmpty()) {
+            log.info("Columnas de fecha detectadas: {}", dateColumns);
+        }
+
+        List<Map<String, Object>> sampleRows = new ArrayList<>(rawRows.size());
+        for (String[] values : rawRows) {
+            Map<String, Object> row = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                // Intentar convertir a fecha o número si es posible
+                row.put(headers.get(i), parseValue(values[i], dateParsers[i], numericParsers[i]));
+            }
+            sampleRows.add(row);
+        }
+        stages.stageCompleted("typing", System.nanoTime() - typingStarted);
+
+        log.info("Archivo parseado exitosamente: {} filas totales, {} columnas, {} filas en muestra",
+                totalRowCount, headers.size(), sampleRows.size());
+        return new ParsedCsv(delimiter, headers, sampleRows, totalRowCount, dateColumns, numberFormats);
+    }
+
+    public static char detectDelimiter(String line) {
+        if (line == null || line.isEmpty()) {
+            return ','; // default
+        }
+
+        // Contar ocurrencias de delimitadores comunes
+        int commaCount = (int) line.chars().filter(c -> c == ',').count();
+        int semicolonCount = (int) line.chars().filter(c -> c == ';').count();
+        int tabCount = (int) line.chars().filter(c -> c == '\t').count();
+        int pipeCount = (int) line.chars().filter(c -> c == '|').count();
+
+        // Retornar el que más aparece
+        if (semicolonCount > commaCount && semicolonCount > tabCount && semicolonCount > pipeCount) {
+            return ';';
+        } else if (tabCount > commaCount && tabCount > semicolonCount && tabCount > pipeCount) {
+            return '\t';
+        } else if (pipeCount > commaCount && pipeCount > semicolonCount && pipeCount > tabCount) {
+            return '|';
+        }
+        return ','; // default
+    }
+
+    /**
+     * Convierte un valor a fecha (epoch en milisegundos), número o lo deja como texto.
+     * En una columna de fechas los valores que no son fecha quedan como texto:
+     * como número ("2023", "20240115") se leerían luego como epoch de 1970.
+     */
+    public static Object parseValue(String value, DateTimeColumnParser dateParser, NumericParser numericParser) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        // Fechas como epoch en milisegundos, para agrupar sin volver a parsear
+        if (dateParser != null) {
+            return dateParser.parse(value) ? (Object) dateParser.epochMillis() : value;
+        }
+
+        // Intentar parsear como número con los separadores de la columna
+        if (!numericParser.parse(value)) {
+            // Si no es número, devolver como string
+            return value;
+        }
+        return numericParser.kind() == NumericParser.Kind.LONG
+                ? (Object) numericParser.longValue()
+                : (Object) numericParser.doubleValue();
+    }
+
+    private static Iterable<String> columnValues(List<String[]> rows, int column) {
+        return () -> rows.stream().map(values -> values[column]).iterator();
+    }
+}
@@ -0,0 +1,344 @@
+package com.dashboard.upload.parser;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parser de fechas de una columna. El formato se infiere una vez con una
+ * muestra y los valores se convierten a epoch en milisegundos.
+ *
+ * Los formatos numéricos habituales (dd/MM/yyyy HH:mm, MM/dd/yyyy, yyyy-MM-dd,
+ * con o sin hora y a. m./p. m.) se leen carácter a carácter; los formatos con
+ * nombre de mes usan DateTimeFormatters precompilados.
+ *
+ * No es thread-safe: se crea una instancia por columna y por carga.
+ */
+public final class DateTimeColumnParser {
+
+    private static final double MIN_MATCH_RATIO = 0.8;
+    private static final int MAX_DETECTION_VALUES = 200;
+
+    private enum FieldOrder { DAY_MONTH_YEAR, MONTH_DAY_YEAR, YEAR_MONTH_DAY }
+
+    private static final Locale ES_CO = Locale.forLanguageTag("es-CO");
+
+    // Compilados una sola vez: los DateTimeFormatter son inmutables y thread-safe
+    private static final List<NamedFormatter> MONTH_NAME_FORMATTERS = List.of(
+            NamedFormatter.of("d-MMM-yyyy", ES_CO),
+            NamedFormatter.of("d-MMM-yyyy", Locale.ENGLISH),
+            NamedFormatter.of("d/MMM/yyyy", ES_CO),
+            NamedFormatter.of("d MMM yyyy", ES_CO),
+            NamedFormatter.of("d 'de' MMMM 'de' yyyy", ES_CO),
+            NamedFormatter.of("d-MMM-yyyy H:mm[:ss]", ES_CO),
+            NamedFormatter.of("d-MMM-yyyy H:mm[:ss]", Locale.ENGLISH)
+    );
+
+    private final FieldOrder fieldOrder;
+    private final NamedFormatter formatter;
+    private final ZoneId zone;
+
+    private long epochMillis;
+    private int cursor;
+
+    private DateTimeColumnParser(FieldOrder fieldOrder, NamedFormatter formatter, ZoneId zone) {
+        this.fieldOrder = fieldOrder;
+        this.formatter = formatter;
+        this.zone = zone;
+    }
+
+    /**
+     * Devuelve el parser del formato que mejor describe la muestra, o null si
+     * la columna no es de fechas (menos del 80% de los valores coinciden).
+     */
+    public static DateTimeColumnParser detect(Iterable<String> sample, ZoneId zone) {
+        List<DateTimeColumnParser> candidates = candidates(zone);
+
+        // Tamaño final de la muestra, para saber cuántos fallos admite cada formato
+        int sampleSize = 0;
+        for (String value : sample) {
+            if (value == null || value.isBlank()) continue;
+            if (++sampleSize == MAX_DETECTION_VALUES) break;
+        }
+        if (sampleSize == 0) return null;
+        double maxMisses = sampleSize * (1 - MIN_MATCH_RATIO);
+
+        int[] matches = new int[candidates.size()];
+        boolean[] discarded = new boolean[candidates.size()];
+        int nonBlank = 0;
+        for (String value : sample) {
+            if (value == null || value.isBlank()) continue;
+            if (++nonBlank > sampleSize) break;
+            boolean hasDigit = false;
+            boolean hasLetter = false;
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch >= '0' && ch <= '9') hasDigit = true;
+                else if (Character.isLetter(ch)) hasLetter = true;
+            }
+
+            boolean anyAlive = false;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (discarded[i]) continue;
+                DateTimeColumnParser candidate = candidates.get(i);
+                // Los formatos con nombre de mes solo se prueban si hay letras,
+                // así una columna numérica no paga excepciones de DateTimeFormatter
+                boolean applicable = hasDigit && (candidate.formatter == null || hasLetter);
+                if (applicable && candidate.parse(value)) matches[i]++;
+                // Descartar pronto los formatos que ya no pueden llegar al mínimo
+                int misses = nonBlank - matches[i];
+                if (misses > maxMisses) {
+                    discarded[i] = true;
+                } else {
+                    anyAlive = true;
+                }
+            }
+            if (!anyAlive) return null;
+        }
+
+        // En empate gana el primero: dd/MM antes que MM/dd
+        int best = 0;
+        for (int i = 1; i < matches.length; i++) {
+            if (matches[i] > matches[best]) best = i;
+        }
+        if (matches[best] == 0 || matches[best] < sampleSize * MIN_MATCH_RATIO) return null;
+        return candidates.get(best);
+    }
+
+    /**
+     * Parser de un patrón ya guardado en la metadata del reporte (ver pattern()),
+     * o null si el patrón no es uno de los conocidos. Algunos patrones con
+     * nombre de mes existen en español y en inglés; se elige el idioma con el
+     * que coinciden más valores de la muestra (en empate, español).
+     */
+    public static DateTimeColumnParser forPattern(String pattern, Iterable<String> sample, ZoneId zone) {
+        List<DateTimeColumnParser> candidates = candidates(zone);
+        candidates.removeIf(candidate -> !candidate.pattern().equals(pattern));
+        if (candidates.size() <= 1) return candidates.isEmpty() ? null : candidates.get(0);
+
+        DateTimeColumnParser best = null;
+        int bestMatches = -1;
+        for (DateTimeColumnParser candidate : candidates) {
+            int matches = 0;
+            int seen = 0;
+            for (String value : sample) {
+                if (value == null || value.isBlank()) continue;
+                if (++seen > MAX_DETECTION_VALUES) break;
+                if (candidate.parse(value)) matches++;
+            }
+            if (matches > bestMatches) {
+                best = candidate;
+                bestMatches = matches;
+            }
+        }
+        return best;
+    }
+
+    private static List<DateTimeColumnParser> candidates(ZoneId zone) {
+        List<DateTimeColumnParser> candidates = new ArrayList<>();
+        for (FieldOrder order : FieldOrder.values()) {
+            candidates.add(new DateTimeColumnParser(order, null, zone));
+        }
+        for (NamedFormatter namedFormatter : MONTH_NAME_FORMATTERS) {
+            candidates.add(new DateTimeColumnParser(null, namedFormatter, zone));
+        }
+        return candidates;
+    }
+
+    /**
+     * Descripción del formato detectado, para la metadata del reporte
+     */
+    public String pattern() {
+        if (formatter != null) return formatter.pattern();
+        return switch (fieldOrder) {
+            case DAY_MONTH_YEAR -> "dd/MM/yyyy[ HH:mm[:ss]]";
+            case MONTH_DAY_YEAR -> "MM/dd/yyyy[ HH:mm[:ss]]";
+            case YEAR_MONTH_DAY -> "yyyy-MM-dd[ HH:mm[:ss]]";
+        };
+    }
+
+    public long epochMillis() {
+        return epochMillis;
+    }
+
+    public boolean parse(CharSequence value) {
+        return formatter != null ? parseWithFormatter(value) : parseNumeric(value);
+    }
+
+    private boolean parseWithFormatter(CharSequence value) {
+        try {
+            TemporalAccessor parsed = formatter.formatter().parseBest(value, LocalDateTime::from, LocalDate::from);
+            LocalDateTime dateTime = parsed instanceof LocalDate date ? date.atStartOfDay() : (LocalDateTime) parsed;
+            epochMillis = dateTime.atZone(zone).toInstant().toEpochMilli();
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private boolean parseNumeric(CharSequence value) {
+        int length = value.length();
+        cursor = 0;
+
+        int first = readNumber(value, 4);
+        int firstDigits = cursor;
+        if (first < 0 || cursor >= length) return false;
+        char separator = value.charAt(cursor);
+        if (separator != '/' && separator != '-' && separator != '.') return false;
+        cursor++;
+
+        int middle = readNumber(value, 2);
+        if (middle < 0 || cursor >= length || value.charAt(cursor) != separator) return false;
+        cursor++;
+
+        int lastStart = cursor;
+        int last = readNumber(value, 4);
+        int lastDigits = cursor - lastStart;
+        if (last < 0) return false;
+
+        int year;
+        int month;
+        int day;
+        switch (fieldOrder) {
+            case YEAR_MONTH_DAY -> {
+                if (firstDigits != 4 || lastDigits > 2) return false;
+                year = first;
+                month = middle;
+                day = last;
+            }
+            case DAY_MONTH_YEAR -> {
+                if (firstDigits > 2 || lastDigits != 4) return false;
+                day = first;
+                month = middle;
+                year = last;
+            }
+            default -> {
+                if (firstDigits > 2 || lastDigits != 4) return false;
+                month = first;
+                day = middle;
+                year = last;
+            }
+        }
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) return false;
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int nanos = 0;
+        if (cursor < length) {
+            char c = value.charAt(cursor);
+            if (c != ' ' && c != 'T') return false;
+            cursor++;
+
+            hour = readNumber(value, 2);
+            if (hour < 0 || cursor >= length || value.charAt(cursor) != ':') return false;
+            cursor++;
+
+            int minuteStart = cursor;
+            minute = readNumber(value, 2);
+            if (minute < 0 || cursor - minuteStart != 2) return false;
+
+            if (cursor < length && value.charAt(cursor) == ':') {
+                cursor++;
+                int secondStart = cursor;
+                second = readNumber(value, 2);
+                if (second < 0 || cursor - secondStart != 2) return false;
+
+                if (cursor < length && value.charAt(cursor) == '.') {
+                    cursor++;
+                    int fractionStart = cursor;
+                    nanos = readNumber(value, 9);
+                    if (nanos < 0) return false;
+                    for (int i = cursor - fractionStart; i < 9; i++) nanos *= 10;
+                }
+            }
+
+            int meridiem = readMeridiem(value);
+            if (meridiem < 0) return false;
+            if (meridiem > 0) {
+                if (hour < 1 || hour > 12) return false;
+                hour = hour % 12 + (meridiem == 2 ? 12 : 0);
+            }
+            if (hour > 23 || minute > 59 || second > 59) return false;
+        }
+        if (cursor != length) return false;
+
+        epochMillis = LocalDateTime.of(year, month, day, hour, minute, second, nanos)
+                .atZone(zone).toInstant().toEpochMilli();
+        return true;
+    }
+
+    /**
+     * Lee hasta maxDigits dígitos desde el cursor. Devuelve -1 si no hay ninguno.
+     */
+    private int readNumber(CharSequence value, int maxDigits) {
+        int result = 0;
+        int start = cursor;
+        int i = start;
+        while (i < value.length() && i - start < maxDigits) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') break;
+            result = result * 10 + (c - '0');
+            i++;
+        }
+        if (i == start) return -1;
+        cursor = i;
+        return result;
+    }
+
+    /**
+     * Lee un sufijo AM/PM opcional ("PM", "p. m.", "a.m."). Devuelve 0 si no
+     * hay sufijo, 1 para a. m., 2 para p. m. y -1 si el texto no es válido.
+     */
+    private int readMeridiem(CharSequence value) {
+        int i = cursor;
+        int length = value.length();
+        while (i < length && isSpace(value.charAt(i))) i++;
+        if (i == length) {
+            cursor = i;
+            return 0;
+        }
+
+        char marker = Character.toLowerCase(value.charAt(i));
+        if (marker != 'a' && marker != 'p') return -1;
+        i++;
+        if (i < length && value.charAt(i) == '.') i++;
+        while (i < length && isSpace(value.charAt(i))) i++;
+        if (i >= length || Character.toLowerCase(value.charAt(i)) != 'm') return -1;
+        i++;
+        if (i < length && value.charAt(i) == '.') i++;
+
+        cursor = i;
+        return marker == 'a' ? 1 : 2;
+    }
+
+    // Excel en español separa "p. m." con espacio no separable
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\u00A0';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private record NamedFormatter(String pattern, DateTimeFormatter formatter) {
+        static NamedFormatter of(String pattern, Locale locale) {
+            DateTimeFormatter formatter = new DateTimeFormatterBuilder()
+                    .parseCaseInsensitive()
+                    .appendPattern(pattern)
+                    .toFormatter(locale);
+            return new NamedFormatter(pattern, formatter);
+        }
+    }
+}
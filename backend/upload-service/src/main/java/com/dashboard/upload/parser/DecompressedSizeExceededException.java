@@ -0,0 +1,19 @@
+package com.dashboard.upload.parser;
+
+import lombok.Getter;
+
+/**
+ * El contenido descomprimido de la carga supera upload.max-decompressed-size.
+ * Es unchecked para que atraviese Commons CSV y el parser SAX sin quedar
+ * envuelta en otra excepción.
+ */
+@Getter
+public class DecompressedSizeExceededException extends RuntimeException {
+
+    private final long maxBytes;
+
+    public DecompressedSizeExceededException(long maxBytes) {
+        super("El contenido descomprimido supera el máximo de " + maxBytes / (1024 * 1024) + " MB");
+        this.maxBytes = maxBytes;
+    }
+}
@@ -0,0 +1,55 @@
+package com.dashboard.upload.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lo que ya se sabe de las columnas de un reporte: su delimitador, sus
+ * columnas de fecha (columna -> patrón) y el separador decimal de sus
+ * columnas numéricas (columna -> "," o "."). Al agregar un CSV incremental
+ * se usan en vez de volver a detectarlos con la muestra del delta, que puede
+ * ser de pocas filas. Los nombres de columna no distinguen mayúsculas.
+ */
+public record KnownColumns(Character delimiter, Map<String, String> dateColumns, Map<String, String> numberFormats) {
+
+    public static final KnownColumns NONE = new KnownColumns(null, Map.of(), Map.of());
+
+    public KnownColumns {
+        dateColumns = byName(dateColumns);
+        numberFormats = byName(numberFormats);
+    }
+
+    /**
+     * Patrón de fecha guardado para la columna, o null si no es una columna de fecha conocida
+     */
+    public String datePattern(String column) {
+        return dateColumns.get(column);
+    }
+
+    /**
+     * Separadores guardados para la columna, o null si todavía no se conocen
+     */
+    public NumberFormatProfile numberFormat(String column) {
+        String separator = numberFormats.get(column);
+        return separator != null ? NumberFormatProfile.ofDecimalSeparator(separator) : null;
+    }
+
+    /**
+     * Lo conocido más lo que se detectó al leer parsed (p. ej. la primera
+     * entrada de un ZIP); lo ya conocido tiene prioridad
+     */
+    public KnownColumns with(ParsedCsv parsed) {
+        Map<String, String> dates = new HashMap<>(parsed.dateColumns());
+        dates.putAll(dateColumns);
+        Map<String, String> formats = new HashMap<>(parsed.numberFormats());
+        formats.putAll(numberFormats);
+        return new KnownColumns(delimiter != null ? delimiter : parsed.delimiter(), dates, formats);
+    }
+
+    private static Map<String, String> byName(Map<String, String> columns) {
+        Map<String, String> byName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        byName.putAll(columns);
+        return byName;
+    }
+}
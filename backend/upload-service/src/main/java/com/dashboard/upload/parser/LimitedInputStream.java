@@ -0,0 +1,71 @@
+package com.dashboard.upload.parser;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Cuenta los bytes leídos de un stream descomprimido y falla con
+ * {@link DecompressedSizeExceededException} al pasar el máximo, antes de que
+ * un archivo comprimido muy pequeño (bomba de descompresión) ocupe el disco
+ * temporal o la CPU del servicio durante minutos.
+ */
+public final class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    public LimitedInputStream(InputStream in, long maxBytes) {
+        this(in, maxBytes, 0);
+    }
+
+    /**
+     * Continúa la cuenta de otro stream (p. ej. las partes de un mismo .xlsx)
+     */
+    public LimitedInputStream(InputStream in, long maxBytes, long alreadyRead) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.count = alreadyRead;
+    }
+
+    /**
+     * Bytes leídos hasta ahora, incluidos los de alreadyRead
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) add(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) add(read);
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        add(skipped);
+        return skipped;
+    }
+
+    // mark/reset desharían la cuenta
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void add(long bytes) {
+        count += bytes;
+        if (count > maxBytes) {
+            throw new DecompressedSizeExceededException(maxBytes);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.dashboard.upload.parser;
+
+/**
+ * Separadores numéricos de una columna. Los exportes de Excel en es-CO usan
+ * coma decimal y punto de miles (1.234,56); el resto usa el formato inglés.
+ */
+public record NumberFormatProfile(char decimalSeparator, char groupingSeparator) {
+
+    public static final NumberFormatProfile DOT_DECIMAL = new NumberFormatProfile('.', ',');
+    public static final NumberFormatProfile COMMA_DECIMAL = new NumberFormatProfile(',', '.');
+
+    /**
+     * Infiere los separadores de una columna a partir de una muestra de valores.
+     * Cada valor vota según la posición y cantidad de separadores; los casos
+     * ambiguos (p. ej. "1.234") se resuelven con el delimitador del archivo,
+     * porque los CSV separados por ';' casi siempre vienen de Excel en español.
+     */
+    public static NumberFormatProfile detect(Iterable<String> sample, char fieldDelimiter) {
+        NumberFormatProfile voted = decided(sample);
+        return voted != null ? voted : forDelimiter(fieldDelimiter);
+    }
+
+    /**
+     * Perfil por defecto cuando la muestra no decide
+     */
+    public static NumberFormatProfile forDelimiter(char fieldDelimiter) {
+        return fieldDelimiter == ';' ? COMMA_DECIMAL : DOT_DECIMAL;
+    }
+
+    /**
+     * Perfil que deciden los valores de la muestra, o null si ninguno lo decide
+     * (solo enteros, textos o empate). Es el que vale la pena guardar con el
+     * reporte: el del delimitador se vuelve a deducir igual en cada carga.
+     */
+    public static NumberFormatProfile decided(Iterable<String> sample) {
+        int dotDecimalVotes = 0;
+        int commaDecimalVotes = 0;
+
+        for (String value : sample) {
+            if (value == null) continue;
+            switch (vote(value)) {
+                case DOT -> dotDecimalVotes++;
+                case COMMA -> commaDecimalVotes++;
+                default -> { }
+            }
+        }
+
+        if (commaDecimalVotes > dotDecimalVotes) return COMMA_DECIMAL;
+        if (dotDecimalVotes > commaDecimalVotes) return DOT_DECIMAL;
+        return null;
+    }
+
+    /**
+     * Perfil a partir del separador decimal guardado en la metadata del reporte
+     */
+    public static NumberFormatProfile ofDecimalSeparator(String separator) {
+        return ",".equals(separator) ? COMMA_DECIMAL : DOT_DECIMAL;
+    }
+
+    private enum Vote { DOT, COMMA, NONE }
+
+    private static Vote vote(CharSequence value) {
+        int dots = 0;
+        int commas = 0;
+        int lastDot = -1;
+        int lastComma = -1;
+        int digits = 0;
+        int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.') {
+                dots++;
+                lastDot = i;
+            } else if (c == ',') {
+                commas++;
+                lastComma = i;
+            } else if (!(i == 0 && (c == '-' || c == '+'))) {
+                return Vote.NONE; // No es un número simple
+            }
+        }
+        if (digits == 0) return Vote.NONE;
+
+        // Ambos separadores: el último es el decimal
+        if (dots > 0 && commas > 0) {
+            return lastComma > lastDot ? Vote.COMMA : Vote.DOT;
+        }
+        // Un separador repetido solo puede ser de miles
+        if (dots > 1) return Vote.COMMA;
+        if (commas > 1) return Vote.DOT;
+        // Un único separador seguido de exactamente 3 dígitos es ambiguo
+        if (dots == 1) return length - lastDot - 1 == 3 ? Vote.NONE : Vote.DOT;
+        if (commas == 1) return length - lastComma - 1 == 3 ? Vote.NONE : Vote.COMMA;
+        return Vote.NONE;
+    }
+}
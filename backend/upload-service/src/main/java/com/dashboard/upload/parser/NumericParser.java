@@ -0,0 +1,173 @@
+package com.dashboard.upload.parser;
+
+/**
+ * Parser numérico de una columna. Recorre los caracteres del valor una sola
+ * vez, sin crear Strings intermedios ni usar excepciones para descartar
+ * textos. El resultado queda en {@link #longValue()} o {@link #doubleValue()}
+ * según {@link #kind()}.
+ *
+ * No es thread-safe: se crea una instancia por columna y por carga.
+ */
+public final class NumericParser {
+
+    public enum Kind { LONG, DOUBLE }
+
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final StringBuilder slowPath = new StringBuilder(32);
+
+    private Kind kind;
+    private long longValue;
+    private double doubleValue;
+
+    public NumericParser(NumberFormatProfile profile) {
+        this.decimalSeparator = profile.decimalSeparator();
+        this.groupingSeparator = profile.groupingSeparator();
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public long longValue() {
+        return longValue;
+    }
+
+    public double doubleValue() {
+        return doubleValue;
+    }
+
+    public boolean parse(CharSequence value) {
+        return parse(value, 0, value.length());
+    }
+
+    /**
+     * Intenta interpretar value[from, to) como número con los separadores de
+     * la columna. Los enteros con ceros a la izquierda (documentos, códigos)
+     * no se consideran números para no perder los ceros.
+     */
+    public boolean parse(CharSequence value, int from, int to) {
+        int i = from;
+        if (i >= to) return false;
+
+        boolean negative = false;
+        char first = value.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int integerDigits = 0;
+        int groupDigits = 0;
+        boolean grouped = false;
+        boolean leadingZero = i < to && value.charAt(i) == '0';
+
+        // Parte entera, con separadores de miles opcionales en grupos de 3
+        for (; i < to; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (significantDigits > 0 || c != '0') {
+                    if (++significantDigits <= MAX_MANTISSA_DIGITS) mantissa = mantissa * 10 + (c - '0');
+                }
+                integerDigits++;
+                groupDigits++;
+            } else if (c == groupingSeparator) {
+                if (grouped ? groupDigits != 3 : groupDigits == 0 || groupDigits > 3) return false;
+                grouped = true;
+                groupDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (grouped && groupDigits != 3) return false;
+
+        int fractionDigits = 0;
+        boolean hasFraction = false;
+        if (i < to && value.charAt(i) == decimalSeparator) {
+            hasFraction = true;
+            for (i++; i < to; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') break;
+                if (significantDigits > 0 || c != '0') {
+                    if (++significantDigits <= MAX_MANTISSA_DIGITS) mantissa = mantissa * 10 + (c - '0');
+                }
+                fractionDigits++;
+            }
+        }
+        if (integerDigits == 0 && fractionDigits == 0) return false;
+
+        int exponent = 0;
+        boolean hasExponent = false;
+        // Notación científica solo con parte decimal: códigos como "1E3" quedan como texto
+        if (hasFraction && i < to && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            hasExponent = true;
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                negativeExponent = value.charAt(i) == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < to; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') break;
+                if (++exponentDigits > 3) return false;
+                exponent = exponent * 10 + (c - '0');
+            }
+            if (exponentDigits == 0) return false;
+            if (negativeExponent) exponent = -exponent;
+        }
+        if (i != to) return false;
+
+        if (!hasFraction && !hasExponent) {
+            if (leadingZero && integerDigits > 1) return false;
+            // No cabe en un long: códigos largos, se dejan como texto
+            if (significantDigits > MAX_MANTISSA_DIGITS) return false;
+            kind = Kind.LONG;
+            longValue = negative ? -mantissa : mantissa;
+            return true;
+        }
+
+        int scale = exponent - fractionDigits;
+        if (significantDigits > MAX_MANTISSA_DIGITS) {
+            // Más dígitos de los que caben en la mantisa: Double.parseDouble redondea bien
+            doubleValue = parseNormalized(value, from, to);
+        } else if (significantDigits == 0) {
+            doubleValue = negative ? -0.0 : 0.0;
+        } else if (mantissa < MAX_EXACT_MANTISSA && Math.abs(scale) < POWERS_OF_TEN.length) {
+            double magnitude = scale >= 0
+                    ? mantissa * POWERS_OF_TEN[scale]
+                    : mantissa / POWERS_OF_TEN[-scale];
+            doubleValue = negative ? -magnitude : magnitude;
+        } else {
+            slowPath.setLength(0);
+            if (negative) slowPath.append('-');
+            slowPath.append(mantissa).append('E').append(scale);
+            doubleValue = Double.parseDouble(slowPath.toString());
+        }
+        kind = Kind.DOUBLE;
+        return true;
+    }
+
+    /**
+     * El valor ya validado sin separadores de miles y con punto decimal
+     */
+    private double parseNormalized(CharSequence value, int from, int to) {
+        slowPath.setLength(0);
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == groupingSeparator) continue;
+            slowPath.append(c == decimalSeparator ? '.' : c);
+        }
+        return Double.parseDouble(slowPath.toString());
+    }
+}
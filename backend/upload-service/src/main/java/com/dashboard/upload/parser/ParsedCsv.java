@@ -0,0 +1,51 @@
+package com.dashboard.upload.parser;
+
+import java.util.*;
+
+/**
+ * Resultado de parsear un archivo: encabezados, filas de muestra ya convertidas,
+ * total de filas, columnas de fecha detectadas (columna -> patrón) y separador
+ * decimal de las columnas numéricas cuya muestra lo decidió (columna -> "," o ".").
+ */
+public record ParsedCsv(char delimiter, List<String> headers, List<Map<String, Object>> rows,
+                        int totalRows, Map<String, String> dateColumns, Map<String, String> numberFormats) {
+
+    /**
+     * Une otra parte del mismo reporte (p. ej. otra entrada del ZIP)
+     */
+    public ParsedCsv plus(ParsedCsv part, String partName) {
+        if (!sameColumns(headers, part.headers())) {
+            throw new IllegalArgumentException("Las columnas de " + partName + " no coinciden: esperado "
+                    + headers + ", recibido " + part.headers());
+        }
+        List<Map<String, Object>> allRows = new ArrayList<>(rows);
+        allRows.addAll(renameToHeaders(part.rows(), headers));
+        Map<String, String> allDates = new LinkedHashMap<>(part.dateColumns());
+        allDates.putAll(dateColumns);
+        Map<String, String> allFormats = new LinkedHashMap<>(part.numberFormats());
+        allFormats.putAll(numberFormats);
+        return new ParsedCsv(delimiter, headers, allRows, totalRows + part.totalRows(), allDates, allFormats);
+    }
+
+    public static boolean sameColumns(List<String> expected, List<String> received) {
+        if (expected == null || expected.size() != received.size()) return false;
+        Set<String> normalized = new HashSet<>();
+        expected.forEach(h -> normalized.add(h.toLowerCase(Locale.ROOT)));
+        return received.stream().allMatch(h -> normalized.contains(h.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Usa los nombres de columna del reporte original (puede cambiar la capitalización)
+     */
+    public static List<Map<String, Object>> renameToHeaders(List<Map<String, Object>> rows, List<String> headers) {
+        Map<String, String> byLowerCase = new HashMap<>();
+        headers.forEach(h -> byLowerCase.put(h.toLowerCase(Locale.ROOT), h));
+        List<Map<String, Object>> renamed = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> copy = new HashMap<>();
+            row.forEach((key, value) -> copy.put(byLowerCase.get(key.toLowerCase(Locale.ROOT)), value));
+            renamed.add(copy);
+        }
+        return renamed;
+    }
+}
@@ -0,0 +1,64 @@
+package com.dashboard.upload.parser;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Formatos de archivo aceptados en la carga, según la extensión. Los formatos
+ * comprimidos se descomprimen al vuelo mientras se parsea, sin escribir el CSV
+ * descomprimido a disco ni cargarlo completo en memoria. Los .xlsx se leen
+ * aparte con {@link XlsxSheetReader}.
+ */
+public enum UploadFormat {
+    CSV(".csv"),
+    GZIP(".csv.gz"),
+    ZSTD(".csv.zst"),
+    ZIP(".zip"),
+    XLSX(".xlsx");
+
+    public static final String SUPPORTED = ".csv, .csv.gz, .csv.zst, .zip o .xlsx";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    UploadFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Formato de un nombre de archivo, o null si no es soportado
+     */
+    public static UploadFormat fromFileName(String fileName) {
+        if (fileName == null) return null;
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (UploadFormat format : values()) {
+            if (lower.endsWith(format.extension)) return format;
+        }
+        return null;
+    }
+
+    /**
+     * Nombre del archivo sin la extensión del formato
+     */
+    public String baseName(String fileName) {
+        return fileName.substring(0, fileName.length() - extension.length());
+    }
+
+    /**
+     * Envuelve el stream del archivo subido para leer el contenido del CSV.
+     * Lo descomprimido de .csv.gz y .csv.zst se limita a maxDecompressedBytes.
+     * Para ZIP devuelve el stream del archivo; las entradas se recorren aparte.
+     */
+    public InputStream decode(InputStream raw, long maxDecompressedBytes) throws IOException {
+        return switch (this) {
+            case GZIP -> new LimitedInputStream(new GZIPInputStream(raw, BUFFER_SIZE), maxDecompressedBytes);
+            case ZSTD -> new LimitedInputStream(new ZstdInputStream(raw), maxDecompressedBytes);
+            default -> raw;
+        };
+    }
+}
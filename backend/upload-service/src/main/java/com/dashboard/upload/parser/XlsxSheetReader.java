@@ -0,0 +1,323 @@
+package com.dashboard.upload.parser;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lector de la primera hoja de un .xlsx con eventos SAX: las filas se entregan
+ * una a una sin construir el libro en memoria, así el consumo no depende del
+ * tamaño de la hoja. Solo se mantiene la tabla de textos compartidos, que es lo
+ * que Excel usa para las celdas de texto.
+ *
+ * Las celdas se entregan como texto, igual que un CSV: los números con punto
+ * decimal y sin separador de miles, y las celdas con formato de fecha como
+ * yyyy-MM-dd[ HH:mm:ss], para que pasen por la misma inferencia de tipos.
+ */
+public final class XlsxSheetReader {
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(List<String> cells);
+    }
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final ZipFile zip;
+    private final long maxDecompressedBytes;
+    private final SAXParser saxParser;
+    private final List<String> sharedStrings = new ArrayList<>();
+    private final BitSet dateStyles = new BitSet();
+    private boolean date1904;
+    private long decompressedBytes;
+
+    private XlsxSheetReader(ZipFile zip, long maxDecompressedBytes) throws IOException {
+        this.zip = zip;
+        this.maxDecompressedBytes = maxDecompressedBytes;
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            // Los .xlsx no traen DOCTYPE: se rechaza para evitar XXE
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            this.saxParser = factory.newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("No se pudo crear el parser XML", e);
+        }
+    }
+
+    /**
+     * Lee la primera hoja del libro y entrega cada fila no vacía a handler.
+     * Las partes XML leídas suman como máximo maxDecompressedBytes descomprimidos.
+     */
+    public static void read(Path xlsx, long maxDecompressedBytes, RowHandler handler) throws IOException {
+        try (ZipFile zip = new ZipFile(xlsx.toFile())) {
+            XlsxSheetReader reader = new XlsxSheetReader(zip, maxDecompressedBytes);
+            String sheet = reader.firstSheetPath();
+            reader.readSharedStrings();
+            reader.readStyles();
+            reader.parse(sheet, reader.new SheetHandler(handler));
+        } catch (java.util.zip.ZipException e) {
+            throw new IOException("El archivo no es un .xlsx válido", e);
+        }
+    }
+
+    private void parse(String entryName, DefaultHandler handler) throws IOException {
+        ZipEntry entry = zip.getEntry(entryName);
+        if (entry == null) return;
+        LimitedInputStream in = new LimitedInputStream(zip.getInputStream(entry), maxDecompressedBytes, decompressedBytes);
+        try (in) {
+            saxParser.reset();
+            saxParser.parse(in, handler);
+        } catch (SAXException e) {
+            throw new IOException("Error leyendo " + entryName + ": " + e.getMessage(), e);
+        } finally {
+            decompressedBytes = in.count();
+        }
+    }
+
+    /**
+     * Ruta de la primera hoja según workbook.xml y sus relaciones
+     */
+    private String firstSheetPath() throws IOException {
+        String[] firstSheetId = new String[1];
+        parse("xl/workbook.xml", new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                if (!MAIN_NS.equals(uri)) return;
+                if ("workbookPr".equals(localName)) {
+                    String value = attributes.getValue("date1904");
+                    date1904 = "1".equals(value) || "true".equalsIgnoreCase(value);
+                } else if ("sheet".equals(localName) && firstSheetId[0] == null) {
+                    firstSheetId[0] = attributes.getValue(REL_NS, "id");
+                }
+            }
+        });
+        if (firstSheetId[0] == null) {
+            throw new IOException("El archivo .xlsx no tiene hojas");
+        }
+
+        Map<String, String> targets = new HashMap<>();
+        parse("xl/_rels/workbook.xml.rels", new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                if ("Relationship".equals(localName)) {
+                    targets.put(attributes.getValue("Id"), attributes.getValue("Target"));
+                }
+            }
+        });
+        String target = targets.getOrDefault(firstSheetId[0], "worksheets/sheet1.xml");
+        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+    }
+
+    private void readSharedStrings() throws IOException {
+        parse("xl/sharedStrings.xml", new DefaultHandler() {
+            private final StringBuilder text = new StringBuilder();
+            private boolean inText;
+            private boolean inPhonetic;
+
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                switch (localName) {
+                    case "si" -> text.setLength(0);
+                    case "rPh" -> inPhonetic = true;
+                    case "t" -> inText = !inPhonetic;
+                    default -> { }
+                }
+            }
+
+            @Override
+            public void characters(char[] ch, int start, int length) {
+                if (inText) text.append(ch, start, length);
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) {
+                switch (localName) {
+                    case "si" -> sharedStrings.add(text.toString());
+                    case "rPh" -> inPhonetic = false;
+                    case "t" -> inText = false;
+                    default -> { }
+                }
+            }
+        });
+    }
+
+    /**
+     * Marca los estilos de celda (cellXfs) cuyo formato numérico es de fecha
+     */
+    private void readStyles() throws IOException {
+        Map<Integer, String> customFormats = new HashMap<>();
+        parse("xl/styles.xml", new DefaultHandler() {
+            private boolean inCellXfs;
+            private int xfIndex;
+
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                switch (localName) {
+                    case "numFmt" -> customFormats.put(
+                            Integer.parseInt(attributes.getValue("numFmtId")), attributes.getValue("formatCode"));
+                    case "cellXfs" -> inCellXfs = true;
+                    case "xf" -> {
+                        if (!inCellXfs) return;
+                        String numFmtId = attributes.getValue("numFmtId");
+                        if (numFmtId != null && isDateFormat(Integer.parseInt(numFmtId), customFormats)) {
+                            dateStyles.set(xfIndex);
+                        }
+                        xfIndex++;
+                    }
+                    default -> { }
+                }
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) {
+                if ("cellXfs".equals(localName)) inCellXfs = false;
+            }
+        });
+    }
+
+    private static boolean isDateFormat(int numFmtId, Map<Integer, String> customFormats) {
+        // Formatos de fecha/hora integrados de Excel
+        if ((numFmtId >= 14 && numFmtId <= 22) || (numFmtId >= 45 && numFmtId <= 47)) return true;
+        String code = customFormats.get(numFmtId);
+        if (code == null) return false;
+
+        // Ignorar textos entre comillas, escapes y secciones [Red]/[$-409]
+        boolean inQuotes = false;
+        boolean inBrackets = false;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '"') inQuotes = !inQuotes;
+            else if (inQuotes) continue;
+            else if (c == '\\') i++;
+            else if (c == '[') inBrackets = true;
+            else if (c == ']') inBrackets = false;
+            else if (!inBrackets && "dmyhsDMYHS".indexOf(c) >= 0) return true;
+        }
+        return false;
+    }
+
+    private String formatDate(String serial) {
+        // Redondeo al segundo: la fracción del día arrastra error de punto flotante
+        long seconds = Math.round(Double.parseDouble(serial) * SECONDS_PER_DAY);
+        LocalDateTime base = date1904 ? LocalDateTime.of(1904, 1, 1, 0, 0) : LocalDateTime.of(1899, 12, 30, 0, 0);
+        LocalDateTime dateTime = base.plusSeconds(seconds);
+        return seconds % SECONDS_PER_DAY == 0 ? DATE.format(dateTime) : DATE_TIME.format(dateTime);
+    }
+
+    private static String formatNumber(String value) {
+        // Excel escribe 1.5E-3 o 1E+20; se pasa a notación normal
+        if (value.indexOf('E') >= 0 || value.indexOf('e') >= 0) {
+            return new BigDecimal(value).stripTrailingZeros().toPlainString();
+        }
+        return value;
+    }
+
+    /**
+     * Índice de columna (0 = A) de una referencia como "AB12", o -1 si no hay
+     */
+    private static int columnIndex(String reference) {
+        if (reference == null) return -1;
+        int column = 0;
+        int i = 0;
+        for (; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return i == 0 ? -1 : column - 1;
+    }
+
+    private final class SheetHandler extends DefaultHandler {
+        private final RowHandler handler;
+        private final List<String> cells = new ArrayList<>();
+        private final StringBuilder value = new StringBuilder();
+
+        private String cellType;
+        private int cellStyle;
+        private int cellColumn;
+        private boolean inValue;
+
+        SheetHandler(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> cells.clear();
+                case "c" -> {
+                    cellType = attributes.getValue("t");
+                    String style = attributes.getValue("s");
+                    cellStyle = style != null ? Integer.parseInt(style) : 0;
+                    int column = columnIndex(attributes.getValue("r"));
+                    cellColumn = column >= 0 ? column : cells.size();
+                    value.setLength(0);
+                }
+                // <v> valor, <t> texto en línea (t="inlineStr"); <f> fórmula se ignora
+                case "v", "t" -> inValue = true;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) value.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "c" -> {
+                    while (cells.size() <= cellColumn) cells.add(null);
+                    cells.set(cellColumn, cellValue());
+                }
+                case "row" -> {
+                    boolean empty = cells.stream().allMatch(c -> c == null || c.isEmpty());
+                    if (!empty) handler.row(new ArrayList<>(cells));
+                }
+                default -> { }
+            }
+        }
+
+        private String cellValue() {
+            String raw = value.toString().trim();
+            if (raw.isEmpty()) return null;
+            if (cellType == null || "n".equals(cellType)) {
+                return dateStyles.get(cellStyle) ? formatDate(raw) : formatNumber(raw);
+            }
+            return switch (cellType) {
+                case "s" -> {
+                    int index = Integer.parseInt(raw);
+                    yield index < sharedStrings.size() ? sharedStrings.get(index).trim() : null;
+                }
+                case "b" -> "1".equals(raw) ? "true" : "false";
+                default -> raw; // str, inlineStr, e (#N/A, #DIV/0!)
+            };
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.dashboard.upload.progress;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Avance de una carga: etapa, bytes leídos de la etapa actual y filas
+ * parseadas. Lo escribe solo el hilo que procesa la carga y lo leen los envíos
+ * periódicos de UploadProgressRegistry, así que basta con campos volatile.
+ *
+ * Una carga sin uploadId usa untracked(): se actualiza igual pero nadie la lee.
+ */
+public class UploadProgress {
+
+    public enum Stage {
+        WAITING,    // Hay suscriptores pero el archivo aún no llegó
+        QUEUED,     // Archivo recibido, esperando turno en el control de admisión
+        SCANNING,   // Hash y charset
+        PARSING,
+        SAVING,
+        DONE,
+        ERROR,
+        REJECTED;   // Rechazada por admisión: se puede reintentar
+
+        public boolean isTerminal() {
+            return this == DONE || this == ERROR || this == REJECTED;
+        }
+    }
+
+    public record Snapshot(String uploadId, Stage stage, String fileName, long totalBytes, long bytesRead,
+                           long rowsParsed, long elapsedMs, Map<String, Object> result, String error) {}
+
+    private final String uploadId;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile Stage stage = Stage.WAITING;
+    private volatile String fileName;
+    private volatile long totalBytes;
+    private volatile long bytesRead;
+    private volatile long rowsParsed;
+    private volatile long startedAt;
+    private volatile long endedAt;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+
+    UploadProgress(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public static UploadProgress untracked() {
+        return new UploadProgress(null);
+    }
+
+    void begin(String fileName, long totalBytes) {
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+        this.startedAt = System.currentTimeMillis();
+        this.stage = Stage.QUEUED;
+    }
+
+    /**
+     * Pasa a otra etapa; los bytes leídos se cuentan de nuevo en cada etapa
+     */
+    public void stage(Stage stage) {
+        this.bytesRead = 0;
+        this.stage = stage;
+    }
+
+    public void rowParsed() {
+        rowsParsed++;
+    }
+
+    public void done(Map<String, Object> result) {
+        this.result = result;
+        this.endedAt = System.currentTimeMillis();
+        this.stage = Stage.DONE;
+    }
+
+    public void failed(Stage stage, String error) {
+        this.error = error;
+        this.endedAt = System.currentTimeMillis();
+        this.stage = stage;
+    }
+
+    /**
+     * Envuelve el stream para contar los bytes leídos en la etapa actual
+     */
+    public InputStream track(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) bytesRead++;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) bytesRead += n;
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                bytesRead += skipped;
+                return skipped;
+            }
+        };
+    }
+
+    public Stage stage() {
+        return stage;
+    }
+
+    long createdAt() {
+        return createdAt;
+    }
+
+    Snapshot snapshot() {
+        long end = endedAt > 0 ? endedAt : System.currentTimeMillis();
+        long elapsed = startedAt > 0 ? end - startedAt : 0;
+        return new Snapshot(uploadId, stage, fileName, totalBytes, bytesRead, rowsParsed, elapsed, result, error);
+    }
+}
@@ -0,0 +1,279 @@
+package com.dashboard.upload.progress;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Cargas en curso identificadas por un uploadId que genera el cliente. El
+ * cliente abre GET /csv/progress/{uploadId} (SSE) antes de subir el archivo y
+ * recibe el avance cada interval, no en cada fila.
+ *
+ * Una carga terminada se conserva retention, así un cliente que recarga la
+ * página con el mismo uploadId ve el resultado o sigue el avance en vez de
+ * subir el archivo otra vez. Un uploadId que ya se está procesando no se puede
+ * volver a subir (409).
+ *
+ * El registro es local a la instancia: la suscripción debe llegar a la misma
+ * réplica que la carga.
+ *
+ * Los eventos no se escriben en el hilo de flush: van a una cola acotada por
+ * suscriptor que vacían los hilos de uploadProgressSender, igual que en
+ * LiveUpdateHub de report-service. Un cliente que no lee no frena el avance de
+ * las demás cargas; si su cola se llena se cierra la conexión.
+ */
+@Component
+@Slf4j
+public class UploadProgressRegistry {
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("[A-Za-z0-9-]{8,64}");
+    private static final String EVENT_NAME = "progress";
+
+    // Marca en la cola: cerrar la conexión después de los eventos anteriores
+    private static final SseEmitter.SseEventBuilder COMPLETE = SseEmitter.event();
+
+    /**
+     * closed: la cola se desbordó. Lo cierra el hilo que la vacía: el envío en
+     * curso tiene tomado el lock del emitter y complete() esperaría por él.
+     */
+    private record Subscriber(SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue,
+                              AtomicBoolean draining, AtomicBoolean closed) {
+    }
+
+    private static final class Tracked {
+        final String uploadId;
+        final UploadProgress progress;
+        final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+        volatile UploadProgress.Snapshot lastSent;
+        volatile long lastSentAt;
+        volatile long finishedAt;
+
+        Tracked(String uploadId) {
+            this.uploadId = uploadId;
+            this.progress = new UploadProgress(uploadId);
+        }
+    }
+
+    private final Map<String, Tracked> uploads = new ConcurrentHashMap<>();
+    private final ExecutorService uploadProgressSender;
+    private final int maxTracked;
+    private final int queueSize;
+    private final Duration retention;
+    private final Duration heartbeat;
+    private final Duration timeout;
+
+    public UploadProgressRegistry(
+            ScheduledExecutorService uploadProgressScheduler,
+            ExecutorService uploadProgressSender,
+            @Value("${upload.progress.interval:500ms}") Duration interval,
+            @Value("${upload.progress.retention:10m}") Duration retention,
+            @Value("${upload.progress.heartbeat:20s}") Duration heartbeat,
+            @Value("${upload.progress.timeout:30m}") Duration timeout,
+            @Value("${upload.progress.max-tracked:1000}") int maxTracked,
+            @Value("${upload.progress.queue-size:32}") int queueSize) {
+        this.uploadProgressSender = uploadProgressSender;
+        this.queueSize = queueSize;
+        this.retention = retention;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.maxTracked = maxTracked;
+        uploadProgressScheduler.scheduleAtFixedRate(this::flush,
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marca el inicio de la carga del archivo.
+     * @throws IllegalArgumentException si el uploadId no es válido
+     * @throws IllegalStateException si la carga ya se está procesando
+     */
+    public UploadProgress start(String uploadId, String fileName, long totalBytes) {
+        Tracked tracked = track(uploadId);
+        synchronized (tracked) {
+            UploadProgress.Stage stage = tracked.progress.stage();
+            if (stage != UploadProgress.Stage.WAITING && !stage.isTerminal()) {
+                throw new IllegalStateException("La carga " + uploadId + " ya se está procesando");
+            }
+            if (stage.isTerminal()) {
+                // Reintento después de un error o de una carga terminada: se sigue como carga nueva.
+                // Quien seguía la anterior recibe antes su resultado, aunque flush no haya pasado todavía.
+                finish(tracked, tracked.progress.snapshot());
+                tracked = new Tracked(uploadId);
+                uploads.put(uploadId, tracked);
+            }
+            tracked.progress.begin(fileName, totalBytes);
+        }
+        log.debug("Carga {} iniciada: {} ({} bytes)", uploadId, fileName, totalBytes);
+        return tracked.progress;
+    }
+
+    /**
+     * Suscripción SSE al avance; el primer evento es el estado actual
+     * (WAITING si el archivo todavía no llegó).
+     */
+    public SseEmitter subscribe(String uploadId) {
+        Tracked tracked = track(uploadId);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(queueSize),
+                new AtomicBoolean(), new AtomicBoolean());
+        emitter.onCompletion(() -> tracked.subscribers.remove(emitter));
+        emitter.onTimeout(() -> tracked.subscribers.remove(emitter));
+        emitter.onError(e -> tracked.subscribers.remove(emitter));
+        tracked.subscribers.put(emitter, subscriber);
+
+        UploadProgress.Snapshot snapshot = tracked.progress.snapshot();
+        enqueue(tracked, subscriber, progressEvent(snapshot));
+        if (snapshot.stage().isTerminal()) {
+            tracked.subscribers.remove(emitter);
+            enqueue(tracked, subscriber, COMPLETE);
+        }
+        return emitter;
+    }
+
+    private Tracked track(String uploadId) {
+        if (uploadId == null || !UPLOAD_ID.matcher(uploadId).matches()) {
+            throw new IllegalArgumentException("uploadId inválido");
+        }
+        Tracked existing = uploads.get(uploadId);
+        if (existing != null) return existing;
+        if (uploads.size() >= maxTracked) {
+            throw new IllegalStateException("Demasiadas cargas en seguimiento");
+        }
+        return uploads.computeIfAbsent(uploadId, Tracked::new);
+    }
+
+    /**
+     * Encola el avance que cambió desde el último envío, cierra las
+     * suscripciones de cargas terminadas y olvida las que ya vencieron.
+     */
+    private void flush() {
+        long now = System.currentTimeMillis();
+        uploads.forEach((uploadId, tracked) -> {
+            try {
+                UploadProgress.Snapshot snapshot = tracked.progress.snapshot();
+                boolean terminal = snapshot.stage().isTerminal();
+                if (terminal) {
+                    finish(tracked, snapshot);
+                } else if (!tracked.subscribers.isEmpty()) {
+                    if (!snapshot.equals(tracked.lastSent)) {
+                        broadcast(tracked, progressEvent(snapshot));
+                        tracked.lastSent = snapshot;
+                        tracked.lastSentAt = now;
+                    } else if (now - tracked.lastSentAt >= heartbeat.toMillis()) {
+                        broadcast(tracked, SseEmitter.event().comment("ping"));
+                        tracked.lastSentAt = now;
+                    }
+                }
+
+                if (terminal && tracked.finishedAt == 0) {
+                    tracked.finishedAt = now;
+                }
+                // Terminadas: se olvidan después de retention; sin archivo: después de timeout
+                boolean expired = terminal
+                        ? now - tracked.finishedAt > retention.toMillis()
+                        : snapshot.stage() == UploadProgress.Stage.WAITING
+                                && now - tracked.progress.createdAt() > timeout.toMillis();
+                if (expired) {
+                    uploads.remove(uploadId, tracked);
+                }
+            } catch (Exception e) {
+                log.warn("Error enviando el avance de la carga {}: {}", uploadId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Envía el resultado final (si no se envió ya) y cierra las suscripciones
+     */
+    private void finish(Tracked tracked, UploadProgress.Snapshot snapshot) {
+        if (tracked.subscribers.isEmpty()) return;
+        if (!snapshot.equals(tracked.lastSent)) {
+            broadcast(tracked, progressEvent(snapshot));
+            tracked.lastSent = snapshot;
+            tracked.lastSentAt = System.currentTimeMillis();
+        }
+        tracked.subscribers.values().forEach(subscriber -> {
+            tracked.subscribers.remove(subscriber.emitter());
+            enqueue(tracked, subscriber, COMPLETE);
+        });
+    }
+
+    private void broadcast(Tracked tracked, SseEmitter.SseEventBuilder event) {
+        tracked.subscribers.values().forEach(subscriber -> enqueue(tracked, subscriber, event));
+    }
+
+    private static SseEmitter.SseEventBuilder progressEvent(UploadProgress.Snapshot snapshot) {
+        return SseEmitter.event().name(EVENT_NAME).data(snapshot, MediaType.APPLICATION_JSON);
+    }
+
+    private void enqueue(Tracked tracked, Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue().offer(event)) {
+            log.debug("Suscriptor del avance de {} no lee al ritmo de los eventos, se cierra",
+                    tracked.uploadId);
+            tracked.subscribers.remove(subscriber.emitter());
+            subscriber.closed().set(true);
+        }
+        scheduleDrain(tracked, subscriber);
+    }
+
+    /**
+     * Un solo envío en curso por suscriptor, así los eventos salen en orden
+     */
+    private void scheduleDrain(Tracked tracked, Subscriber subscriber) {
+        if (!subscriber.draining().compareAndSet(false, true)) return;
+        try {
+            uploadProgressSender.execute(() -> drain(tracked, subscriber));
+        } catch (RejectedExecutionException e) {
+            // Apagando el servicio
+            subscriber.draining().set(false);
+        }
+    }
+
+    private void drain(Tracked tracked, Subscriber subscriber) {
+        SseEmitter.SseEventBuilder event;
+        while ((event = subscriber.queue().poll()) != null) {
+            if (subscriber.closed().get()) {
+                subscriber.queue().clear();
+                subscriber.emitter().complete();
+                break;
+            }
+            if (event == COMPLETE) {
+                subscriber.emitter().complete();
+            } else if (!send(tracked, subscriber.emitter(), event)) {
+                subscriber.queue().clear();
+                break;
+            }
+        }
+        subscriber.draining().set(false);
+        // Lo encolado entre el último poll y el set(false) no debe quedar esperando al próximo evento
+        if (!subscriber.queue().isEmpty()) {
+            scheduleDrain(tracked, subscriber);
+        }
+    }
+
+    private boolean send(Tracked tracked, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: la carga sigue
+            tracked.subscribers.remove(emitter);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.dashboard.upload.repository;
 
 import com.dashboard.upload.model.CsvReport;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CsvReportRepository extends MongoRepository<CsvReport, String> {
@@ -12,4 +14,10 @@ public interface CsvReportRepository extends MongoRepository<CsvReport, String>
     List<CsvReport> findByStatus(String status);
     List<CsvReport> findByUserIdOrderByUploadedAtDesc(Long userId);
     List<CsvReport> findByIsPublicTrueOrUserId(Long userId);
+    Optional<CsvReport> findFirstByUserIdAndCategoryAndPeriodAndContentHashAndStatus(
+            Long userId, String category, String period, String contentHash, String status);
+
+    // Carga el reporte sin las filas de muestra
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'rows': 0 }")
+    Optional<CsvReport> findWithoutRowsById(String id);
 }
@@ -0,0 +1,202 @@
+package com.dashboard.upload.service;
+
+import com.dashboard.upload.admission.UploadAdmissionLimiter;
+import com.dashboard.upload.admission.UploadRejectedException;
+import com.dashboard.upload.model.CsvReport;
+import com.dashboard.upload.parser.UploadFormat;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Carga masiva: procesa varios archivos en paralelo sobre un pool acotado y
+ * guarda los reportes nuevos en una sola escritura bulk. Cada archivo tiene su
+ * propio resultado; un archivo con error no cancela a los demás.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BulkUploadService {
+
+    // "Llamadas_Emergencia_2025-10", "mascotas 202511", "ventas-2024"
+    private static final Pattern YEAR_MONTH_SUFFIX = Pattern.compile("^(.*?)[\\s_.-]*(\\d{4})[-_.]?(0[1-9]|1[0-2])$");
+    private static final Pattern MONTH_YEAR_SUFFIX = Pattern.compile("^(.*?)[\\s_.-]*(0[1-9]|1[0-2])[-_.](\\d{4})$");
+    private static final Pattern YEAR_SUFFIX = Pattern.compile("^(.*?)[\\s_.-]*((?:19|20)\\d{2})$");
+
+    private final CsvService csvService;
+    private final UploadAdmissionLimiter admissionLimiter;
+    private final ExecutorService bulkUploadExecutor;
+
+    public List<FileResult> uploadBulk(List<MultipartFile> files, Long userId,
+                                       List<String> categories, List<String> periods,
+                                       String defaultCategory, String defaultPeriod, boolean isPublic) {
+        log.info("Carga masiva de {} archivos para usuario: {}", files.size(), userId);
+
+        List<CompletableFuture<Processed>> futures = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String category = pick(categories, i, defaultCategory);
+            String period = pick(periods, i, defaultPeriod);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> process(file, userId, category, period, isPublic), bulkUploadExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        List<Processed> processed = futures.stream().map(CompletableFuture::join).toList();
+        FileResult[] results = new FileResult[processed.size()];
+
+        // Un mismo archivo repetido en la carga (misma categoría y período) se guarda una sola vez
+        Map<String, Integer> firstByKey = new HashMap<>();
+        Map<Integer, Integer> repeatedOf = new LinkedHashMap<>();
+        List<Integer> toInsert = new ArrayList<>();
+        for (int i = 0; i < processed.size(); i++) {
+            Processed item = processed.get(i);
+            CsvReport report = item.report();
+            if (report == null) {
+                results[i] = item.result();
+            } else if (report.isDuplicate()) {
+                results[i] = FileResult.of(item.fileName(), report, "DUPLICATE");
+            } else {
+                String key = report.getCategory() + '\u0000' + report.getPeriod() + '\u0000' + report.getContentHash();
+                Integer first = firstByKey.putIfAbsent(key, i);
+                if (first == null) {
+                    toInsert.add(i);
+                } else {
+                    repeatedOf.put(i, first);
+                }
+            }
+        }
+
+        List<CsvReport> newReports = toInsert.stream().map(i -> processed.get(i).report()).toList();
+        Set<Integer> failedWrites = new HashSet<>();
+        String writeError = null;
+        try {
+            csvService.saveAll(newReports);
+        } catch (BulkOperationException e) {
+            // UNORDERED: el resto de documentos sí se insertaron (saveAll ya publicó sus eventos)
+            writeError = e.getMessage();
+            for (BulkWriteError error : e.getErrors()) {
+                failedWrites.add(error.getIndex());
+            }
+            log.error("Carga masiva: {} reportes no se pudieron guardar", failedWrites.size());
+        } catch (Exception e) {
+            writeError = e.getMessage();
+            for (int j = 0; j < newReports.size(); j++) failedWrites.add(j);
+            log.error("Error guardando carga masiva: {}", e.getMessage(), e);
+        }
+
+        for (int j = 0; j < toInsert.size(); j++) {
+            int i = toInsert.get(j);
+            CsvReport report = newReports.get(j);
+            results[i] = failedWrites.contains(j)
+                    ? new FileResult(processed.get(i).fileName(), report.getCategory(), report.getPeriod(),
+                            "ERROR", null, null, "Error guardando reporte: " + writeError)
+                    : FileResult.of(processed.get(i).fileName(), report, "UPLOADED");
+        }
+
+        repeatedOf.forEach((i, first) -> {
+            FileResult original = results[first];
+            results[i] = new FileResult(processed.get(i).fileName(), original.category(), original.period(),
+                    "DUPLICATE", original.reportId(), original.rowCount(),
+                    "Repetido en la carga: " + original.fileName());
+        });
+
+        log.info("Carga masiva terminada: {} guardados, {} archivos en total",
+                toInsert.size() - failedWrites.size(), files.size());
+        return Arrays.asList(results);
+    }
+
+    private Processed process(MultipartFile file, Long userId, String category, String period, boolean isPublic) {
+        String fileName = file.getOriginalFilename();
+        UploadFormat format = UploadFormat.fromFileName(fileName);
+        if (format == null) {
+            return Processed.failed(fileName, category, period, "ERROR", "Solo se permiten archivos " + UploadFormat.SUPPORTED);
+        }
+        if (file.isEmpty()) {
+            return Processed.failed(fileName, category, period, "ERROR", "El archivo está vacío");
+        }
+
+        // Lo que no se indicó se deduce del nombre del archivo
+        if (isBlank(category) || isBlank(period)) {
+            String[] derived = deriveCategoryAndPeriod(format.baseName(fileName));
+            if (isBlank(category)) category = derived[0];
+            if (isBlank(period)) period = derived[1];
+        }
+        if (isBlank(category) || isBlank(period)) {
+            return Processed.failed(fileName, category, period, "ERROR",
+                    "No se pudo deducir la categoría o el período del nombre del archivo");
+        }
+
+        try (var permit = admissionLimiter.acquire(file.getSize())) {
+            return new Processed(fileName, csvService.prepareReport(file, userId, category, period, isPublic), null);
+        } catch (UploadRejectedException e) {
+            return Processed.failed(fileName, category, period, "REJECTED", e.getMessage());
+        } catch (Exception e) {
+            log.error("Error procesando {} en carga masiva: {}", fileName, e.getMessage());
+            return Processed.failed(fileName, category, period, "ERROR", e.getMessage());
+        }
+    }
+
+    /**
+     * Deduce {categoría, período} de un nombre como "Llamadas_Emergencia_2025-10".
+     * El período queda como yyyy-MM (o yyyy); lo que no se pueda deducir queda null.
+     */
+    private static String[] deriveCategoryAndPeriod(String baseName) {
+        String name = baseName.contains("/") ? baseName.substring(baseName.lastIndexOf('/') + 1) : baseName;
+        name = name.trim();
+
+        String category = name;
+        String period = null;
+        Matcher matcher;
+        if ((matcher = YEAR_MONTH_SUFFIX.matcher(name)).matches()) {
+            category = matcher.group(1);
+            period = matcher.group(2) + "-" + matcher.group(3);
+        } else if ((matcher = MONTH_YEAR_SUFFIX.matcher(name)).matches()) {
+            category = matcher.group(1);
+            period = matcher.group(3) + "-" + matcher.group(2);
+        } else if ((matcher = YEAR_SUFFIX.matcher(name)).matches()) {
+            category = matcher.group(1);
+            period = matcher.group(2);
+        }
+        category = category.replaceAll("[_\\s]+", " ").replaceAll("^[\\s.-]+|[\\s.-]+$", "");
+        return new String[]{category.isEmpty() ? null : category, period};
+    }
+
+    private static String pick(List<String> values, int index, String fallback) {
+        if (values != null && index < values.size() && !isBlank(values.get(index))) {
+            return values.get(index);
+        }
+        return fallback;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Resultado de un archivo: UPLOADED, DUPLICATE, ERROR o REJECTED (admisión, reintentar)
+     */
+    public record FileResult(String fileName, String category, String period, String status,
+                             String reportId, Integer rowCount, String error) {
+
+        static FileResult of(String fileName, CsvReport report, String status) {
+            return new FileResult(fileName, report.getCategory(), report.getPeriod(), status,
+                    report.getId(), report.getRowCount(), null);
+        }
+    }
+
+    private record Processed(String fileName, CsvReport report, FileResult result) {
+        static Processed failed(String fileName, String category, String period, String status, String error) {
+            return new Processed(fileName, null, new FileResult(fileName, category, period, status, null, null, error));
+        }
+    }
+}
@@ -1,213 +1,590 @@
 package com.dashboard.upload.service;
 
+import com.dashboard.upload.event.ReportChangedEvent;
+import com.dashboard.upload.event.ReportEventPublisher;
+import com.dashboard.upload.event.ReportStreamPublisher;
+import com.dashboard.upload.jfr.IngestStageEvent;
 import com.dashboard.upload.model.CsvReport;
+import com.dashboard.upload.parser.CharsetSniffer;
+import com.dashboard.upload.parser.CsvTableReader;
+import com.dashboard.upload.parser.DecompressedSizeExceededException;
+import com.dashboard.upload.parser.KnownColumns;
+import com.dashboard.upload.parser.LimitedInputStream;
+import com.dashboard.upload.parser.ParsedCsv;
+import com.dashboard.upload.parser.UploadFormat;
+import com.dashboard.upload.parser.XlsxSheetReader;
+import com.dashboard.upload.progress.UploadProgress;
 import com.dashboard.upload.repository.CsvReportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class CsvService {
 
+    private static final int MAX_SAMPLE_ROWS = 1000; // Limitar a 1000 filas para evitar exceder 16MB
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private final CsvReportRepository csvReportRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ReportEventPublisher reportEventPublisher;
+    private final ReportStreamPublisher reportStreamPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+
+    // Zona horaria de las fechas sin zona explícita en los CSV
+    @Value("${upload.dates.zone:America/Bogota}")
+    private ZoneId dateZone;
 
-    public CsvReport uploadAndParseCsv(MultipartFile file, Long userId, String category, String period, boolean isPublic) throws Exception {
+    // Máximo del contenido descomprimido de .csv.gz, .csv.zst, .zip y .xlsx
+    @Value("${upload.max-decompressed-size:512MB}")
+    private DataSize maxDecompressedSize;
+
+    public CsvReport uploadAndParseCsv(MultipartFile file, Long userId, String category, String period, boolean isPublic,
+                                       UploadProgress progress) throws Exception {
         log.info("Procesando CSV: {} para usuario: {}, categoría: {}, período: {}", 
                 file.getOriginalFilename(), userId, category, period);
 
+        CsvReport report = prepareReport(file, userId, category, period, isPublic, progress);
+        if (report.isDuplicate()) return report;
+
+        progress.stage(UploadProgress.Stage.SAVING);
+        long saveStarted = System.nanoTime();
+        CsvReport saved = csvReportRepository.save(report);
+        stageCompleted(formatOf(file), "save", System.nanoTime() - saveStarted);
+        reportStreamPublisher.ingested(saved);
+        reportEventPublisher.publish(ReportChangedEvent.created(saved));
+        return saved;
+    }
+
+    /**
+     * Guarda varios reportes ya parseados en una sola escritura bulk. Los ids se
+     * asignan antes de insertar para poder devolverlos a cada archivo.
+     *
+     * La escritura es UNORDERED: si algunos documentos fallan, los demás sí se
+     * insertaron. Se publican los eventos de esos y se relanza la
+     * BulkOperationException para que quien llama marque los que fallaron.
+     */
+    public List<CsvReport> saveAll(List<CsvReport> reports) {
+        if (reports.isEmpty()) return reports;
+        reports.forEach(report -> report.setId(new ObjectId().toHexString()));
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CsvReport.class)
+                    .insert(reports)
+                    .execute();
+        } catch (BulkOperationException e) {
+            Set<Integer> failed = new HashSet<>();
+            e.getErrors().forEach(error -> failed.add(error.getIndex()));
+            for (int i = 0; i < reports.size(); i++) {
+                if (!failed.contains(i)) publishCreated(reports.get(i));
+            }
+            throw e;
+        }
+        reports.forEach(this::publishCreated);
+        return reports;
+    }
+
+    private void publishCreated(CsvReport report) {
+        reportStreamPublisher.ingested(report);
+        reportEventPublisher.publish(ReportChangedEvent.created(report));
+    }
+
+    /**
+     * Parsea el archivo y arma el reporte sin guardarlo. Si el mismo archivo ya
+     * fue cargado con el mismo dueño, categoría y período devuelve el reporte
+     * existente marcado como duplicado.
+     */
+    public CsvReport prepareReport(MultipartFile file, Long userId, String category, String period, boolean isPublic) throws Exception {
+        return prepareReport(file, userId, category, period, isPublic, UploadProgress.untracked());
+    }
+
+    private CsvReport prepareReport(MultipartFile file, Long userId, String category, String period, boolean isPublic,
+                                    UploadProgress progress) throws Exception {
         // Sanitizar categoría y período
         category = sanitizeString(category);
         period = sanitizeString(period);
 
+        // Primera pasada sobre el archivo: SHA-256 y charset, sin cargarlo en memoria
+        UploadFormat format = formatOf(file);
+        FileScan scan = scan(file, format, true, progress);
+        String contentHash = scan.sha256();
+
+        // Mismo archivo, dueño, categoría y período: devolver el reporte existente sin re-parsear
+        Optional<CsvReport> existing = csvReportRepository.findFirstByUserIdAndCategoryAndPeriodAndContentHashAndStatus(
+                userId, category, period, contentHash, "UPLOADED");
+        if (existing.isPresent()) {
+            CsvReport duplicate = existing.get();
+            log.info("Archivo repetido (sha256 {}), reutilizando reporte {}", contentHash, duplicate.getId());
+            // Sin cambios: la visibilidad se cambia de forma explícita sobre el reporte
+            if (duplicate.isPublic() != isPublic) {
+                log.info("El reporte {} conserva su visibilidad (público: {})", duplicate.getId(), duplicate.isPublic());
+            }
+            duplicate.setDuplicate(true);
+            return duplicate;
+        }
+
         // Crear entidad inicial
         CsvReport report = new CsvReport();
         report.setUserId(userId);
         report.setFileName(UUID.randomUUID().toString());
         report.setOriginalFileName(file.getOriginalFilename());
         report.setFileSize(file.getSize());
+        report.setContentHash(contentHash);
         report.setCategory(category);
         report.setPeriod(period);
         report.setUploadedAt(java.time.LocalDateTime.now());
         report.setStatus("PROCESSING");
         report.setPublic(isPublic);
 
-        // Detectar charset del archivo
-        byte[] fileBytes = file.getBytes();
-        Charset detectedCharset = detectCharset(fileBytes);
-        log.info("Charset detectado: {}", detectedCharset);
-
-        // Leer el archivo con el charset detectado
-        try (BufferedReader reader = new BufferedReader(
-            new InputStreamReader(new java.io.ByteArrayInputStream(fileBytes), detectedCharset))) {
-
-            // Detectar delimitador leyendo la primera línea
-            reader.mark(8192);
-            String firstLine = reader.readLine();
-            reader.reset();
-            
-            char delimiter = detectDelimiter(firstLine);
-            log.info("Delimitador detectado: '{}'", delimiter);
-            report.setDelimiter(String.valueOf(delimiter));
-
-            // Parse CSV con Apache Commons CSV
-            CSVParser csvParser = CSVFormat.DEFAULT
-                    .withDelimiter(delimiter)
-                    .withFirstRecordAsHeader()
-                    .withIgnoreHeaderCase()
-                    .withTrim()
-                    .parse(reader);
-
-            // Extraer headers
-            List<String> headers = new ArrayList<>(csvParser.getHeaderNames());
-            report.setHeaders(headers);
-
-            // Parsear filas - SOLO GUARDAR MUESTRA (primeras 1000 filas para preview)
-            List<Map<String, Object>> sampleRows = new ArrayList<>();
-            int totalRowCount = 0;
-            int maxSampleRows = 1000; // Limitar a 1000 filas para evitar exceder 16MB
-            
-            for (CSVRecord csvRecord : csvParser) {
-                totalRowCount++;
-                
-                // Solo guardar las primeras 1000 filas como muestra
-                if (sampleRows.size() < maxSampleRows) {
-                    Map<String, Object> row = new HashMap<>();
-                    for (String header : headers) {
-                        String value = csvRecord.get(header);
-                        // Intentar convertir a número si es posible
-                        row.put(header, parseValue(value));
-                    }
-                    sampleRows.add(row);
-                }
-            }
-
-            report.setRows(sampleRows); // Solo muestra
-            report.setRowCount(totalRowCount); // Total real de filas
+        try {
+            long parseStarted = System.nanoTime();
+            ParsedCsv parsed = parseUpload(file, format, scan.charset(), KnownColumns.NONE, dateZone,
+                    MAX_SAMPLE_ROWS, progress);
+            recordRows(format, parsed.totalRows(), System.nanoTime() - parseStarted);
+            report.setDelimiter(format == UploadFormat.XLSX ? null : String.valueOf(parsed.delimiter()));
+            report.setHeaders(parsed.headers());
+            report.setRows(parsed.rows()); // Solo muestra
+            report.setRowCount(parsed.totalRows()); // Total real de filas
             report.setStatus("UPLOADED");
 
             // Generar metadata básica
             Map<String, Object> metadata = new HashMap<>();
-            metadata.put("totalColumns", headers.size());
-            metadata.put("totalRows", totalRowCount);
-            metadata.put("sampleRows", sampleRows.size());
-            metadata.put("isSample", totalRowCount > maxSampleRows);
+            metadata.put("totalColumns", parsed.headers().size());
+            metadata.put("totalRows", parsed.totalRows());
+            metadata.put("sampleRows", parsed.rows().size());
+            metadata.put("isSample", parsed.totalRows() > MAX_SAMPLE_ROWS);
             metadata.put("uploadTimestamp", System.currentTimeMillis());
+            if (!parsed.dateColumns().isEmpty()) {
+                // Las fechas se guardan como epoch en milisegundos
+                metadata.put("dateColumns", parsed.dateColumns());
+                metadata.put("dateZone", dateZone.getId());
+            }
+            // Los CSV incrementales usan los mismos separadores decimales
+            Map<String, String> numberFormats = new LinkedHashMap<>();
+            parsed.numberFormats().forEach((column, separator) -> {
+                if (!column.contains(".")) numberFormats.put(column, separator);
+            });
+            if (!numberFormats.isEmpty()) {
+                metadata.put("numberFormats", numberFormats);
+            }
             report.setMetadata(metadata);
 
-            log.info("CSV parseado exitosamente: {} filas totales, {} columnas, {} filas en muestra", 
-                    totalRowCount, headers.size(), sampleRows.size());
-
+        } catch (DecompressedSizeExceededException e) {
+            log.warn("Carga rechazada: {}", e.getMessage());
+            report.setStatus("ERROR");
+            throw e;
         } catch (Exception e) {
             log.error("Error parseando CSV: {}", e.getMessage(), e);
             report.setStatus("ERROR");
             throw new Exception("Error procesando CSV: " + e.getMessage());
         }
 
-        return csvReportRepository.save(report);
+        return report;
     }
 
-    private char detectDelimiter(String line) {
-        if (line == null || line.isEmpty()) {
-            return ','; // default
+    /**
+     * Agrega las filas de un CSV incremental (p. ej. el corte diario) a un reporte
+     * existente. Solo se leen los encabezados del reporte y la actualización se hace
+     * en el servidor (pipeline de actualización), así el costo depende del tamaño
+     * del delta y no del período. El delimitador, las columnas de fecha, su zona y
+     * los separadores decimales son los guardados en el reporte; solo se detectan
+     * los de las demás columnas.
+     */
+    public CsvReport appendCsv(String reportId, MultipartFile file, Long userId) throws Exception {
+        log.info("Agregando CSV: {} al reporte: {} de usuario: {}", file.getOriginalFilename(), reportId, userId);
+
+        CsvReport report = csvReportRepository.findWithoutRowsById(reportId)
+                .filter(r -> userId.equals(r.getUserId()))
+                .orElseThrow(() -> new IllegalArgumentException("Reporte no encontrado"));
+        if (!"UPLOADED".equals(report.getStatus())) {
+            throw new IllegalArgumentException("El reporte no admite nuevas filas en estado " + report.getStatus());
+        }
+
+        Map<String, Object> metadata = report.getMetadata() != null ? report.getMetadata() : new HashMap<>();
+        // Solo para no convertir filas que no caben; el cupo real lo aplica el $slice
+        int storedSampleRows = metadata.get("sampleRows") instanceof Number n ? n.intValue() : MAX_SAMPLE_ROWS;
+        int remainingSample = Math.max(0, MAX_SAMPLE_ROWS - storedSampleRows);
+
+        Map<String, String> knownDates = storedColumns(metadata, "dateColumns");
+        Map<String, String> knownFormats = storedColumns(metadata, "numberFormats");
+        String delimiter = report.getDelimiter();
+        KnownColumns known = new KnownColumns(
+                delimiter != null && delimiter.length() == 1 ? delimiter.charAt(0) : null, knownDates, knownFormats);
+        boolean zoneStored = metadata.get("dateZone") instanceof String;
+        ZoneId reportZone = zoneStored ? ZoneId.of((String) metadata.get("dateZone")) : dateZone;
+
+        ParsedCsv parsed;
+        try {
+            UploadFormat format = formatOf(file);
+            UploadProgress untracked = UploadProgress.untracked();
+            // Sin SHA-256: el reporte deja de tener contentHash al agregar filas
+            Charset charset = format == UploadFormat.CSV ? scan(file, format, false, untracked).charset() : null;
+            parsed = parseUpload(file, format, charset, known, reportZone, remainingSample, untracked);
+        } catch (DecompressedSizeExceededException e) {
+            log.warn("CSV incremental rechazado: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Error parseando CSV incremental: {}", e.getMessage(), e);
+            throw new Exception("Error procesando CSV: " + e.getMessage());
+        }
+
+        // Las columnas deben coincidir (sin importar orden ni mayúsculas)
+        if (!ParsedCsv.sameColumns(report.getHeaders(), parsed.headers())) {
+            throw new IllegalArgumentException("Los encabezados no coinciden con el reporte: esperado "
+                    + report.getHeaders() + ", recibido " + parsed.headers());
+        }
+        List<Map<String, Object>> rows = ParsedCsv.renameToHeaders(parsed.rows(), report.getHeaders());
+
+        // Pipeline de actualización: sampleRows e isSample salen del arreglo ya
+        // recortado y del rowCount ya incrementado, no de lo leído antes de
+        // parsear, así dos agregados concurrentes no los desincronizan
+        AggregationUpdate update = AggregationUpdate.update()
+                .set(SetOperation.builder()
+                        .set("rowCount").toValue(plus("rowCount", parsed.totalRows()))
+                        .and().set("metadata.totalRows").toValue(plus("metadata.totalRows", parsed.totalRows()))
+                        .and().set("metadata.appendCount").toValue(plus("metadata.appendCount", 1))
+                        .and().set("metadata.lastAppendTimestamp").toValue(System.currentTimeMillis()))
+                // El contenido ya no corresponde al archivo original
+                .unset("contentHash");
+        if (!rows.isEmpty()) {
+            // $literal: un texto como "$total" no debe leerse como referencia a un campo
+            update.set("rows").toValue(ArrayOperators.Slice.sliceArrayOf(
+                    ArrayOperators.ConcatArrays.arrayOf(ConditionalOperators.ifNull("rows").then(List.of()))
+                            .concat(LiteralOperators.Literal.asLiteral(rows)))
+                    .itemCount(MAX_SAMPLE_ROWS));
         }
-        
-        // Contar ocurrencias de delimitadores comunes
-        int commaCount = (int) line.chars().filter(c -> c == ',').count();
-        int semicolonCount = (int) line.chars().filter(c -> c == ';').count();
-        int tabCount = (int) line.chars().filter(c -> c == '\t').count();
-        int pipeCount = (int) line.chars().filter(c -> c == '|').count();
-        
-        // Retornar el que más aparece
-        if (semicolonCount > commaCount && semicolonCount > tabCount && semicolonCount > pipeCount) {
-            return ';';
-        } else if (tabCount > commaCount && tabCount > semicolonCount && tabCount > pipeCount) {
-            return '\t';
-        } else if (pipeCount > commaCount && pipeCount > semicolonCount && pipeCount > tabCount) {
-            return '|';
+        update.set(SetOperation.builder()
+                .set("metadata.sampleRows").toValue(ArrayOperators.Size.lengthOfArray("rows"))
+                .and().set("metadata.isSample").toValue(
+                        ComparisonOperators.Gt.valueOf("rowCount").greaterThan(ArrayOperators.Size.lengthOfArray("rows"))));
+
+        // Columnas de fecha y separadores decimales nuevos, con el nombre que tienen en el reporte
+        Map<String, String> newDates = newColumns(parsed.dateColumns(), knownDates, report.getHeaders());
+        Map<String, String> newFormats = newColumns(parsed.numberFormats(), knownFormats, report.getHeaders());
+        newDates.forEach((column, pattern) -> update.set("metadata.dateColumns." + column).toValue(pattern));
+        newFormats.forEach((column, separator) -> update.set("metadata.numberFormats." + column).toValue(separator));
+        if (!newDates.isEmpty() && !zoneStored) {
+            update.set("metadata.dateZone").toValue(reportZone.getId());
         }
-        return ','; // default
+
+        Query query = Query.query(Criteria.where("_id").is(reportId));
+        query.fields().exclude("rows");
+        // El resumen del stream refleja el estado después de la actualización
+        CsvReport updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), CsvReport.class);
+        if (updated == null) {
+            throw new IllegalArgumentException("Reporte no encontrado");
+        }
+        log.info("CSV incremental agregado: {} filas nuevas, {} en muestra, {} filas totales",
+                parsed.totalRows(), updated.getMetadata().get("sampleRows"), updated.getRowCount());
+
+        reportStreamPublisher.ingested(updated);
+        reportEventPublisher.publish(ReportChangedEvent.appended(updated));
+        return updated;
     }
 
-    private Object parseValue(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return null;
+    /**
+     * Columnas guardadas en la metadata (columna -> patrón o separador)
+     */
+    private static Map<String, String> storedColumns(Map<String, Object> metadata, String key) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        if (metadata.get(key) instanceof Map<?, ?> stored) {
+            stored.forEach((column, value) -> columns.put(String.valueOf(column), String.valueOf(value)));
         }
-        
-        // Intentar parsear como número
-        try {
-            if (value.contains(".")) {
-                return Double.parseDouble(value);
-            } else {
-                return Long.parseLong(value);
+        return columns;
+    }
+
+    /**
+     * Lo detectado en el delta que el reporte todavía no tenía, con el nombre de
+     * columna del reporte. Las columnas con punto no pueden ser claves de la metadata.
+     */
+    private static Map<String, String> newColumns(Map<String, String> detected, Map<String, String> known,
+                                                  List<String> headers) {
+        Map<String, String> reportHeaders = new HashMap<>();
+        headers.forEach(h -> reportHeaders.put(h.toLowerCase(Locale.ROOT), h));
+        Map<String, String> knownByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        knownByName.putAll(known);
+        Map<String, String> added = new LinkedHashMap<>();
+        detected.forEach((column, value) -> {
+            String header = reportHeaders.get(column.toLowerCase(Locale.ROOT));
+            if (!knownByName.containsKey(column) && !header.contains(".")) {
+                added.put(header, value);
             }
-        } catch (NumberFormatException e) {
-            // Si no es número, devolver como string
-            return value;
+        });
+        return added;
+    }
+
+    /**
+     * Suma sobre el valor guardado del campo, que puede no existir (appendCount)
+     */
+    private static AggregationExpression plus(String field, int amount) {
+        return ArithmeticOperators.Add.valueOf(ConditionalOperators.ifNull(field).then(0)).add(amount);
+    }
+
+    private UploadFormat formatOf(MultipartFile file) {
+        UploadFormat format = UploadFormat.fromFileName(file.getOriginalFilename());
+        if (format == null) {
+            throw new IllegalArgumentException("Formato no soportado, use " + UploadFormat.SUPPORTED);
         }
+        return format;
     }
 
     /**
-     * Sanitiza la categoría y período para eliminar caracteres dañados o inválidos
+     * Recorre el archivo subido una vez para calcular su SHA-256 (si hash es true)
+     * y, si es un CSV plano, validar el charset con todos sus bytes. Para archivos
+     * comprimidos el charset se detecta después con un prefijo del contenido
+     * descomprimido; los .xlsx siempre son UTF-8.
      */
-    private String sanitizeString(String input) {
-        if (input == null) return "";
-        // Elimina caracteres de control y caracteres no imprimibles
-        return input.replaceAll("[\\p{Cc}\\p{Cf}\\p{Co}\\p{Cn}]", "")
-                   .trim();
+    private FileScan scan(MultipartFile file, UploadFormat format, boolean hash, UploadProgress progress) throws Exception {
+        MessageDigest digest = hash ? MessageDigest.getInstance("SHA-256") : null;
+        CharsetSniffer sniffer = format == UploadFormat.CSV ? new CharsetSniffer() : null;
+
+        progress.stage(UploadProgress.Stage.SCANNING);
+        long started = System.nanoTime();
+        try (InputStream in = progress.track(file.getInputStream())) {
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (digest != null) digest.update(buffer, 0, read);
+                if (sniffer != null) sniffer.update(buffer, 0, read);
+            }
+        }
+        FileScan scan = new FileScan(digest != null ? HexFormat.of().formatHex(digest.digest()) : null,
+                sniffer != null ? sniffer.result(true) : null);
+        stageCompleted(format, "scan", System.nanoTime() - started);
+        return scan;
     }
 
+    private record FileScan(String sha256, Charset charset) {}
+
     /**
-     * Detecta el charset del archivo con prioridad para archivos latinoamericanos
+     * Parsea el archivo subido descomprimiéndolo al vuelo. Las entradas CSV de un
+     * ZIP se tratan como partes del mismo reporte y deben tener las mismas columnas;
+     * el delimitador, las fechas y los separadores decimales se detectan con la
+     * primera y las siguientes los reutilizan.
      */
-    private Charset detectCharset(byte[] bytes) {
-        // Respeta BOM explícitos
-        if (bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) {
-            log.info("Detectado UTF-8 con BOM");
-            return StandardCharsets.UTF_8;
-        }
-        if (bytes.length >= 2) {
-            if (bytes[0] == (byte) 0xFF && bytes[1] == (byte) 0xFE) {
-                log.info("Detectado UTF-16LE");
-                return Charset.forName("UTF-16LE");
+    private ParsedCsv parseUpload(MultipartFile file, UploadFormat format, Charset charset, KnownColumns known,
+                                  ZoneId zone, int maxSampleRows, UploadProgress progress) throws Exception {
+        progress.stage(UploadProgress.Stage.PARSING);
+        if (format == UploadFormat.XLSX) {
+            return parseXlsx(file, known, zone, maxSampleRows, progress);
+        }
+        // Los bytes se cuentan antes de descomprimir, para compararlos con el tamaño del archivo
+        try (InputStream raw = progress.track(file.getInputStream())) {
+            if (format != UploadFormat.ZIP) {
+                return tableReader(format, zone).read(format.decode(raw, maxDecompressedSize.toBytes()), charset, known,
+                        maxSampleRows, progress);
+            }
+
+            ZipInputStream zip = new ZipInputStream(new BufferedInputStream(raw, STREAM_BUFFER_SIZE));
+            // El máximo cuenta todas las entradas juntas
+            InputStream entries = new LimitedInputStream(zip, maxDecompressedSize.toBytes());
+            ParsedCsv merged = null;
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (entry.isDirectory() || name.startsWith("__MACOSX/")
+                        || UploadFormat.fromFileName(name) != UploadFormat.CSV) {
+                    continue;
+                }
+                log.info("Leyendo entrada {} del ZIP", name);
+                int remaining = merged == null ? maxSampleRows : maxSampleRows - merged.rows().size();
+                ParsedCsv part = tableReader(format, zone).read(entries, null, known, remaining, progress);
+                if (merged == null) {
+                    merged = part;
+                    // Las demás entradas son partes del mismo reporte: usan lo detectado en la primera
+                    known = known.with(part);
+                } else {
+                    merged = merged.plus(part, name);
+                }
             }
-            if (bytes[0] == (byte) 0xFE && bytes[1] == (byte) 0xFF) {
-                log.info("Detectado UTF-16BE");
-                return Charset.forName("UTF-16BE");
+            if (merged == null) {
+                throw new IllegalArgumentException("El archivo ZIP no contiene archivos CSV");
             }
+            return merged;
         }
+    }
 
-        // Validar UTF-8 primero para evitar decodificaciones erróneas (Ñ -> ¥)
+    /**
+     * Lee la primera hoja de un .xlsx con el lector SAX. El .xlsx es un ZIP que
+     * necesita acceso aleatorio (los textos compartidos suelen ir después de la
+     * hoja), así que se copia a un archivo temporal en vez de leerlo en memoria.
+     */
+    private ParsedCsv parseXlsx(MultipartFile file, KnownColumns known, ZoneId zone, int maxSampleRows,
+                                UploadProgress progress) throws Exception {
+        Path temp = Files.createTempFile("upload-", ".xlsx");
         try {
-            var decoder = StandardCharsets.UTF_8.newDecoder();
-            decoder.onMalformedInput(java.nio.charset.CodingErrorAction.REPORT);
-            decoder.onUnmappableCharacter(java.nio.charset.CodingErrorAction.REPORT);
-            decoder.decode(java.nio.ByteBuffer.wrap(bytes));
-            log.info("Usando UTF-8 tras validación");
-            return StandardCharsets.UTF_8;
-        } catch (Exception e) {
-            log.info("UTF-8 no válido, probando Windows-1252");
+            try (InputStream in = progress.track(file.getInputStream())) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            List<String> headers = new ArrayList<>();
+            List<String[]> rawRows = new ArrayList<>();
+            int[] totalRowCount = {0};
+            long parseStarted = System.nanoTime();
+            XlsxSheetReader.read(temp, maxDecompressedSize.toBytes(), cells -> {
+                // La primera fila con datos son los encabezados
+                if (headers.isEmpty()) {
+                    headers.addAll(xlsxHeaders(cells));
+                    return;
+                }
+                totalRowCount[0]++;
+                progress.rowParsed();
+                if (rawRows.size() < maxSampleRows) {
+                    String[] values = new String[headers.size()];
+                    for (int i = 0; i < values.length && i < cells.size(); i++) {
+                        values[i] = cells.get(i);
+                    }
+                    rawRows.add(values);
+                }
+            });
+            if (headers.isEmpty()) {
+                throw new IllegalArgumentException("La hoja de Excel está vacía");
+            }
+            stageCompleted(UploadFormat.XLSX, "parse", System.nanoTime() - parseStarted);
+
+            log.info("Excel leído: {} filas totales, {} columnas", totalRowCount[0], headers.size());
+            // Los números de Excel siempre usan punto decimal
+            return tableReader(UploadFormat.XLSX, zone).toParsedCsv(',', headers, rawRows, totalRowCount[0], known);
+        } finally {
+            Files.deleteIfExists(temp);
         }
+    }
 
-        // Fallback: Windows-1252 (Excel/ANSI) que mantiene acentos españoles
-        try {
-            Charset win1252 = Charset.forName("windows-1252");
-            log.info("Usando Windows-1252 como fallback");
-            return win1252;
-        } catch (Exception ignored) {
-            log.info("Fallback a ISO-8859-1");
-            return StandardCharsets.ISO_8859_1;
+    private CsvTableReader tableReader(UploadFormat format, ZoneId zone) {
+        return new CsvTableReader(zone, (stage, nanos) -> stageCompleted(format, stage, nanos));
+    }
+
+    /**
+     * Registra la etapa en la métrica upload.stage, como evento de JFR y como
+     * span de la traza de la carga
+     */
+    private void stageCompleted(UploadFormat format, String stage, long nanos) {
+        stageTimer(format, stage).record(nanos, TimeUnit.NANOSECONDS);
+        IngestStageEvent.commit(format.name().toLowerCase(Locale.ROOT), stage, nanos);
+        stageSpan(format, stage, nanos);
+    }
+
+    /**
+     * CsvTableReader avisa al terminar cada etapa, así que el span se arma
+     * hacia atrás con la duración medida, como hijo del span actual (la
+     * petición o la carga masiva).
+     */
+    private void stageSpan(UploadFormat format, String stage, long nanos) {
+        Span parent = tracer.currentSpan();
+        if (parent == null) return;
+
+        long endMicros = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        tracer.spanBuilder()
+                .setParent(parent.context())
+                .name("upload.stage " + stage)
+                .tag("format", format.name().toLowerCase(Locale.ROOT))
+                .tag("stage", stage)
+                .startTimestamp(endMicros - TimeUnit.NANOSECONDS.toMicros(nanos), TimeUnit.MICROSECONDS)
+                .start()
+                .end(endMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Duración de cada etapa de la carga: scan (SHA-256 y charset del archivo
+     * completo), charset (prefijo de los comprimidos), delimiter, parse, typing y save
+     */
+    private Timer stageTimer(UploadFormat format, String stage) {
+        return Timer.builder("upload.stage")
+                .description("Duración de cada etapa de la carga de un archivo")
+                .tag("format", format.name().toLowerCase(Locale.ROOT))
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Filas leídas (rate() da filas por segundo) y la velocidad de cada parseo
+     */
+    private void recordRows(UploadFormat format, int rows, long parseNanos) {
+        String formatTag = format.name().toLowerCase(Locale.ROOT);
+        Counter.builder("upload.rows")
+                .description("Filas leídas de los archivos cargados")
+                .tag("format", formatTag)
+                .register(meterRegistry)
+                .increment(rows);
+        if (parseNanos > 0) {
+            DistributionSummary.builder("upload.parse.throughput")
+                    .description("Filas por segundo de cada parseo")
+                    .baseUnit("rows.per.second")
+                    .tag("format", formatTag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(rows * 1e9 / parseNanos);
         }
     }
+
+    /**
+     * Encabezados de la hoja: las celdas vacías se nombran por su columna y los
+     * nombres repetidos se numeran, como hace Excel al convertir a tabla.
+     */
+    private static List<String> xlsxHeaders(List<String> cells) {
+        List<String> headers = new ArrayList<>(cells.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < cells.size(); i++) {
+            String base = cells.get(i) == null || cells.get(i).isBlank() ? "Columna" + (i + 1) : cells.get(i);
+            String header = base;
+            for (int n = 2; !seen.add(header.toLowerCase(Locale.ROOT)); n++) {
+                header = base + n;
+            }
+            headers.add(header);
+        }
+        return headers;
+    }
+
+    /**
+     * Sanitiza la categoría y período para eliminar caracteres dañados o inválidos
+     */
+    private String sanitizeString(String input) {
+        if (input == null) return "";
+        // Elimina caracteres de control y caracteres no imprimibles
+        return input.replaceAll("[\\p{Cc}\\p{Cf}\\p{Co}\\p{Cn}]", "")
+                   .trim();
+    }
 }
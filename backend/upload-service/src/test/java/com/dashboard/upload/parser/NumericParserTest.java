@@ -0,0 +1,81 @@
+package com.dashboard.upload.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NumericParserTest {
+
+    private final NumericParser dotDecimal = new NumericParser(NumberFormatProfile.DOT_DECIMAL);
+    private final NumericParser commaDecimal = new NumericParser(NumberFormatProfile.COMMA_DECIMAL);
+
+    @Test
+    void puntoDecimalConComaDeMiles() {
+        assertThat(dotDecimal.parse("1,234,567.89")).isTrue();
+        assertThat(dotDecimal.kind()).isEqualTo(NumericParser.Kind.DOUBLE);
+        assertThat(dotDecimal.doubleValue()).isEqualTo(1234567.89);
+
+        assertThat(dotDecimal.parse("-1,234")).isTrue();
+        assertThat(dotDecimal.kind()).isEqualTo(NumericParser.Kind.LONG);
+        assertThat(dotDecimal.longValue()).isEqualTo(-1234L);
+    }
+
+    @Test
+    void comaDecimalConPuntoDeMiles() {
+        assertThat(commaDecimal.parse("1.234.567,89")).isTrue();
+        assertThat(commaDecimal.doubleValue()).isEqualTo(1234567.89);
+
+        assertThat(commaDecimal.parse("1.234")).isTrue();
+        assertThat(commaDecimal.kind()).isEqualTo(NumericParser.Kind.LONG);
+        assertThat(commaDecimal.longValue()).isEqualTo(1234L);
+    }
+
+    @Test
+    void gruposDeMilesInvalidosSonTexto() {
+        assertThat(dotDecimal.parse("1,23.4")).isFalse();
+        assertThat(dotDecimal.parse("12,3456")).isFalse();
+        assertThat(commaDecimal.parse("1,234.56")).isFalse();
+        assertThat(dotDecimal.parse("1E3")).isFalse();
+        assertThat(dotDecimal.parse("abc")).isFalse();
+    }
+
+    @Test
+    void notacionCientificaConParteDecimal() {
+        assertThat(dotDecimal.parse("1.5e3")).isTrue();
+        assertThat(dotDecimal.doubleValue()).isEqualTo(1500.0);
+    }
+
+    @Test
+    void enterosConCerosALaIzquierdaSonTexto() {
+        assertThat(dotDecimal.parse("007")).isFalse();
+        assertThat(dotDecimal.parse("0012345678")).isFalse();
+
+        assertThat(dotDecimal.parse("0")).isTrue();
+        assertThat(dotDecimal.longValue()).isZero();
+        assertThat(dotDecimal.parse("0.5")).isTrue();
+        assertThat(dotDecimal.doubleValue()).isEqualTo(0.5);
+        assertThat(commaDecimal.parse("0,05")).isTrue();
+        assertThat(commaDecimal.doubleValue()).isEqualTo(0.05);
+    }
+
+    @Test
+    void decimalesConMasDigitosQueLaMantisa() {
+        assertThat(dotDecimal.parse("0.12345678901234567890")).isTrue();
+        assertThat(dotDecimal.kind()).isEqualTo(NumericParser.Kind.DOUBLE);
+        assertThat(dotDecimal.doubleValue()).isEqualTo(Double.parseDouble("0.12345678901234567890"));
+
+        assertThat(commaDecimal.parse("-1.234.567,123456789012345678")).isTrue();
+        assertThat(commaDecimal.doubleValue()).isEqualTo(-1234567.123456789012345678);
+
+        assertThat(dotDecimal.parse("123456789012345678901.5e-3")).isTrue();
+        assertThat(dotDecimal.doubleValue()).isEqualTo(123456789012345678901.5e-3);
+    }
+
+    @Test
+    void enterosQueNoCabenEnLongSonTexto() {
+        assertThat(dotDecimal.parse("123456789012345678")).isTrue();
+        assertThat(dotDecimal.longValue()).isEqualTo(123456789012345678L);
+
+        assertThat(dotDecimal.parse("12345678901234567890")).isFalse();
+    }
+}
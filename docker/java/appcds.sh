@@ -0,0 +1,79 @@
+#!/bin/sh
+# Prepara un servicio Spring Boot para arrancar con AppCDS (y con Spring AOT si
+# el jar se construyó con mvn package -Paot). Lo usan los Dockerfile de los
+# servicios y backend/startup-benchmark.sh.
+#
+#   appcds.sh extract <fat-jar> <dir>
+#       Separa el fat jar en <dir>/application.jar (clases del servicio) y
+#       <dir>/lib/*.jar, y escribe <dir>/launch.args con el classpath, los
+#       --add-opens del manifiesto, spring.aot.enabled y la clase principal.
+#       AppCDS solo archiva clases de jars normales del classpath, no de los
+#       jars anidados de BOOT-INF/lib.
+#
+#   appcds.sh train <dir>
+#       Corrida de entrenamiento: levanta el contexto de Spring, sale antes de
+#       abrir puertos y deja las clases cargadas en <dir>/app.jsa.
+#
+# Arranque (desde <dir>): java -XX:SharedArchiveFile=app.jsa @launch.args
+set -eu
+
+extract() {
+    jar=$(realpath "$1")
+    dir=$2
+    work=$(mktemp -d)
+    (cd "$work" && jar xf "$jar")
+
+    manifest="$work/META-INF/MANIFEST.MF"
+    start_class=$(sed -n 's/^Start-Class: *//p' "$manifest" | tr -d '\r')
+    add_opens=$(sed -n 's/^Add-Opens: *//p' "$manifest" | tr -d '\r')
+
+    mkdir -p "$dir/lib"
+    jar cf "$dir/application.jar" -C "$work/BOOT-INF/classes" .
+    classpath=application.jar
+    # Mismo orden que el fat jar (classpath.idx)
+    for lib in $(sed -n 's/^- "BOOT-INF\/lib\/\(.*\)"$/\1/p' "$work/BOOT-INF/classpath.idx"); do
+        cp "$work/BOOT-INF/lib/$lib" "$dir/lib/"
+        classpath="$classpath:lib/$lib"
+    done
+
+    {
+        echo "-cp $classpath"
+        for opens in $add_opens; do
+            echo "--add-opens=$opens=ALL-UNNAMED"
+        done
+        if [ -f "$work/BOOT-INF/classes/$(echo "$start_class" | tr . /)__ApplicationContextInitializer.class" ]; then
+            echo "-Dspring.aot.enabled=true"
+        fi
+        echo "$start_class"
+    } > "$dir/launch.args"
+
+    rm -rf "$work"
+    echo "$start_class: $(ls "$dir/lib" | wc -l) jars en $dir"
+}
+
+train() {
+    cd "$1"
+    rm -f app.jsa
+    # En el build no hay bases de datos: no se crean índices de Mongo ni se lee
+    # el esquema de Postgres. Los clientes de Mongo, Postgres y Redis no se
+    # conectan hasta el primer uso, así que el contexto levanta igual.
+    java -XX:ArchiveClassesAtExit=app.jsa \
+        -Dspring.context.exit=onRefresh \
+        -Dspring.data.mongodb.auto-index-creation=false \
+        -Dspring.jpa.hibernate.ddl-auto=none \
+        -Dspring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false \
+        -Xlog:cds=off -Xlog:cds+dynamic=info \
+        @launch.args > train.log 2>&1 || { tail -50 train.log; exit 1; }
+    if [ ! -f app.jsa ]; then
+        tail -50 train.log
+        exit 1
+    fi
+    echo "app.jsa: $(du -h app.jsa | cut -f1)"
+    rm -f train.log
+}
+
+case "${1:-}" in
+    extract) extract "$2" "$3" ;;
+    train) train "$2" ;;
+    *) echo "Uso: appcds.sh extract <fat-jar> <dir> | appcds.sh train <dir>" >&2; exit 2 ;;
+esac
@@ -1,3 +1,5 @@
+import { clientTracingEnabled, startTrace } from './tracing';
+
 /**
  * API Configuration
  * Soporta API Gateway (puerto 8000) con fallback a servicios directos
@@ -57,5 +59,12 @@ export async function fetchWithFallback(
   options?: RequestInit
 ): Promise<Response> {
   const baseUrl = await getServiceUrl(service);
-  return fetch(`${baseUrl}${path}`, options);
+  if (!clientTracingEnabled) {
+    return fetch(`${baseUrl}${path}`, options);
+  }
+  const headers = new Headers(options?.headers);
+  if (!headers.has('traceparent')) {
+    headers.set('traceparent', startTrace().headers().traceparent);
+  }
+  return fetch(`${baseUrl}${path}`, { ...options, headers });
 }
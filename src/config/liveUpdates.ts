@@ -0,0 +1,48 @@
+import { API_CONFIG } from './apiConfig';
+
+/**
+ * Cambio de un reporte enviado por report-service (GET /csv/live/{userId}).
+ * DELETED: el reporte ya no es visible para el usuario, solo trae reportId.
+ */
+export interface ReportDelta {
+  type: 'CREATED' | 'UPDATED' | 'DELETED';
+  reportId: string;
+  userId?: number;
+  category?: string;
+  period?: string;
+  fileName?: string;
+  rowCount?: number;
+  isPublic?: boolean;
+  uploadedAt?: string;
+}
+
+/**
+ * Se suscribe a los cambios de reportes por SSE. EventSource reconecta solo;
+ * onResync se llama en cada reconexión porque los cambios ocurridos mientras
+ * estaba desconectado no se reenvían.
+ * @returns función para cerrar la suscripción
+ */
+export function subscribeToReportUpdates(
+  userId: number,
+  onDelta: (delta: ReportDelta) => void,
+  onResync?: () => void
+): () => void {
+  if (typeof EventSource === 'undefined') return () => {};
+
+  const source = new EventSource(`${API_CONFIG.direct.reports}/csv/live/${userId}`);
+  let connectedBefore = false;
+
+  source.addEventListener('ready', () => {
+    if (connectedBefore) onResync?.();
+    connectedBefore = true;
+  });
+  source.addEventListener('report', (event) => {
+    try {
+      onDelta(JSON.parse((event as MessageEvent).data));
+    } catch (e) {
+      console.warn('Evento de reporte inválido', e);
+    }
+  });
+
+  return () => source.close();
+}
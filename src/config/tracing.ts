@@ -0,0 +1,36 @@
+/**
+ * Contexto de traza W3C (traceparent) creado en el navegador.
+ *
+ * Una petición lógica usa el mismo trace-id en el intento por el API Gateway
+ * y en el fallback directo al servicio, así los dos intentos quedan en la
+ * misma traza y se ve cuánto costó el fallback.
+ *
+ * Solo con VITE_CLIENT_TRACING=true: el encabezado hace que cada GET lleve
+ * preflight CORS y la traza llega marcada como muestreada. Sin él, el gateway
+ * empieza la traza y decide el muestreo (TRACING_SAMPLING_PERCENT).
+ */
+export interface TraceContext {
+  traceId: string;
+  /** Encabezados para un intento: mismo trace-id, span-id nuevo; vacío sin trazas en el cliente */
+  headers(): Record<string, string>;
+}
+
+export const clientTracingEnabled = import.meta?.env?.VITE_CLIENT_TRACING === 'true';
+
+function randomHex(bytes: number): string {
+  const values = new Uint8Array(bytes);
+  crypto.getRandomValues(values);
+  return Array.from(values, (value) => value.toString(16).padStart(2, '0')).join('');
+}
+
+export function startTrace(): TraceContext {
+  if (!clientTracingEnabled) {
+    return { traceId: '', headers: () => ({}) };
+  }
+  const traceId = randomHex(16);
+  return {
+    traceId,
+    // 01: muestreada, se activa para seguir peticiones concretas desde el navegador
+    headers: () => ({ traceparent: `00-${traceId}-${randomHex(8)}-01` }),
+  };
+}
@@ -3,6 +3,8 @@ import { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
 import Highcharts from "highcharts";
 import HighchartsReact from "highcharts-react-official";
+import { subscribeToReportUpdates } from "../config/liveUpdates";
+import { startTrace } from "../config/tracing";
 
 interface ReporterStats {
   totalCategories: number;
@@ -62,14 +64,20 @@ export default function Dashboard() {
 
   const fetchStats = async (userId: number) => {
     try {
+      // Gateway y fallback en la misma traza
+      const trace = startTrace();
+
       // Intentar con API Gateway primero (puerto 8000) -> Report Service
       let response = await fetch(
-        `http://localhost:8000/api/reports/csv/stats/${userId}`
+        `http://localhost:8000/api/reports/csv/stats/${userId}`,
+        { headers: trace.headers() }
       ).catch(() => null);
 
       // Si el gateway falla o devuelve status no-ok, intentar directo al servicio
       if (!response || !response.ok) {
-        response = await fetch(`http://localhost:2084/api/reports/csv/stats/${userId}`);
+        response = await fetch(`http://localhost:2084/api/reports/csv/stats/${userId}`, {
+          headers: trace.headers(),
+        });
       }
       
       if (response.ok) {
@@ -79,7 +87,8 @@ export default function Dashboard() {
         // Solo establecer la columna por defecto, NO cargar el análisis automáticamente
         if (data.availableColumns && data.availableColumns.length > 0) {
           const firstColumn = data.availableColumns[0];
-          setSelectedColumn(firstColumn);
+          // Al refrescar por un cambio en vivo se mantiene la columna elegida
+          setSelectedColumn((current) => current || firstColumn);
         }
       } else {
         console.warn("Stats endpoint returned non-ok status:", response?.status);
@@ -91,16 +100,44 @@ export default function Dashboard() {
     }
   };
 
+  // Cambios de reportes propios por SSE: se vuelve a pedir /stats (lectura por id) en vez de recargar la página
+  useEffect(() => {
+    const userId = user?.userId || user?.id;
+    if (!userId) return;
+
+    let timer: ReturnType<typeof setTimeout> | undefined;
+    const refresh = () => {
+      clearTimeout(timer);
+      timer = setTimeout(() => fetchStats(userId), 1000);
+    };
+    const unsubscribe = subscribeToReportUpdates(
+      userId,
+      (delta) => {
+        // DELETED no trae dueño: puede ser un reporte propio
+        if (delta.type === "DELETED" || delta.userId === userId) refresh();
+      },
+      refresh
+    );
+    return () => {
+      clearTimeout(timer);
+      unsubscribe();
+    };
+  }, [user]);
+
   const fetchColumnAnalysis = async (userId: number, column: string) => {
     setLoadingAnalysis(true);
     try {
+      const trace = startTrace();
       let response = await fetch(
-        `http://localhost:8000/api/reports/csv/analysis/${userId}?column=${encodeURIComponent(column)}`
+        `http://localhost:8000/api/reports/csv/analysis/${userId}?column=${encodeURIComponent(column)}`,
+        { headers: trace.headers() }
       ).catch(() => null);
 
       // Fallback si gateway falla o retorna no-ok
       if (!response || !response.ok) {
-        response = await fetch(`http://localhost:2084/api/reports/csv/analysis/${userId}?column=${encodeURIComponent(column)}`);
+        response = await fetch(`http://localhost:2084/api/reports/csv/analysis/${userId}?column=${encodeURIComponent(column)}`, {
+          headers: trace.headers(),
+        });
       }
       
       if (response.ok) {
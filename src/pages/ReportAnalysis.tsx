@@ -17,6 +17,10 @@ type CsvReport = {
   rows: Record<string, any>[];
   uploadedAt: string;
   status: string;
+  metadata?: {
+    dateColumns?: Record<string, string>;
+    dateZone?: string;
+  };
 };
 
 export default function ReportAnalysis() {
@@ -35,9 +39,24 @@ export default function ReportAnalysis() {
   const [sortDirection, setSortDirection] = useState<"asc" | "desc">("asc");
   const pageSize = 100;
 
+  /**
+   * Formats a cell for display. Date columns arrive as epoch milliseconds
+   * and are shown in the zone they were uploaded with.
+   * @param header - Column name
+   * @param value - Raw cell value
+   * @returns Display string ("" for empty cells)
+   */
+  const formatCell = (header: string, value: any): string => {
+    if (value === null || value === undefined) return "";
+    if (typeof value === "number" && report?.metadata?.dateColumns?.[header]) {
+      return new Date(value).toLocaleString("es-CO", { timeZone: report.metadata.dateZone });
+    }
+    return String(value);
+  };
+
   const filteredRows = report?.rows?.filter((row) => {
     if (!filterColumn || !filterValue) return true;
-    const cellValue = String(row[filterColumn] ?? "").toLowerCase();
+    const cellValue = formatCell(filterColumn, row[filterColumn]).toLowerCase();
     return cellValue.includes(filterValue.toLowerCase());
   }) ?? [];
 
@@ -153,7 +172,7 @@ export default function ReportAnalysis() {
       ...filteredRows.map((row) =>
         headers
           .map((header) => {
-            const value = row[header] !== null && row[header] !== undefined ? String(row[header]) : "";
+            const value = formatCell(header, row[header]);
             // Escapar valores que contengan el delimitador, comillas o saltos de línea
             if (value.includes(delimiter) || value.includes('"') || value.includes("\n")) {
               return `"${value.replace(/"/g, '""')}"`;
@@ -416,9 +435,7 @@ export default function ReportAnalysis() {
                           key={colIndex}
                           className="px-4 py-3 text-sm text-gray-800 whitespace-nowrap"
                         >
-                          {row[header] !== null && row[header] !== undefined
-                            ? String(row[header])
-                            : "-"}
+                          {formatCell(header, row[header]) || "-"}
                         </td>
                       ))}
                   </tr>
@@ -3,6 +3,7 @@ import { Filter, Loader2, AlertCircle, X } from "lucide-react";
 import * as Highcharts from "highcharts";
 import HighchartsReact from "highcharts-react-official";
 import "highcharts/modules/exporting";
+import { subscribeToReportUpdates, type ReportDelta } from "../config/liveUpdates";
 
 type PeriodInfo = {
   reportId: string;
@@ -53,6 +54,36 @@ const buildCounts = (rows: Record<string, any>[], column?: string, top = 999): C
     .map(([name, y]) => ({ name, y }));
 };
 
+/**
+ * Applies a live report change to the category → periods menu.
+ * The report is removed from wherever it was and, unless deleted, added again
+ * under its (possibly new) category. Categories left empty are dropped.
+ * @param categories - Current menu
+ * @param delta - Change received from /csv/live/{userId}
+ * @returns New menu object (the input is not modified)
+ */
+const applyReportDelta = (categories: CategoriesData, delta: ReportDelta): CategoriesData => {
+  const next: CategoriesData = {};
+  Object.entries(categories).forEach(([category, periods]) => {
+    const remaining = periods.filter((p) => p.reportId !== delta.reportId);
+    if (remaining.length > 0) next[category] = remaining;
+  });
+  if (delta.type === "DELETED") return next;
+
+  const category = delta.category ?? "Sin categoría";
+  next[category] = [
+    ...(next[category] || []),
+    {
+      reportId: delta.reportId,
+      period: delta.period ?? "",
+      fileName: delta.fileName ?? "",
+      rowCount: delta.rowCount ?? 0,
+      uploadedAt: delta.uploadedAt ?? "",
+    },
+  ];
+  return next;
+};
+
 /**
  * Safely extracts userId from localStorage with fallback to default value.
  * Handles missing data, JSON parse errors, and missing userId property.
@@ -149,6 +180,20 @@ export default function Statistics() {
     fetchCategories();
   }, [fetchCategories]);
 
+  /**
+   * Keeps the category menu up to date with reports uploaded or deleted elsewhere.
+   * On reconnection the menu is reloaded, since missed changes are not replayed.
+   * @effect Patches categories state with each ReportDelta
+   * @api GET /api/reports/csv/live/{userId} (Server-Sent Events)
+   */
+  useEffect(() => {
+    return subscribeToReportUpdates(
+      Number(tryGetUserId()),
+      (delta) => setCategories((current) => applyReportDelta(current, delta)),
+      fetchCategories
+    );
+  }, [fetchCategories]);
+
   useEffect(() => {
     if (!selectedCategory) {
       const firstCategory = Object.keys(categories)[0];
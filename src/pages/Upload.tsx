@@ -1,6 +1,91 @@
 import { useState } from "react";
 import { Upload as UploadIcon, FileText, CheckCircle, XCircle } from "lucide-react";
 
+const ACCEPTED_EXTENSIONS = [".csv", ".csv.gz", ".csv.zst", ".zip", ".xlsx"];
+
+const isAcceptedFile = (name: string) =>
+  ACCEPTED_EXTENSIONS.some((ext) => name.toLowerCase().endsWith(ext));
+
+const UPLOAD_API = "http://localhost:2083/api/upload/csv";
+
+type UploadStage = "WAITING" | "QUEUED" | "SCANNING" | "PARSING" | "SAVING" | "DONE" | "ERROR" | "REJECTED";
+
+// Evento "progress" de GET /csv/progress/{uploadId}
+interface UploadProgress {
+  uploadId: string;
+  stage: UploadStage;
+  fileName?: string;
+  totalBytes: number;
+  bytesRead: number;
+  rowsParsed: number;
+  elapsedMs: number;
+  result?: any;
+  error?: string;
+}
+
+const STAGE_LABELS: Record<UploadStage, string> = {
+  WAITING: "Subiendo archivo...",
+  QUEUED: "En cola, esperando turno...",
+  SCANNING: "Verificando archivo...",
+  PARSING: "Procesando filas...",
+  SAVING: "Guardando reporte...",
+  DONE: "Listo",
+  ERROR: "Error",
+  REJECTED: "Servidor ocupado",
+};
+
+const isTerminal = (stage: UploadStage) => stage === "DONE" || stage === "ERROR" || stage === "REJECTED";
+
+// El mismo archivo con los mismos datos reutiliza su uploadId: al reintentar o recargar
+// la página se sigue la carga que ya está en curso en vez de subir el archivo otra vez
+const uploadKey = (file: File, userId: number, category: string, period: string) =>
+  `upload:${userId}:${file.name}:${file.size}:${file.lastModified}:${category}:${period}`;
+
+const newUploadId = () =>
+  typeof crypto !== "undefined" && "randomUUID" in crypto
+    ? crypto.randomUUID()
+    : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2, 12)}`;
+
+/**
+ * Sigue el avance de una carga. first se resuelve con el primer evento (el estado
+ * actual) o null si no llega a tiempo; done con el evento final.
+ */
+const watchUploadProgress = (uploadId: string, onProgress: (progress: UploadProgress) => void) => {
+  const source = new EventSource(`${UPLOAD_API}/progress/${uploadId}`);
+  let resolveFirst: (progress: UploadProgress | null) => void = () => {};
+  let resolveDone: (progress: UploadProgress) => void = () => {};
+  const first = new Promise<UploadProgress | null>((resolve) => (resolveFirst = resolve));
+  const done = new Promise<UploadProgress>((resolve) => (resolveDone = resolve));
+  setTimeout(() => resolveFirst(null), 3000);
+
+  let started = false;
+  source.addEventListener("progress", (event) => {
+    const progress: UploadProgress = JSON.parse((event as MessageEvent).data);
+    onProgress(progress);
+    resolveFirst(progress);
+    if (progress.stage !== "WAITING") {
+      started = true;
+    } else if (started) {
+      // Tras reconectar la carga ya no existe (el servicio se reinició)
+      source.close();
+      resolveDone({ ...progress, stage: "ERROR", error: "La carga se interrumpió, vuelve a intentarlo" });
+    }
+    if (isTerminal(progress.stage)) {
+      // Sin close() EventSource reconectaría al terminar el stream
+      source.close();
+      resolveDone(progress);
+    }
+  });
+  source.onerror = () => resolveFirst(null);
+
+  return { first, done, close: () => source.close() };
+};
+
+const resultOf = (progress: UploadProgress) => {
+  if (progress.stage !== "DONE") throw new Error(progress.error || "Error al procesar el archivo");
+  return progress.result;
+};
+
 export default function Upload() {
   const [file, setFile] = useState<File | null>(null);
   const [category, setCategory] = useState("");
@@ -9,12 +94,13 @@ export default function Upload() {
   const [uploading, setUploading] = useState(false);
   const [result, setResult] = useState<any>(null);
   const [error, setError] = useState("");
+  const [progress, setProgress] = useState<UploadProgress | null>(null);
 
   const handleFileChange = (e: React.ChangeEvent<HTMLInputElement>) => {
     const selectedFile = e.target.files?.[0];
     if (selectedFile) {
-      if (!selectedFile.name.toLowerCase().endsWith(".csv")) {
-        setError("Solo se permiten archivos CSV");
+      if (!isAcceptedFile(selectedFile.name)) {
+        setError("Solo se permiten archivos CSV o Excel (.csv, .csv.gz, .csv.zst, .zip o .xlsx)");
         return;
       }
       setFile(selectedFile);
@@ -39,29 +125,49 @@ export default function Upload() {
     setUploading(true);
     setError("");
     setResult(null);
+    setProgress(null);
+
+    const userData = localStorage.getItem("user");
+    const userId = userData ? JSON.parse(userData).userId : 1;
+    const key = uploadKey(file, userId, category.trim(), period.trim());
+    const uploadId = localStorage.getItem(key) || newUploadId();
+    localStorage.setItem(key, uploadId);
+    const watcher = watchUploadProgress(uploadId, setProgress);
 
     try {
-      const userData = localStorage.getItem("user");
-      const userId = userData ? JSON.parse(userData).userId : 1;
-
-      const formData = new FormData();
-      formData.append("file", file);
-      formData.append("userId", userId.toString());
-      formData.append("category", category.trim());
-      formData.append("period", period.trim());
-      formData.append("isPublic", String(isPublic));
-
-      const response = await fetch("http://localhost:2083/api/upload/csv/upload", {
-        method: "POST",
-        body: formData,
-      });
-
-      if (!response.ok) {
-        const errorData = await response.json().catch(() => ({}));
-        throw new Error(errorData.error || "Error al subir archivo");
+      let data;
+      const current = await watcher.first;
+      if (current && current.stage !== "WAITING" && current.stage !== "ERROR" && current.stage !== "REJECTED") {
+        // La carga ya está en curso o terminó (p. ej. antes de recargar la página)
+        data = resultOf(await watcher.done);
+      } else {
+        const formData = new FormData();
+        formData.append("file", file);
+        formData.append("userId", userId.toString());
+        formData.append("category", category.trim());
+        formData.append("period", period.trim());
+        formData.append("isPublic", String(isPublic));
+        formData.append("uploadId", uploadId);
+
+        // Si el gateway o el navegador reintentan, el servicio devuelve la respuesta de la primera petición
+        const response = await fetch(`${UPLOAD_API}/upload`, {
+          method: "POST",
+          headers: { "Idempotency-Key": uploadId },
+          body: formData,
+        });
+
+        if (response.status === 409) {
+          // La misma carga ya está en curso (otra pestaña o un reintento): esperar su resultado
+          data = resultOf(await watcher.done);
+        } else if (!response.ok) {
+          const errorData = await response.json().catch(() => ({}));
+          throw new Error(errorData.error || "Error al subir archivo");
+        } else {
+          data = await response.json();
+        }
       }
 
-      const data = await response.json();
+      localStorage.removeItem(key);
       setResult(data);
       setFile(null);
       setCategory("");
@@ -73,19 +179,21 @@ export default function Upload() {
     } catch (err: any) {
       setError(err.message || "Error al procesar el archivo");
     } finally {
+      watcher.close();
       setUploading(false);
+      setProgress(null);
     }
   };
 
   const handleDrop = (e: React.DragEvent<HTMLDivElement>) => {
     e.preventDefault();
     const droppedFile = e.dataTransfer.files[0];
-    if (droppedFile && droppedFile.name.toLowerCase().endsWith(".csv")) {
+    if (droppedFile && isAcceptedFile(droppedFile.name)) {
       setFile(droppedFile);
       setError("");
       setResult(null);
     } else {
-      setError("Solo se permiten archivos CSV");
+      setError("Solo se permiten archivos CSV o Excel (.csv, .csv.gz, .csv.zst, .zip o .xlsx)");
     }
   };
 
@@ -178,7 +286,7 @@ export default function Upload() {
               Seleccionar archivo
               <input
                 type="file"
-                accept=".csv"
+                accept={ACCEPTED_EXTENSIONS.join(",")}
                 onChange={handleFileChange}
                 className="hidden"
               />
@@ -200,6 +308,27 @@ export default function Upload() {
         </div>
       )}
 
+      {/* Upload Progress */}
+      {uploading && progress && (
+        <div className="mt-4 bg-blue-50 border border-blue-200 rounded-lg p-4">
+          <div className="flex justify-between text-sm text-blue-800 mb-2">
+            <span className="font-medium">{STAGE_LABELS[progress.stage]}</span>
+            <span>{Math.round(progress.elapsedMs / 1000)} s</span>
+          </div>
+          {(progress.stage === "SCANNING" || progress.stage === "PARSING") && progress.totalBytes > 0 && (
+            <div className="w-full bg-blue-100 rounded-full h-2 mb-2">
+              <div
+                className="bg-blue-600 h-2 rounded-full transition-all"
+                style={{ width: `${Math.min(100, (progress.bytesRead / progress.totalBytes) * 100)}%` }}
+              />
+            </div>
+          )}
+          {progress.rowsParsed > 0 && (
+            <p className="text-xs text-blue-700">{progress.rowsParsed.toLocaleString()} filas leídas</p>
+          )}
+        </div>
+      )}
+
       {/* Error Message */}
       {error && (
         <div className="mt-6 bg-red-50 border border-red-200 rounded-lg p-4 flex items-start gap-3">